@@ -28,8 +28,13 @@ import de.sstoehr.harreader.model.HarRequest;
 import de.sstoehr.harreader.model.HarResponse;
 import de.sstoehr.harreader.model.HarTiming;
 
+import io.github.vdaburon.jmeter.har.common.ParsedEntry;
+import io.github.vdaburon.jmeter.har.common.UrlFilter;
+import io.github.vdaburon.jmeter.har.stream.LazyResponseBody;
 import io.github.vdaburon.jmeter.har.websocket.WebSocketRequest;
 import io.github.vdaburon.jmeter.har.websocket.WebSocketPDoornboshResultXml;
+import io.github.vdaburon.jmeter.har.xml.StreamedText;
+import io.github.vdaburon.jmeter.har.xml.StreamingDomWriter;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -41,19 +46,49 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
-import java.net.URI;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class Har2TestResultsXml {
 
     private static final Logger LOGGER = Logger.getLogger(Har2TestResultsXml.class.getName());
 
+    private StreamingDomWriter streamingDomWriter = null;
+    private UrlFilter urlFilter = null;
+
+    /**
+     * Record.xml 파일을 생성하면서 쓰기, 완료된 httpSample은 파일에 쓰고 Document에서 제거합니다.
+     * 응답 본문은 HAR 파일에서 디코딩되어 바로 출력 파일로 복사됩니다 (전체 본문을 메모리에 보관하지 않음).
+     * 호출자는 convertHarToTestResultXml 이후 streamingDomWriter.finish()를 호출합니다.
+     *
+     * @param streamingDomWriter Record.xml 파일 writer, null이면 전체 Document를 메모리에 보관 (기본값)
+     */
+    public void setStreamingDomWriter(StreamingDomWriter streamingDomWriter) {
+        this.streamingDomWriter = streamingDomWriter;
+    }
+
+    /**
+     * JMX 스크립트와 공유하는 URL 필터 (한 번만 컴파일), urlFilterToInclude 및 urlFilterToExclude 파라미터는 다시 컴파일하지 않습니다.
+     *
+     * @param urlFilter URL 필터, null이면 convertHarToTestResultXml의 필터 파라미터를 컴파일 (기본값)
+     */
+    public void setUrlFilter(UrlFilter urlFilter) {
+        this.urlFilter = urlFilter;
+    }
+
     /**
      * HAR(HTTP Archive) 파일을 JMeter의 테스트 결과 XML 형식으로 변환합니다.
      *
@@ -61,27 +96,37 @@ public class Har2TestResultsXml {
      * @param urlFilterToInclude 포함할 URL을 필터링하는 정규식 (비어 있으면 모든 URL 포함)
      * @param urlFilterToExclude 제외할 URL을 필터링하는 정규식 (비어 있으면 모든 URL 제외)
      * @param samplerStartNumber 샘플러 시작 번호
-     * @param webSocketRequest WebSocket 요청 처리 객체
+     * @param listWebSocketRequest WebSocket 연결 목록 (ws 엔트리마다 하나, 파일 순서), null이면 WebSocket 플러그인 미사용
      * @return JMeter 테스트 결과 XML Document 객체
      */
-    protected Document convertHarToTestResultXml(Har har, String urlFilterToInclude, String urlFilterToExclude, int samplerStartNumber, WebSocketRequest webSocketRequest) throws ParserConfigurationException, URISyntaxException {
-
-        Pattern patternUrlInclude = null;
-        if (!urlFilterToInclude.isEmpty()) {
-            patternUrlInclude = Pattern.compile(urlFilterToInclude);
-        }
+    protected Document convertHarToTestResultXml(Har har, String urlFilterToInclude, String urlFilterToExclude, int samplerStartNumber, List<WebSocketRequest> listWebSocketRequest) throws ParserConfigurationException, URISyntaxException {
+        return convertHarToTestResultXml(har.getLog().getEntries().iterator(), urlFilterToInclude, urlFilterToExclude, samplerStartNumber, listWebSocketRequest);
+    }
 
-        Pattern patternUrlExclude = null;
-        if (!urlFilterToExclude.isEmpty()) {
-            patternUrlExclude = Pattern.compile(urlFilterToExclude);
+    /**
+     * HAR 엔트리를 하나씩 읽으면서 JMeter의 테스트 결과 XML 형식으로 변환합니다. (HarStreamReader의 HarEntryIterator 사용 가능)
+     *
+     * @param itEntries HAR 엔트리 Iterator (엔트리를 하나씩 처리, 전체 엔트리를 메모리에 보관하지 않음)
+     * @param urlFilterToInclude 포함할 URL을 필터링하는 정규식 (비어 있으면 모든 URL 포함)
+     * @param urlFilterToExclude 제외할 URL을 필터링하는 정규식 (비어 있으면 모든 URL 제외)
+     * @param samplerStartNumber 샘플러 시작 번호
+     * @param listWebSocketRequest WebSocket 연결 목록 (ws 엔트리마다 하나, 파일 순서), null이면 WebSocket 플러그인 미사용
+     * @return JMeter 테스트 결과 XML Document 객체
+     */
+    protected Document convertHarToTestResultXml(Iterator<HarEntry> itEntries, String urlFilterToInclude, String urlFilterToExclude, int samplerStartNumber, List<WebSocketRequest> listWebSocketRequest) throws ParserConfigurationException, URISyntaxException {
+        UrlFilter urlFilterUsed = urlFilter;
+        if (urlFilterUsed == null) {
+            urlFilterUsed = UrlFilter.create(urlFilterToInclude, urlFilterToExclude);
         }
 
         DocumentBuilderFactory documentFactory = DocumentBuilderFactory.newInstance();
         DocumentBuilder documentBuilder = documentFactory.newDocumentBuilder();
         Document document = documentBuilder.newDocument();
 
-        Element eltTestResults = createTestResults(har, document, patternUrlInclude, patternUrlExclude, samplerStartNumber, webSocketRequest);
-        document.appendChild(eltTestResults);
+        Element eltTestResults = createTestResults(itEntries, document, urlFilterUsed, samplerStartNumber, listWebSocketRequest);
+        if (eltTestResults.getParentNode() == null) { // already in the document when streaming
+            document.appendChild(eltTestResults);
+        }
 
         return document;
     }
@@ -95,36 +140,72 @@ public class Har2TestResultsXml {
      * @param patternUrlInclude 포함할 URL 정규식 패턴
      * @param patternUrlExclude 제외할 URL 정규식 패턴
      * @param samplerStartNumber 샘플러 시작 번호
-     * @param webSocketRequest WebSocket 요청 처리 객체
+     * @param listWebSocketRequest WebSocket 연결 목록 (ws 엔트리마다 하나, 파일 순서), null이면 WebSocket 플러그인 미사용
+     * @return 생성된 'testResults' Element 객체
+     */
+    protected Element createTestResults(Har har, Document document, Pattern patternUrlInclude, Pattern patternUrlExclude, int samplerStartNumber, List<WebSocketRequest> listWebSocketRequest) throws URISyntaxException {
+        return createTestResults(har.getLog().getEntries().iterator(), document, patternUrlInclude, patternUrlExclude, samplerStartNumber, listWebSocketRequest);
+    }
+
+    /**
+     * JMeter 테스트 결과 XML의 최상위 요소인 'testResults'를 생성합니다.
+     *
+     * @param itEntries HAR 엔트리 Iterator
+     * @param document XML Document 객체
+     * @param patternUrlInclude 포함할 URL 정규식 패턴
+     * @param patternUrlExclude 제외할 URL 정규식 패턴
+     * @param samplerStartNumber 샘플러 시작 번호
+     * @param listWebSocketRequest WebSocket 연결 목록 (ws 엔트리마다 하나, 파일 순서), null이면 WebSocket 플러그인 미사용
+     * @return 생성된 'testResults' Element 객체
+     */
+    protected Element createTestResults(Iterator<HarEntry> itEntries, Document document, Pattern patternUrlInclude, Pattern patternUrlExclude, int samplerStartNumber, List<WebSocketRequest> listWebSocketRequest) throws URISyntaxException {
+        List<String> listIncludeRules = new ArrayList<>();
+        if (patternUrlInclude != null) {
+            listIncludeRules.add(UrlFilter.K_RULE_REGEX + patternUrlInclude.pattern());
+        }
+        List<String> listExcludeRules = new ArrayList<>();
+        if (patternUrlExclude != null) {
+            listExcludeRules.add(UrlFilter.K_RULE_REGEX + patternUrlExclude.pattern());
+        }
+        return createTestResults(itEntries, document, UrlFilter.create(listIncludeRules, listExcludeRules), samplerStartNumber, listWebSocketRequest);
+    }
+
+    /**
+     * JMeter 테스트 결과 XML의 최상위 요소인 'testResults'를 생성합니다.
+     * HAR 엔트리를 Iterator로 하나씩 읽으므로 HAR 파일 전체를 메모리에 로드할 필요가 없습니다.
+     *
+     * @param itEntries HAR 엔트리 Iterator
+     * @param document XML Document 객체
+     * @param urlFilter URL 필터 (JMX 스크립트와 같은 규칙 : 포함 규칙과 일치하고 제외 규칙과 일치하지 않는 URL)
+     * @param samplerStartNumber 샘플러 시작 번호
+     * @param listWebSocketRequest WebSocket 연결 목록 (ws 엔트리마다 하나, 파일 순서), null이면 WebSocket 플러그인 미사용
      * @return 생성된 'testResults' Element 객체
      */
-    protected Element createTestResults(Har har, Document document, Pattern patternUrlInclude, Pattern patternUrlExclude, int samplerStartNumber, WebSocketRequest webSocketRequest) throws URISyntaxException {
+    protected Element createTestResults(Iterator<HarEntry> itEntries, Document document, UrlFilter urlFilter, int samplerStartNumber, List<WebSocketRequest> listWebSocketRequest) throws URISyntaxException {
         Element eltTestResults = document.createElement("testResults");
         Attr attrTrversion = document.createAttribute("version");
         attrTrversion.setValue("1.2");
         eltTestResults.setAttributeNode(attrTrversion);
+        if (streamingDomWriter != null) {
+            document.appendChild(eltTestResults); // the writer needs the path from the document
+        }
 
-        List<HarEntry> lEntries = har.getLog().getEntries();
         String currentUrl = "";
         int num = samplerStartNumber;
+        int numWsEntry = 0; // the connections of listWebSocketRequest are in the order of the ws entries
 
-        for (int e = 0; e < lEntries.size(); e++) {
-            HarEntry harEntryInter = lEntries.get(e);
+        while (itEntries.hasNext()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Record.xml creation cancelled at the sample : " + num); // the other generator failed (다른 생성기 실패)
+            }
+            flushCompletedSamples(eltTestResults); // the previous samples are complete
+            HarEntry harEntryInter = itEntries.next();
 
             HarRequest harRequest = harEntryInter.getRequest();
             currentUrl = harRequest.getUrl();
 
-            // URL 포함 필터링 적용
-            boolean isAddThisRequest = true;
-            if (patternUrlInclude != null) {
-                Matcher matcher = patternUrlInclude.matcher(currentUrl);
-                isAddThisRequest = matcher.find();
-            }
-            // URL 제외 필터링 적용
-            if (patternUrlExclude != null) {
-                Matcher matcher = patternUrlExclude.matcher(currentUrl);
-                isAddThisRequest = !matcher.find();
-            }
+            // URL 포함/제외 필터링 적용 (JMX 스크립트와 같은 규칙)
+            boolean isAddThisRequest = urlFilter.isUrlKept(currentUrl);
 
             HashMap hAddictional = (HashMap<String, Object>) harEntryInter.getAdditional();
             if (hAddictional != null) { // HAR 추가 정보 확인
@@ -135,9 +216,8 @@ public class Har2TestResultsXml {
                 }
             }
 
-            String sURl = harEntryInter.getRequest().getUrl();
-            URI uri = new URI(sURl);
-            String scheme = uri.getScheme();
+            ParsedEntry parsedEntry = new ParsedEntry(harEntryInter); // url parsed once for this entry
+            String scheme = parsedEntry.getScheme();
 
             // data: 프로토콜은 JMeter에서 지원하지 않으므로 제외
             if ("data".equalsIgnoreCase(scheme)) {
@@ -146,16 +226,22 @@ public class Har2TestResultsXml {
             }
             // WebSocket 요청 처리
             if ("ws".equalsIgnoreCase(scheme) || "wss".equalsIgnoreCase(scheme)) {
-                 if (isAddThisRequest && webSocketRequest != null) {
-                    num = WebSocketPDoornboshResultXml.createWsSample(document, eltTestResults, harEntryInter, num, webSocketRequest);
-                    num = num + 2;
+                // 이 ws 엔트리의 연결과 메시지 (the entries of this stream are not the entries of the JMX, the connection is found by its order)
+                WebSocketRequest webSocketRequest = null;
+                if (listWebSocketRequest != null && numWsEntry < listWebSocketRequest.size()) {
+                    webSocketRequest = listWebSocketRequest.get(numWsEntry);
+                }
+                numWsEntry++;
+                if (isAddThisRequest && webSocketRequest != null) {
+                    int lastMessageNum = WebSocketPDoornboshResultXml.createWsSample(document, eltTestResults, parsedEntry, num, webSocketRequest);
+                    num = lastMessageNum + 2; // the Close sampler of the script has no sample (스크립트의 닫기 샘플러 번호 건너뜀)
                 }
                 isAddThisRequest = false; // already added
             }
 
             // 요청을 추가할 경우 HTTP 샘플 생성
             if (isAddThisRequest) {
-                Element eltHttpSample = createHttpSample(document, harEntryInter, num);
+                Element eltHttpSample = createHttpSample(document, parsedEntry, num);
                 eltTestResults.appendChild(eltHttpSample);
                 num++;
             }
@@ -165,22 +251,37 @@ public class Har2TestResultsXml {
         return eltTestResults;
     }
 
+    /**
+     * 스트리밍 모드에서 완료된 샘플을 파일에 쓰고 Document에서 제거합니다.
+     *
+     * @param eltTestResults 'testResults' Element 객체
+     */
+    private void flushCompletedSamples(Element eltTestResults) {
+        if (streamingDomWriter != null) {
+            try {
+                streamingDomWriter.flush(eltTestResults);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
 
     /**
      * JMeter의 'httpSample' 요소를 생성합니다.
      * HAR 엔트리의 요청 및 응답 정보를 기반으로 샘플러의 속성과 자식 요소들을 채웁니다.
      *
      * @param document XML Document 객체
-     * @param harEntry HAR 엔트리 객체
+     * @param parsedEntry 한 번만 계산된 HAR 엔트리의 값
      * @param num 샘플러 번호
      * @return 생성된 'httpSample' Element 객체
      */
-    protected Element createHttpSample(Document document, HarEntry harEntry, int num) throws URISyntaxException {
-
+    protected Element createHttpSample(Document document, ParsedEntry parsedEntry, int num) {
+        HarEntry harEntry = parsedEntry.getHarEntry();
         HarRequest harRequest = harEntry.getRequest();
         HarResponse harResponse = harEntry.getResponse();
 
-        Element eltHttpSample = createEltHttpSample(document, harEntry, num);
+        Element eltHttpSample = createEltHttpSample(document, parsedEntry, num);
 
         // 요청 헤더 생성 및 추가
         Element eltRequestponseHeaders = createRequestHeaders(document, harEntry.getRequest());
@@ -201,7 +302,7 @@ public class Har2TestResultsXml {
         // HTTP 메서드 정보 생성 및 추가
         Element eltmethod = document.createElement("method");
         eltmethod = addAttributeToElement(document, eltmethod, "class", "java.lang.String");
-        String method = harRequest.getMethod().name();
+        String method = parsedEntry.getMethod();
         eltmethod.setTextContent(method);
         eltHttpSample.appendChild(eltmethod);
 
@@ -210,12 +311,11 @@ public class Har2TestResultsXml {
         eltqueryString = addAttributeToElement(document, eltqueryString, "class", "java.lang.String");
 
         String queryString = "";
-        if (!("POST".equalsIgnoreCase(method) || "PUT".equalsIgnoreCase(method) || "PATCH".equalsIgnoreCase(method)) &&
-                harRequest.getQueryString().size() > 0) {
-            queryString = new URI(harRequest.getUrl()).getQuery();
+        if (!parsedEntry.isPostOrPutOrPatch() && harRequest.getQueryString().size() > 0) {
+            queryString = parsedEntry.getQuery();
         } else {
-            if ("POST".equalsIgnoreCase(method) || "PUT".equalsIgnoreCase(method) || "PATCH".equalsIgnoreCase(method)) {
-                queryString = createQueryStringForPostOrPutOrPatch(harRequest);
+            if (parsedEntry.isPostOrPutOrPatch()) {
+                queryString = createQueryStringForPostOrPutOrPatch(parsedEntry);
             }
         }
 
@@ -243,7 +343,7 @@ public class Har2TestResultsXml {
             isText = true;
         }
 
-        Element eltResponseData = createEltReponseData(document, harResponse, isText);
+        Element eltResponseData = createEltReponseData(document, harResponse, isText, streamingDomWriter);
         eltHttpSample.appendChild(eltResponseData);
 
         return eltHttpSample;
@@ -255,11 +355,11 @@ public class Har2TestResultsXml {
      * HAR 엔트리의 시간, 응답 상태, 요청/응답 크기 등을 기반으로 속성 값을 설정합니다.
      *
      * @param document XML Document 객체
-     * @param harEntry HAR 엔트리 객체
+     * @param parsedEntry 한 번만 계산된 HAR 엔트리의 값
      * @param num 샘플러 번호
      * @return 속성이 설정된 'httpSample' Element 객체
      */
-    protected Element createEltHttpSample(Document document, HarEntry harEntry, int num) throws URISyntaxException {
+    protected Element createEltHttpSample(Document document, ParsedEntry parsedEntry, int num) {
         /*
         <httpSample t="18" it="0" lt="18" ct="9" ts="1699889754878" s="true" lb="002 /gestdocqualif/styles/styles.css" rc="200" rm="OK" tn="" dt="text" de="" by="7904" sc="1" ec="0" ng="0" na="0" hn="browser">
 
@@ -287,6 +387,7 @@ public class Har2TestResultsXml {
         ts	timeStamp (milliseconds since midnight Jan 1, 1970 UTC)
         varname	Value of the named variable
          */
+        HarEntry harEntry = parsedEntry.getHarEntry();
         HarTiming harTimings = harEntry.getTimings();
         HarResponse harResponse = harEntry.getResponse();
         HarRequest harRequest = harEntry.getRequest();
@@ -296,17 +397,16 @@ public class Har2TestResultsXml {
         String it_time = "0";
         String lt_time = "" + harTimings.getWait();
         String ct_time = "" + harTimings.getConnect();
-        String ts_time = "" + harEntry.getStartedDateTime().getTime();
+        String ts_time = "" + (harEntry.getStartedDateTime() != null ? harEntry.getStartedDateTime().getTime() : 0); // 0 if the entry has no startedDateTime
         String s_response = "true";
         if (harResponse.getStatus() >= 400) { // 응답 코드가 400 이상이면 실패로 간주
             s_response = "false";
         }
-        URI urlRequest = new URI(harRequest.getUrl());
-        String lb_label = String.format("%03d " + urlRequest.getPath(), num); // 003 /gestdocqualif/servletStat
+        String lb_label = parsedEntry.getLabel(num); // 003 /gestdocqualif/servletStat
         String rc_response = "" + harResponse.getStatus();
         String rm_response = harResponse.getStatusText();
         // MIME 타입과 URL 경로를 기반으로 데이터 타입 (text/bin) 결정
-        String urlPath = urlRequest.getPath();
+        String urlPath = parsedEntry.getPath();
         String dt_response = textFromMimeType(harContent.getMimeType(), urlPath);
         /* encoding
         "response": {
@@ -323,7 +423,7 @@ public class Har2TestResultsXml {
                     "value": "text/html;charset=ISO-8859-1"
             }
             */
-        String de_response = responseEncoding(harResponse);
+        String de_response = parsedEntry.getResponseEncoding();
         // 바이트 크기 및 샘플러 카운트 설정
         String by_response = "" + harContent.getSize(); // Bytes receive
         String sby_request = "" + harRequest.getBodySize();	// Sent Bytes
@@ -473,6 +573,21 @@ public class Har2TestResultsXml {
      * @return 생성된 'responseData' Element 객체
      */
     public static Element createEltReponseData(Document document, HarResponse harResponse, boolean isText) {
+        return createEltReponseData(document, harResponse, isText, null);
+    }
+
+    /**
+     * JMeter의 'responseData' 요소를 생성하고 응답 본문 데이터를 채웁니다.
+     * Base64 인코딩된 데이터는 응답 인코딩(responseEncoding)의 문자셋으로 디코딩합니다.
+     * streamingDomWriter가 있으면 지연 로딩된 응답 본문은 StreamedText로 writer에 등록되어 StreamingDomWriter가 쓸 때 HAR 파일에서 읽습니다.
+     *
+     * @param document XML Document 객체
+     * @param harResponse HAR 응답 객체
+     * @param isText 응답 데이터가 텍스트인지 여부
+     * @param streamingDomWriter 지연 로딩된 응답 본문을 스트리밍할 writer, null이면 본문을 메모리에 읽음
+     * @return 생성된 'responseData' Element 객체
+     */
+    public static Element createEltReponseData(Document document, HarResponse harResponse, boolean isText, StreamingDomWriter streamingDomWriter) {
         Element eltresponseData = document.createElement("responseData");
         eltresponseData = addAttributeToElement(document, eltresponseData, "class", "java.lang.String");
 
@@ -483,13 +598,46 @@ public class Har2TestResultsXml {
 
             if (contentText != null && "base64".equalsIgnoreCase(contentEncoding) && isText) {
                 byte[] contentDecodeByte = Base64.getDecoder().decode(contentText.getBytes());
-                String contentDecodeString = new String(contentDecodeByte);
+                String contentDecodeString = new String(contentDecodeByte, charsetFromEncoding(responseEncoding(harResponse)));
                 eltresponseData.setTextContent(contentDecodeString);
             }
 
             if (contentText != null && contentEncoding == null && isText) {
                 eltresponseData.setTextContent(contentText);
             }
+
+            // 지연 로딩된 응답 본문 (HarStreamReader lazy mode), 텍스트일 때만 디코딩
+            Object oLazyText = harContent.getAdditional().get(LazyResponseBody.K_ADDITIONAL_FIELD);
+            if (contentText == null && oLazyText instanceof LazyResponseBody && isText) {
+                final LazyResponseBody lazyResponseBody = (LazyResponseBody) oLazyText;
+                if (lazyResponseBody.isBase64()) {
+                    final Charset charset = charsetFromEncoding(responseEncoding(harResponse));
+                    if (streamingDomWriter != null) {
+                        // base64 -> bytes -> charset decoder -> XML escape -> output file
+                        streamingDomWriter.setStreamedText(eltresponseData, new StreamedText() {
+                            @Override
+                            public Reader openReader() {
+                                return new InputStreamReader(lazyResponseBody.openDecodedStream(), charset);
+                            }
+                        });
+                    } else {
+                        eltresponseData.setTextContent(lazyResponseBody.readDecodedAsString(charset));
+                    }
+                }
+                if (lazyResponseBody.getEncoding() == null) {
+                    if (streamingDomWriter != null) {
+                        // the json string is unescaped in UTF-8
+                        streamingDomWriter.setStreamedText(eltresponseData, new StreamedText() {
+                            @Override
+                            public Reader openReader() {
+                                return new InputStreamReader(lazyResponseBody.openTextStream(), StandardCharsets.UTF_8);
+                            }
+                        });
+                    } else {
+                        eltresponseData.setTextContent(lazyResponseBody.readText());
+                    }
+                }
+            }
         }
 
         return eltresponseData;
@@ -498,14 +646,14 @@ public class Har2TestResultsXml {
     /**
      * POST, PUT, PATCH 요청에 대한 쿼리 문자열(요청 본문)을 생성합니다.
      * application/x-www-form-urlencoded 및 multipart/form-data 형식을 처리합니다.
-     * @param harRequest HAR 요청 객체
+     * @param parsedEntry 한 번만 계산된 HAR 엔트리의 값
      * @return 생성된 쿼리 문자열
      */
-    protected String createQueryStringForPostOrPutOrPatch(HarRequest harRequest) {
+    protected String createQueryStringForPostOrPutOrPatch(ParsedEntry parsedEntry) {
         StringBuffer sb = new StringBuffer(2048);
-        HarPostData postData = harRequest.getPostData();
+        HarPostData postData = parsedEntry.getRequest().getPostData();
         String mimeType = postData.getMimeType();
-        String mimeTypeExtract = Utils.extractMimeType(mimeType);
+        String mimeTypeExtract = parsedEntry.getPostDataMimeType();
         boolean isParamAdd = false;
 
         if ("application/x-www-form-urlencoded".equalsIgnoreCase(mimeTypeExtract)) {
@@ -525,7 +673,7 @@ public class Har2TestResultsXml {
         }
 
         if (isParamAdd == false && mimeTypeExtract != null && mimeTypeExtract.contains("multipart/form-data")) {
-            HarPostData postDataFormData = HarForJMeter.extractParamsFromMultiPart(harRequest);
+            HarPostData postDataFormData = parsedEntry.getMultipartPostData();
             String boundary = StringUtils.substringAfter(mimeType,"boundary=");
             LOGGER.fine("boundary=<" + boundary + ">");
             List<HarPostDataParam> listParams  = postDataFormData.getParams();
@@ -700,4 +848,22 @@ public class Har2TestResultsXml {
 
         return encoding;
     }
+
+    /**
+     * 응답 인코딩 이름에 해당하는 Charset을 반환합니다. (예: "UTF-8", "\"ISO-8859-1\"")
+     * 알 수 없는 인코딩이면 플랫폼 기본 Charset을 반환합니다.
+     *
+     * @param encoding responseEncoding이 반환한 인코딩 이름
+     * @return Charset 객체
+     */
+    public static Charset charsetFromEncoding(String encoding) {
+        String charsetName = StringUtils.substringBefore(encoding, ";").trim();
+        charsetName = StringUtils.strip(charsetName, "\"'");
+        try {
+            return Charset.forName(charsetName);
+        } catch (IllegalArgumentException e) {
+            LOGGER.fine("Unknown charset <" + encoding + ">, use the default charset");
+            return Charset.defaultCharset();
+        }
+    }
 }
@@ -16,10 +16,10 @@
 
 package io.github.vdaburon.jmeter.har;
 
-import de.sstoehr.harreader.HarReader;
 import de.sstoehr.harreader.HarReaderException;
 import de.sstoehr.harreader.model.Har;
 import de.sstoehr.harreader.model.HarCreatorBrowser;
+import de.sstoehr.harreader.model.HarEntry;
 import de.sstoehr.harreader.model.HarPostData;
 import de.sstoehr.harreader.model.HarPostDataParam;
 import de.sstoehr.harreader.model.HarRequest;
@@ -27,9 +27,18 @@ import de.sstoehr.harreader.model.HarRequest;
 import io.github.vdaburon.jmeter.har.external.ManageExternalFile;
 import io.github.vdaburon.jmeter.har.lrwr.HarLrTransactions;
 import io.github.vdaburon.jmeter.har.lrwr.ManageLrwr;
+import io.github.vdaburon.jmeter.har.stream.HarEntryFieldReader;
+import io.github.vdaburon.jmeter.har.stream.HarEntryFilter;
+import io.github.vdaburon.jmeter.har.stream.HarEntryList;
+import io.github.vdaburon.jmeter.har.stream.HarIndex;
+import io.github.vdaburon.jmeter.har.stream.HarStreamReader;
+import io.github.vdaburon.jmeter.har.cache.ConversionCache;
 import io.github.vdaburon.jmeter.har.common.TransactionInfo;
+import io.github.vdaburon.jmeter.har.common.UrlFilter;
 import io.github.vdaburon.jmeter.har.websocket.ManageWebSocket;
+import io.github.vdaburon.jmeter.har.websocket.WebSocketMessagesReader;
 import io.github.vdaburon.jmeter.har.websocket.WebSocketRequest;
+import io.github.vdaburon.jmeter.har.xml.StreamingDomWriter;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -42,18 +51,29 @@ import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
-import org.w3c.dom.Document;
-
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.regex.PatternSyntaxException;
 
 /**
@@ -81,10 +101,19 @@ public class HarForJMeter {
     public static final String K_EXTERNAL_FILE_INFOS = "external_file_infos"; // 외부 정보 파일
     public static final String K_ADD_VIEW_RESULT_TREE_WITH_RECORD_FILE = "add_result_tree_record"; // Record.xml 파일과 함께 View Result Tree 추가 여부
     public static final String K_ADD_WEBSOCKET_WITH_PLUGIN_PETER_DOORNBOSH = "ws_with_pdoornbosch"; // Peter Doornbosch 플러그인으로 웹소켓 추가 여부
+    public static final String K_USE_HAR_INDEX_OPT = "har_index"; // HAR 인덱스 파일 (.idx) 사용 여부
+    public static final String K_CACHE_DIR_OPT = "cache_dir"; // 변환 캐시 디렉토리
+    public static final String K_PARALLEL_PAGES_OPT = "parallel_pages"; // 페이지 병렬 생성 여부
+    public static final String K_CACHE_MAX_SIZE_MB_OPT = "cache_max_size_mb"; // 변환 캐시 최대 크기 (MB)
+    public static final String K_HOIST_HEADERS_OPT = "hoist_headers"; // 공통 헤더를 스레드 그룹 HeaderManager로 이동 여부
 
 
     private static final Logger LOGGER = Logger.getLogger(HarForJMeter.class.getName()); // 로거 인스턴스
 
+    private int nbThreadsPages = 1; // number of threads to create the pages of the jmx (JMX 페이지 생성 쓰레드 수)
+    private boolean isHoistHeaders = false; // the common headers in a Thread Group HeaderManager (공통 헤더를 스레드 그룹 HeaderManager에 생성)
+    private UrlFilter urlFilter = null; // the url filters compiled once for the jmx and the Record.xml (JMX 및 Record.xml용으로 한 번 컴파일된 URL 필터)
+
     public static void main(String[] args) {
         String harFile = "";
         String jmxOut = "";
@@ -101,6 +130,11 @@ public class HarForJMeter {
         int samplerStartNumber = 1; // 샘플러 시작 번호
         String lrwr_info = ""; // LoadRunner Web Recorder Chrome 확장 프로그램용
         String fileExternalInfo = ""; // csv file name contains infos like : 2024-05-07T07:56:40.513Z;TRANSACTION;welcome_page;start
+        boolean isUseHarIndex = false; // HAR 인덱스 파일 사용 여부
+        String cacheDir = ""; // 변환 캐시 디렉토리, 비어 있으면 캐시 없음
+        long cacheMaxSizeMb = ConversionCache.K_DEFAULT_MAX_SIZE_MB; // 변환 캐시 최대 크기
+        boolean isParallelPages = false; // 페이지 병렬 생성 여부
+        boolean isHoistHeaders = false; // 공통 헤더를 스레드 그룹 HeaderManager로 이동 여부
 
 
         long lStart = System.currentTimeMillis();
@@ -220,6 +254,39 @@ public class HarForJMeter {
             isWebSocketPDoornbosch= Boolean.parseBoolean(sTmp);
         }
 
+        sTmp = (String) parseProperties.get(K_USE_HAR_INDEX_OPT); // HAR 인덱스 파일 사용 여부 가져오기
+        if (sTmp != null) {
+            isUseHarIndex= Boolean.parseBoolean(sTmp);
+        }
+
+        sTmp = (String) parseProperties.get(K_CACHE_DIR_OPT); // 변환 캐시 디렉토리 가져오기
+        if (sTmp != null) {
+            cacheDir = sTmp;
+        }
+
+        sTmp = (String) parseProperties.get(K_CACHE_MAX_SIZE_MB_OPT); // 변환 캐시 최대 크기 가져오기
+        if (sTmp != null) {
+            try {
+                cacheMaxSizeMb = Long.parseLong(sTmp);
+            } catch (Exception ex) { // 파싱 오류 경고
+                LOGGER.warning("Error parsing long parameter " + K_CACHE_MAX_SIZE_MB_OPT + ", value = " + sTmp + ", set to " + ConversionCache.K_DEFAULT_MAX_SIZE_MB + " (default)");
+                cacheMaxSizeMb = ConversionCache.K_DEFAULT_MAX_SIZE_MB;
+            }
+        }
+        if (cacheMaxSizeMb <= 0) {
+            cacheMaxSizeMb = ConversionCache.K_DEFAULT_MAX_SIZE_MB;
+        }
+
+        sTmp = (String) parseProperties.get(K_PARALLEL_PAGES_OPT); // 페이지 병렬 생성 여부 가져오기
+        if (sTmp != null) {
+            isParallelPages = Boolean.parseBoolean(sTmp);
+        }
+
+        sTmp = (String) parseProperties.get(K_HOIST_HEADERS_OPT); // 공통 헤더 이동 여부 가져오기
+        if (sTmp != null) {
+            isHoistHeaders = Boolean.parseBoolean(sTmp);
+        }
+
         LOGGER.info("************* PARAMETERS ***************");
         LOGGER.info(K_HAR_IN_OPT + ", harFile=" + harFile);
         LOGGER.info(K_JMETER_FILE_OUT_OPT + ", jmxOut=" + jmxOut);
@@ -236,10 +303,19 @@ public class HarForJMeter {
         LOGGER.info(K_EXTERNAL_FILE_INFOS + ", fileExternalInfo=" + fileExternalInfo);
         LOGGER.info(K_ADD_VIEW_RESULT_TREE_WITH_RECORD_FILE + ", isAddViewTreeForRecord=" + isAddViewTreeForRecord);
         LOGGER.info(K_ADD_WEBSOCKET_WITH_PLUGIN_PETER_DOORNBOSH + ", isWebSocketPDoornbosch=" + isWebSocketPDoornbosch);
+        LOGGER.info(K_USE_HAR_INDEX_OPT + ", isUseHarIndex=" + isUseHarIndex);
+        LOGGER.info(K_CACHE_DIR_OPT + ", cacheDir=" + cacheDir);
+        LOGGER.info(K_CACHE_MAX_SIZE_MB_OPT + ", cacheMaxSizeMb=" + cacheMaxSizeMb);
+        LOGGER.info(K_PARALLEL_PAGES_OPT + ", isParallelPages=" + isParallelPages);
+        LOGGER.info(K_HOIST_HEADERS_OPT + ", isHoistHeaders=" + isHoistHeaders);
         LOGGER.info("***************************************");
         try {
-            generateJmxAndRecord(harFile,  jmxOut,createNewTransactionAfterRequestMs,isAddPause, isRemoveCookie, isRemoveCacheRequest, urlFilterToInclude, urlFilterToExclude,
-                                    recordXmlOut, pageStartNumber, samplerStartNumber, lrwr_info, fileExternalInfo, isAddViewTreeForRecord, isWebSocketPDoornbosch);
+            HarForJMeterOptions harForJMeterOptions = new HarForJMeterOptions(harFile, jmxOut).setRecordXmlOut(recordXmlOut)
+                    .setCreateNewTransactionAfterRequestMs(createNewTransactionAfterRequestMs).setAddPause(isAddPause).setRemoveCookie(isRemoveCookie).setRemoveCacheRequest(isRemoveCacheRequest)
+                    .setUrlFilterToInclude(urlFilterToInclude).setUrlFilterToExclude(urlFilterToExclude).setPageStartNumber(pageStartNumber).setSamplerStartNumber(samplerStartNumber)
+                    .setLrwrInfo(lrwr_info).setFileExternalInfo(fileExternalInfo).setAddViewTreeForRecord(isAddViewTreeForRecord).setWebSocketPDoornbosch(isWebSocketPDoornbosch)
+                    .setUseHarIndex(isUseHarIndex).setCacheDir(cacheDir).setCacheMaxSizeMb(cacheMaxSizeMb).setParallelPages(isParallelPages).setHoistHeaders(isHoistHeaders);
+            generateJmxAndRecord(harForJMeterOptions);
 
             long lEnd = System.currentTimeMillis();
             long lDurationMs = lEnd - lStart;
@@ -261,6 +337,7 @@ public class HarForJMeter {
 
     /**
      * Create the JMeter script jmx file and the Record.xml file (JMeter 스크립트 JMX 파일과 Record.xml 파일을 생성합니다.)
+     * The other options have their default value, see generateJmxAndRecord(HarForJMeterOptions) (다른 옵션은 기본값)
      * @param harFile the har file to read (읽을 HAR 파일)
      * @param jmxOut the JMeter script to create (생성할 JMeter 스크립트)
      * @param recordXmlOut the record.xml file to open with a Listener View Result Tree (리스너 View Result Tree로 열 Record.xml 파일)
@@ -284,11 +361,95 @@ public class HarForJMeter {
      */
     public static void generateJmxAndRecord(String harFile, String jmxOut, long createNewTransactionAfterRequestMs, boolean isAddPause, boolean isRemoveCookie, boolean isRemoveCacheRequest, String urlFilterToInclude, String urlFilterToExclude,
                                             String recordXmlOut, int pageStartNumber, int samplerStartNumber, String lrwr_info, String fileExternalInfo, boolean isAddViewTreeForRecord, boolean isWebSocketPDoornbosch) throws HarReaderException, MalformedURLException, ParserConfigurationException, URISyntaxException, TransformerException {
-        HarForJMeter harForJMeter = new HarForJMeter();
+        generateJmxAndRecord(new HarForJMeterOptions(harFile, jmxOut).setCreateNewTransactionAfterRequestMs(createNewTransactionAfterRequestMs).setAddPause(isAddPause)
+                .setRemoveCookie(isRemoveCookie).setRemoveCacheRequest(isRemoveCacheRequest).setUrlFilterToInclude(urlFilterToInclude).setUrlFilterToExclude(urlFilterToExclude)
+                .setRecordXmlOut(recordXmlOut).setPageStartNumber(pageStartNumber).setSamplerStartNumber(samplerStartNumber).setLrwrInfo(lrwr_info).setFileExternalInfo(fileExternalInfo)
+                .setAddViewTreeForRecord(isAddViewTreeForRecord).setWebSocketPDoornbosch(isWebSocketPDoornbosch));
+    }
+
+    /**
+     * Create the JMeter script jmx file and the Record.xml file or copy them from the conversion cache when the same HAR has been converted with the same options
+     * (JMeter 스크립트 JMX 파일과 Record.xml 파일을 생성하거나, 같은 HAR 파일과 같은 옵션으로 이미 변환된 경우 변환 캐시에서 복사합니다.)
+     * @param options the har file, the files to create and the conversion options (HAR 파일, 생성할 파일 및 변환 옵션)
+     * @throws HarReaderException trouble when reading HAR file (HAR 파일 읽기 문제)
+     * @throws MalformedURLException trouble to convert String to a URL (문자열을 URL로 변환하는 문제)
+     * @throws ParserConfigurationException regex expression is incorrect (정규식 표현식이 올바르지 않음)
+     * @throws URISyntaxException trouble to convert String to a URL (문자열을 URL로 변환하는 문제)
+     * @throws TransformerException Megatron we have a problem (변환기 문제)
+     */
+    public static void generateJmxAndRecord(HarForJMeterOptions options) throws HarReaderException, MalformedURLException, ParserConfigurationException, URISyntaxException, TransformerException {
+        String cacheDir = options.getCacheDir();
+        if (cacheDir == null || cacheDir.isEmpty()) {
+            generateJmxAndRecordNoCache(options);
+            return;
+        }
+
+        ConversionCache conversionCache = new ConversionCache(cacheDir, options.getCacheMaxSizeMb());
+        String key = null;
+        try {
+            // the options that change the files created, the har content is identified by ConversionCache.createKey
+            // jmx_out and har_index don't change the content, record_out is the file name in the View Result Tree
+            Map<String, String> mapOptions = new HashMap<>();
+            mapOptions.put("version", APPLICATION_VERSION);
+            mapOptions.put(K_CREATE_NEW_TC_AFTER_MS_OPT, String.valueOf(options.getCreateNewTransactionAfterRequestMs()));
+            mapOptions.put(K_ADD_PAUSE_OPT, String.valueOf(options.isAddPause()));
+            mapOptions.put(K_REMOVE_COOKIE_OPT, String.valueOf(options.isRemoveCookie()));
+            mapOptions.put(K_REMOVE_CACHE_REQUEST_OPT, String.valueOf(options.isRemoveCacheRequest()));
+            mapOptions.put(K_REGEX_FILTER_INCLUDE_OPT, options.getUrlFilterToInclude());
+            mapOptions.put(K_REGEX_FILTER_EXCLUDE_OPT, options.getUrlFilterToExclude());
+            mapOptions.put(K_RECORD_FILE_OUT_OPT, options.getRecordXmlOut());
+            mapOptions.put(K_PAGE_START_NUMBER, String.valueOf(options.getPageStartNumber()));
+            mapOptions.put(K_SAMPLER_START_NUMBER, String.valueOf(options.getSamplerStartNumber()));
+            mapOptions.put(K_LRWR_USE_INFOS, options.getLrwrInfo());
+            String fileExternalInfo = options.getFileExternalInfo();
+            mapOptions.put(K_EXTERNAL_FILE_INFOS, fileExternalInfo);
+            if (!fileExternalInfo.isEmpty() && new File(fileExternalInfo).isFile()) {
+                mapOptions.put(K_EXTERNAL_FILE_INFOS + ".sha256", Utils.sha256HexOfFile(new File(fileExternalInfo))); // same file name with a new content
+            }
+            mapOptions.put(K_ADD_VIEW_RESULT_TREE_WITH_RECORD_FILE, String.valueOf(options.isAddViewTreeForRecord()));
+            mapOptions.put(K_ADD_WEBSOCKET_WITH_PLUGIN_PETER_DOORNBOSH, String.valueOf(options.isWebSocketPDoornbosch()));
+            mapOptions.put(K_HOIST_HEADERS_OPT, String.valueOf(options.isHoistHeaders()));
+            key = conversionCache.createKey(new File(options.getHarFile()), mapOptions);
+        } catch (IOException e) {
+            throw new HarReaderException(e);
+        }
+
+        if (conversionCache.restore(key, options.getJmxOut(), options.getRecordXmlOut())) {
+            return;
+        }
+        generateJmxAndRecordNoCache(options);
+        conversionCache.store(key, options.getJmxOut(), options.getRecordXmlOut());
+    }
+
+    /**
+     * Create the JMeter script jmx file and the Record.xml file, with the optional index file of the HAR (선택적인 HAR 인덱스 파일과 함께 JMeter 스크립트 JMX 파일과 Record.xml 파일을 생성합니다.)
+     */
+    private static void generateJmxAndRecordNoCache(final HarForJMeterOptions options) throws HarReaderException, MalformedURLException, ParserConfigurationException, URISyntaxException, TransformerException {
+        final String harFile = options.getHarFile();
+        final String jmxOut = options.getJmxOut();
+        final String recordXmlOut = options.getRecordXmlOut();
+        final String urlFilterToInclude = options.getUrlFilterToInclude();
+        final String urlFilterToExclude = options.getUrlFilterToExclude();
+        final int pageStartNumber = options.getPageStartNumber();
+        final int samplerStartNumber = options.getSamplerStartNumber();
+        final HarForJMeter harForJMeter = new HarForJMeter();
+        if (options.isParallelPages()) {
+            harForJMeter.nbThreadsPages = Runtime.getRuntime().availableProcessors();
+        }
+        harForJMeter.isHoistHeaders = options.isHoistHeaders();
+        harForJMeter.urlFilter = UrlFilter.create(urlFilterToInclude, urlFilterToExclude);
 
         LOGGER.info("Version=" + APPLICATION_VERSION);
 
-        Har har = harForJMeter.loadHarFile(harFile); // HAR 파일 로드
+        // the entries are read on demand with the byte ranges of the index, the index file with har_index else an index in memory (인덱스로 엔트리를 필요할 때 읽음)
+        File fileHar = new File(harFile);
+        HarStreamReader harStreamReaderIndex = new HarStreamReader(fileHar);
+        HarIndex harIndex = (options.isUseHarIndex() ? harStreamReaderIndex.readOrCreateIndex(HarIndex.getIndexFile(fileHar)) : harStreamReaderIndex.createIndex()); // null if the HAR can't be indexed
+        // the _webSocketMessages of the ws entries are read in WebSocketMessage objects (웹소켓 메시지 읽기)
+        WebSocketMessagesReader webSocketMessagesReader = (options.isWebSocketPDoornbosch() ? new WebSocketMessagesReader() : null);
+
+        // the same entries for the JMX and the Record.xml, with a Record.xml the response bodies are offsets in the mapped HAR (lazy) else they are skipped
+        Har har = harForJMeter.loadHarFile(harFile, harIndex, HarEntryFilter.create(harForJMeter.urlFilter), webSocketMessagesReader, !recordXmlOut.isEmpty()); // 필터링된 엔트리는 스텁
         HarCreatorBrowser creator = har.getLog().getCreator(); // HAR 생성자 정보 가져오기
         String harCreator = "HAR File, Creator : Not Declared"; // HAR 생성자 정보 초기화
         if (creator != null) {
@@ -297,14 +458,15 @@ public class HarForJMeter {
         LOGGER.info(harCreator);
 
         List<TransactionInfo> listTransactionInfo = null; // 트랜잭션 정보 리스트 초기화
-        if (K_LRWR_USE_TRANSACTION_NAME.equals(lrwr_info)) {
-            boolean isHarWithLrwr = ManageLrwr.isHarContainsLrwr(harFile); // HAR 파일에 LRWR 정보가 포함되어 있는지 확인
+        if (K_LRWR_USE_TRANSACTION_NAME.equals(options.getLrwrInfo())) {
+            boolean isHarWithLrwr = ManageLrwr.isHarContainsLrwr(har); // HAR 파일에 LRWR 정보가 포함되어 있는지 확인
             if (isHarWithLrwr) {
-                List<HarLrTransactions> listHarLrTransactions = ManageLrwr.getListTransactionLrwr(harFile); // LRWR 트랜잭션 리스트 가져오기
+                List<HarLrTransactions> listHarLrTransactions = ManageLrwr.getListTransactionLrwr(har); // LRWR 트랜잭션 리스트 가져오기
                 listTransactionInfo = ManageLrwr.createListTransactionInfo(listHarLrTransactions); // 트랜잭션 정보 리스트 생성
             }
         }
 
+        String fileExternalInfo = options.getFileExternalInfo();
         if (!fileExternalInfo.isEmpty()) {
             try {
                 listTransactionInfo = ManageExternalFile.createListTransactionInfo(fileExternalInfo); // 외부 파일에서 트랜잭션 정보 리스트 생성
@@ -313,32 +475,167 @@ public class HarForJMeter {
             }
         }
 
-        WebSocketRequest webSocketRequest = null;
-        if (isWebSocketPDoornbosch) {
-            webSocketRequest = ManageWebSocket.getWebSocketRequest(harFile);
+        List<WebSocketRequest> listWebSocketRequest = null;
+        if (options.isWebSocketPDoornbosch()) {
+            // one connection by ws entry with its own messages, attached to its entry (ws 엔트리마다 하나의 연결)
+            listWebSocketRequest = ManageWebSocket.getListWebSocketRequest(har); // HAR 파일을 다시 읽지 않음 (already parsed)
         }
-        // JMX 파일 생성 시작 로그
-        LOGGER.info("************ Start of JMX file creation (JMeter script file) **"); // JMX 파일 생성 시작
-        harForJMeter.convertHarToJmx(har, jmxOut, createNewTransactionAfterRequestMs, isAddPause, isRemoveCookie, isRemoveCacheRequest, urlFilterToInclude, urlFilterToExclude,
-                                        pageStartNumber, samplerStartNumber, listTransactionInfo, isAddViewTreeForRecord, webSocketRequest, recordXmlOut);
-        LOGGER.info("************ End of JMX file creation              ************"); // JMX 파일 생성 종료
 
-        if (!recordXmlOut.isEmpty()) {
-            LOGGER.info("************ Start of Recording XML file creation ************"); // Record XML 파일 생성 시작
-            harForJMeter.harToRecordXml(har, recordXmlOut, urlFilterToInclude, urlFilterToExclude, pageStartNumber, samplerStartNumber, webSocketRequest);
-            LOGGER.info("************ End of Recording XML file creation   ************"); // Record XML 파일 생성 종료
+        // the JMX and the Record.xml are created from the same Har, both only read the shared objects (JMX와 Record.xml을 동시에 생성)
+        final Har harJmx = har;
+        final List<TransactionInfo> listTransactionInfoJmx = listTransactionInfo;
+        final List<WebSocketRequest> listWebSocketRequestShared = listWebSocketRequest;
+        Callable<Void> generatorJmx = new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                // JMX 파일 생성 시작 로그
+                LOGGER.info("************ Start of JMX file creation (JMeter script file) **"); // JMX 파일 생성 시작
+                harForJMeter.convertHarToJmx(harJmx, jmxOut, options.getCreateNewTransactionAfterRequestMs(), options.isAddPause(), options.isRemoveCookie(), options.isRemoveCacheRequest(), urlFilterToInclude, urlFilterToExclude,
+                        pageStartNumber, samplerStartNumber, listTransactionInfoJmx, options.isAddViewTreeForRecord(), listWebSocketRequestShared, recordXmlOut);
+                LOGGER.info("************ End of JMX file creation              ************"); // JMX 파일 생성 종료
+                return null;
+            }
+        };
+
+        if (recordXmlOut.isEmpty()) {
+            // only the JMX, created in this thread (JMX만 생성, 쓰레드 없음)
+            try {
+                generatorJmx.call();
+            } catch (Exception e) {
+                throwGeneratorException(e);
+            } finally {
+                closeHarEntryList(har);
+            }
+            return;
+        }
+
+        Callable<Void> generatorRecord = new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                LOGGER.info("************ Start of Recording XML file creation ************"); // Record XML 파일 생성 시작
+                harForJMeter.harToRecordXml(harJmx.getLog().getEntries(), recordXmlOut, urlFilterToInclude, urlFilterToExclude, samplerStartNumber, listWebSocketRequestShared);
+                LOGGER.info("************ End of Recording XML file creation   ************"); // Record XML 파일 생성 종료
+                return null;
+            }
+        };
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2, new ThreadFactory() {
+            private int numThread = 0;
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                numThread++;
+                Thread thread = new Thread(runnable, "har2jmx-generator-" + numThread);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // the generators in the order of their end, the first failure is thrown without waiting for the other generator (먼저 끝난 생성기부터 확인)
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(executorService);
+        List<Future<Void>> listFutures = new ArrayList<>(2);
+        try {
+            listFutures.add(completionService.submit(generatorJmx));
+            listFutures.add(completionService.submit(generatorRecord));
+            for (int i = 0; i < listFutures.size(); i++) {
+                Future<Void> future = completionService.take();
+                waitForGenerator(future, (future == listFutures.get(0) ? jmxOut : recordXmlOut));
+            }
+            // the generators are done, after a failure the other generator could still read the entries, the mapped HAR is then released by the garbage collector
+            closeHarEntryList(har);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformerException("Interrupted while creating the files : " + jmxOut + ", " + recordXmlOut, e);
+        } finally {
+            // cancel the other generator if one failed (실패 시 다른 생성기 취소)
+            for (int i = 0; i < listFutures.size(); i++) {
+                listFutures.get(i).cancel(true);
+            }
+            executorService.shutdownNow();
         }
     }
 
     /**
-     * Load the har file and return the HAR object (HAR 파일을 로드하고 HAR 객체를 반환합니다.)
+     * Get the result of a generator already done and throw its exception (완료된 생성기의 결과를 가져오고 예외를 다시 던집니다.)
+     * @param future the generator task done (완료된 생성기 작업)
+     * @param fileOut the file created by the generator (생성기가 만드는 파일)
+     * @throws HarReaderException trouble when reading HAR file (HAR 파일 읽기 문제)
+     * @throws MalformedURLException trouble to convert String to a URL (문자열을 URL로 변환하는 문제)
+     * @throws ParserConfigurationException regex expression is incorrect (정규식 표현식이 올바르지 않음)
+     * @throws URISyntaxException trouble to convert String to a URL (문자열을 URL로 변환하는 문제)
+     * @throws TransformerException Megatron we have a problem (변환기 문제)
+     */
+    private static void waitForGenerator(Future<Void> future, String fileOut) throws HarReaderException, MalformedURLException, ParserConfigurationException, URISyntaxException, TransformerException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformerException("Interrupted while creating the file : " + fileOut, e);
+        } catch (ExecutionException e) {
+            LOGGER.severe("Can't create the file : " + fileOut + ", exception : " + e.getCause());
+            throwGeneratorException(e.getCause());
+        }
+    }
+
+    // release the mapped HAR file of the entries read on demand, no generator reads the entries (매핑된 HAR 파일 해제)
+    private static void closeHarEntryList(Har har) {
+        List<HarEntry> listEntries = har.getLog().getEntries();
+        if (listEntries instanceof HarEntryList) {
+            HarEntryList harEntryList = (HarEntryList) listEntries;
+            LOGGER.info("Number of entries read in the HAR file : " + harEntryList.getNbEntriesRead() + ", number of entries : " + harEntryList.size());
+            harEntryList.close();
+        }
+    }
+
+    // throw the exception of a generator with its type (생성기의 예외를 그 타입으로 던집니다)
+    private static void throwGeneratorException(Throwable cause) throws HarReaderException, MalformedURLException, ParserConfigurationException, URISyntaxException, TransformerException {
+        if (cause instanceof HarReaderException) {
+            throw (HarReaderException) cause;
+        }
+        if (cause instanceof MalformedURLException) {
+            throw (MalformedURLException) cause;
+        }
+        if (cause instanceof ParserConfigurationException) {
+            throw (ParserConfigurationException) cause;
+        }
+        if (cause instanceof URISyntaxException) {
+            throw (URISyntaxException) cause;
+        }
+        if (cause instanceof TransformerException) {
+            throw (TransformerException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new TransformerException(cause);
+    }
+
+    /**
+     * Load the har file without the _initiator, a field of the entries is read by the entryFieldReader when the entry is read (엔트리의 필드를 엔트리와 함께 읽습니다.)
+     * With an index, the entries are a HarEntryList read on demand in the mapped HAR, the memory grows with the index and not with the file size.
+     * Without index (the HAR is not in UTF-8, no byte offset), all the entries are read in memory in one pass.
+     * The response bodies are skipped for the JMX alone or kept as offsets in the mapped HAR for the Record.xml.
      * @param fileHar the har to read (읽을 HAR 파일)
+     * @param harIndex the index valid for the har, only the entries kept by the filter are read, null to read all the har in memory (HAR 인덱스)
+     * @param harEntryFilter the url filters of the JMeter script and the Record.xml, the other entries are stubs (URL 필터)
+     * @param entryFieldReader the reader of a field of the entries e.g. the _webSocketMessages, null to keep the field in the entries (엔트리 필드 리더)
+     * @param isLazyResponseText true to keep the response bodies as LazyResponseBody for the Record.xml (Record.xml용 응답 본문)
      * @return the HAR object (HAR 객체)
      * @throws HarReaderException trouble when reading HAR file (HAR 파일 읽기 문제)
      */
-    protected Har loadHarFile(String fileHar) throws HarReaderException {
-        Har har = new HarReader().readFromFile(new File(fileHar));
-        return har;
+    protected Har loadHarFile(String fileHar, HarIndex harIndex, HarEntryFilter harEntryFilter, HarEntryFieldReader entryFieldReader, boolean isLazyResponseText) throws HarReaderException {
+        HarStreamReader harStreamReader = new HarStreamReader(fileHar).setEntryFieldReader(entryFieldReader);
+        if (isLazyResponseText) {
+            harStreamReader.setLazyResponseText(true).addPathToSkip(HarStreamReader.K_PATH_INITIATOR);
+        } else {
+            harStreamReader.setJmxOnly(true);
+        }
+        if (harIndex != null) {
+            return harStreamReader.readHarOnDemand(harIndex, harEntryFilter);
+        }
+        LOGGER.warning("No index for the HAR file, all the entries are read in memory : " + fileHar);
+        return harStreamReader.setHarEntryFilter(harEntryFilter).readHar();
     }
 
     /**
@@ -355,41 +652,102 @@ public class HarForJMeter {
      * @param samplerStartNumber the first http sampler number (첫 번째 HTTP 샘플러 번호)
      * @param listTransactionInfo list with TransactionInfo for HAR generated from LoadRunner Web Recorder (LoadRunner Web Recorder에서 생성된 HAR에 대한 TransactionInfo 목록)
      * @param isAddViewTreeForRecord do we add View Result Tree to view Record.xml file ? (Record.xml 파일을 보기 위해 View Result Tree를 추가할 것인가?)
-     * @param webSocketRequest a list of websocket messages (웹소켓 메시지 목록)
+     * @param listWebSocketRequest the websocket connections, one by ws entry with its own messages, null if the websockets are not managed with the plugin (웹소켓 연결 목록)
      * @param recordXmlOut the record.xml file to open with a Listener View Result Tree (리스너 View Result Tree로 열 Record.xml 파일)
      * @throws ParserConfigurationException regex expression is incorrect (정규식 표현식이 올바르지 않음)
      * @throws TransformerException Megatron we have a problem (변환기 문제)
      * @throws URISyntaxException trouble to convert String to a URI (문자열을 URI로 변환하는 문제)
      */
     protected void convertHarToJmx(Har har, String jmxXmlOutFile, long createNewTransactionAfterRequestMs, boolean isAddPause, boolean isRemoveCookie, boolean isRemoveCacheRequest, String urlFilterToInclude, String urlFilterToExclude,
-                                   int pageStartNumber, int samplerStartNumber, List<TransactionInfo> listTransactionInfo, boolean isAddViewTreeForRecord, WebSocketRequest webSocketRequest, String recordXmlOut) throws ParserConfigurationException, TransformerException, URISyntaxException {
+                                   int pageStartNumber, int samplerStartNumber, List<TransactionInfo> listTransactionInfo, boolean isAddViewTreeForRecord, List<WebSocketRequest> listWebSocketRequest, String recordXmlOut) throws ParserConfigurationException, TransformerException, URISyntaxException {
         XmlJmx xmlJmx = new XmlJmx();
-        Document jmxDocument = xmlJmx.convertHarToJmxXml(har, createNewTransactionAfterRequestMs, isAddPause, isRemoveCookie, isRemoveCacheRequest, urlFilterToInclude, urlFilterToExclude,
-                                                            pageStartNumber, samplerStartNumber, listTransactionInfo, isAddViewTreeForRecord, webSocketRequest, recordXmlOut);
-
-        xmlJmx.saveXmFile(jmxDocument, jmxXmlOutFile);
+        StreamingDomWriter streamingDomWriter = null;
+        boolean isOk = false;
+        try {
+            // the samplers are written in the jmx file while the script is created, the Document keeps only the current Transaction Controller
+            streamingDomWriter = new StreamingDomWriter(jmxXmlOutFile);
+            xmlJmx.setStreamingDomWriter(streamingDomWriter);
+            xmlJmx.setNbThreadsPages(nbThreadsPages);
+            xmlJmx.setHoistCommonHeaders(isHoistHeaders);
+            xmlJmx.setUrlFilter(urlFilter);
+            xmlJmx.convertHarToJmxXml(har, createNewTransactionAfterRequestMs, isAddPause, isRemoveCookie, isRemoveCacheRequest, urlFilterToInclude, urlFilterToExclude,
+                                        pageStartNumber, samplerStartNumber, listTransactionInfo, isAddViewTreeForRecord, listWebSocketRequest, recordXmlOut);
+            streamingDomWriter.finish();
+            isOk = true;
+        } catch (IOException | UncheckedIOException e) {
+            throw new TransformerException(e);
+        } finally {
+            if (streamingDomWriter != null) {
+                try {
+                    streamingDomWriter.close();
+                } catch (IOException e) {
+                    LOGGER.warning("Can't close the file : " + jmxXmlOutFile + ", exception : " + e);
+                }
+            }
+            if (!isOk) {
+                new File(jmxXmlOutFile).delete(); // no incomplete jmx file
+            }
+        }
     }
 
     /**
-     * Create the Record.xml file that could be open this a Listener View Results Tree (리스너 View Results Tree로 열 수 있는 Record.xml 파일을 생성합니다.)
-     * @param har the har file to read (읽을 HAR 파일)
-     * @param jmxXmlOutFile the xml file created (생성된 XML 파일)
+     * Create the Record.xml file from the entries of the JMX, a HarEntryList reads them one at a time and the lazy response bodies are copied from the mapped HAR to the file (JMX와 같은 엔트리로 Record.xml 파일을 생성합니다.)
+     * @param listEntries the har entries, read with HarStreamReader.setLazyResponseText(true) (HAR 엔트리)
+     * @param jmxXmlOutFile the Record.xml to create (생성할 Record.xml)
      * @param urlFilterToInclude the regex filter to include url (URL을 포함하기 위한 정규식 필터)
      * @param urlFilterToExclude the regex filter to exclude url (URL을 제외하기 위한 정규식 필터)
-     * @param pageStartNumber the first page number (첫 번째 페이지 번호)
      * @param samplerStartNumber the first http sampler number (첫 번째 HTTP 샘플러 번호)
-     * @param webSocketRequest a list of websocket messages (웹소켓 메시지 목록)
+     * @param listWebSocketRequest the websocket connections, one by ws entry with its own messages, null if the websockets are not managed with the plugin (웹소켓 연결 목록)
+     * @throws HarReaderException trouble when reading a response body in the HAR file (HAR 파일 읽기 문제)
      * @throws ParserConfigurationException regex expression is incorrect (정규식 표현식이 올바르지 않음)
      * @throws TransformerException Megatron we have a problem (변환기 문제)
      * @throws URISyntaxException  trouble to convert String to a URI (문자열을 URI로 변환하는 문제)
-     * @throws MalformedURLException trouble to convert String to a URL (문자열을 URL로 변환하는 문제)
      */
-    protected void harToRecordXml(Har har, String jmxXmlOutFile, String urlFilterToInclude, String urlFilterToExclude, int pageStartNumber, int samplerStartNumber, WebSocketRequest webSocketRequest) throws ParserConfigurationException, TransformerException, URISyntaxException, MalformedURLException {
-        Har2TestResultsXml har2TestResultsXml = new Har2TestResultsXml();
-        Document jmxDocument = har2TestResultsXml.convertHarToTestResultXml(har, urlFilterToInclude, urlFilterToExclude, samplerStartNumber, webSocketRequest);
-
-        XmlJmx.saveXmFile(jmxDocument, jmxXmlOutFile);
+    protected void harToRecordXml(List<HarEntry> listEntries, String jmxXmlOutFile, String urlFilterToInclude, String urlFilterToExclude, int samplerStartNumber, List<WebSocketRequest> listWebSocketRequest) throws HarReaderException, ParserConfigurationException, TransformerException, URISyntaxException {
+        try {
+            writeRecordXml(listEntries.iterator(), jmxXmlOutFile, urlFilterToInclude, urlFilterToExclude, samplerStartNumber, listWebSocketRequest);
+        } catch (UncheckedIOException e) {
+            throw new HarReaderException(e.getCause());
+        }
+    }
 
+    /**
+     * Write the Record.xml while the entries are converted, each httpSample is written when complete and the lazy response bodies are copied from the HAR to the file (Record.xml 파일을 변환하면서 씁니다.)
+     * @param itEntries the har entries (HAR 엔트리)
+     * @param jmxXmlOutFile the Record.xml to create (생성할 Record.xml)
+     * @param urlFilterToInclude the regex filter to include url (URL을 포함하기 위한 정규식 필터)
+     * @param urlFilterToExclude the regex filter to exclude url (URL을 제외하기 위한 정규식 필터)
+     * @param samplerStartNumber the first http sampler number (첫 번째 HTTP 샘플러 번호)
+     * @param listWebSocketRequest the websocket connections, one by ws entry with its own messages, null if the websockets are not managed with the plugin (웹소켓 연결 목록)
+     * @throws ParserConfigurationException regex expression is incorrect (정규식 표현식이 올바르지 않음)
+     * @throws TransformerException trouble when writing the file (파일 쓰기 문제)
+     * @throws URISyntaxException  trouble to convert String to a URI (문자열을 URI로 변환하는 문제)
+     */
+    private void writeRecordXml(Iterator<HarEntry> itEntries, String jmxXmlOutFile, String urlFilterToInclude, String urlFilterToExclude, int samplerStartNumber, List<WebSocketRequest> listWebSocketRequest) throws ParserConfigurationException, TransformerException, URISyntaxException {
+        Har2TestResultsXml har2TestResultsXml = new Har2TestResultsXml();
+        StreamingDomWriter streamingDomWriter = null;
+        boolean isOk = false;
+        try {
+            streamingDomWriter = new StreamingDomWriter(jmxXmlOutFile);
+            har2TestResultsXml.setStreamingDomWriter(streamingDomWriter);
+            har2TestResultsXml.setUrlFilter(urlFilter);
+            har2TestResultsXml.convertHarToTestResultXml(itEntries, urlFilterToInclude, urlFilterToExclude, samplerStartNumber, listWebSocketRequest);
+            streamingDomWriter.finish();
+            isOk = true;
+        } catch (IOException e) {
+            throw new TransformerException(e);
+        } finally {
+            if (streamingDomWriter != null) {
+                try {
+                    streamingDomWriter.close();
+                } catch (IOException e) {
+                    LOGGER.warning("Can't close the file : " + jmxXmlOutFile + ", exception : " + e);
+                }
+            }
+            if (!isOk) {
+                new File(jmxXmlOutFile).delete(); // no incomplete Record.xml
+            }
+        }
     }
 
     /**
@@ -498,13 +856,13 @@ public class HarForJMeter {
 
         Option filterRegIncludeOpt = Option.builder(K_REGEX_FILTER_INCLUDE_OPT).argName(K_REGEX_FILTER_INCLUDE_OPT).hasArg(true) // URL 포함 정규식 필터 옵션
                 .required(false)
-                .desc("Optional, regular expression to include url") // 선택 사항, URL을 포함하기 위한 정규식
+                .desc("Optional, regular expression to include url, or host:a.com,*.b.org or path:/api/,/static/, repeat the option to add rules (an url is kept if it matches one rule)") // 선택 사항, URL을 포함하기 위한 정규식 또는 host:/path: 규칙, 반복 가능
                 .build();
         options.addOption(filterRegIncludeOpt);
 
         Option filterRegExcludeOpt = Option.builder(K_REGEX_FILTER_EXCLUDE_OPT).argName(K_REGEX_FILTER_EXCLUDE_OPT).hasArg(true) // URL 제외 정규식 필터 옵션
                 .required(false)
-                .desc("Optional, regular expression to exclude url") // 선택 사항, URL을 제외하기 위한 정규식
+                .desc("Optional, regular expression to exclude url, or host:a.com,*.b.org or path:/api/,/static/, repeat the option to add rules (an url is removed if it matches one rule)") // 선택 사항, URL을 제외하기 위한 정규식 또는 host:/path: 규칙, 반복 가능
                 .build();
         options.addOption(filterRegExcludeOpt);
 
@@ -550,6 +908,36 @@ public class HarForJMeter {
                 .build();
         options.addOption(addWsPluginPeterDoornboshOpt);
 
+        Option useHarIndexOpt = Option.builder(K_USE_HAR_INDEX_OPT).argName(K_USE_HAR_INDEX_OPT).hasArg(true) // HAR 인덱스 파일 사용 옵션
+                .required(false)
+                .desc("Optional boolean, use the index file <har_in>.idx created next to the har file (default false), the next conversions of the same har with other filters read only the entries kept")
+                .build();
+        options.addOption(useHarIndexOpt);
+
+        Option cacheDirOpt = Option.builder(K_CACHE_DIR_OPT).argName(K_CACHE_DIR_OPT).hasArg(true) // 변환 캐시 디렉토리 옵션
+                .required(false)
+                .desc("Optional, conversion cache directory, when the same har content has been converted with the same parameters the files are copied from the cache (default empty, no cache)")
+                .build();
+        options.addOption(cacheDirOpt);
+
+        Option cacheMaxSizeMbOpt = Option.builder(K_CACHE_MAX_SIZE_MB_OPT).argName(K_CACHE_MAX_SIZE_MB_OPT).hasArg(true) // 변환 캐시 최대 크기 옵션
+                .required(false)
+                .desc("Optional, maximum size in MB of the conversion cache, the least recently used conversions are removed (default " + ConversionCache.K_DEFAULT_MAX_SIZE_MB + ")")
+                .build();
+        options.addOption(cacheMaxSizeMbOpt);
+
+        Option parallelPagesOpt = Option.builder(K_PARALLEL_PAGES_OPT).argName(K_PARALLEL_PAGES_OPT).hasArg(true) // 페이지 병렬 생성 옵션
+                .required(false)
+                .desc("Optional boolean, create the pages (Transaction Controllers and samplers) of the jmx in parallel with one thread by processor, same jmx as the sequential creation (default : false)")
+                .build();
+        options.addOption(parallelPagesOpt);
+
+        Option hoistHeadersOpt = Option.builder(K_HOIST_HEADERS_OPT).argName(K_HOIST_HEADERS_OPT).hasArg(true) // 공통 헤더 이동 옵션
+                .required(false)
+                .desc("Optional boolean, move the headers sent by all the requests (e.g : User-Agent, Accept-Language) in one HTTP Header Manager at the Thread Group level, the sampler Header Manager keeps only its other headers (default : false)")
+                .build();
+        options.addOption(hoistHeadersOpt);
+
         return options;
     }
 
@@ -599,11 +987,11 @@ public class HarForJMeter {
         }
 
         if (line.hasOption(K_REGEX_FILTER_INCLUDE_OPT)) {
-            properties.setProperty(K_REGEX_FILTER_INCLUDE_OPT, line.getOptionValue(K_REGEX_FILTER_INCLUDE_OPT));
+            properties.setProperty(K_REGEX_FILTER_INCLUDE_OPT, String.join(UrlFilter.K_RULES_SEPARATOR, line.getOptionValues(K_REGEX_FILTER_INCLUDE_OPT)));
         }
 
         if (line.hasOption(K_REGEX_FILTER_EXCLUDE_OPT)) {
-            properties.setProperty(K_REGEX_FILTER_EXCLUDE_OPT, line.getOptionValue(K_REGEX_FILTER_EXCLUDE_OPT));
+            properties.setProperty(K_REGEX_FILTER_EXCLUDE_OPT, String.join(UrlFilter.K_RULES_SEPARATOR, line.getOptionValues(K_REGEX_FILTER_EXCLUDE_OPT)));
         }
 
         if (line.hasOption(K_RECORD_FILE_OUT_OPT)) {
@@ -634,6 +1022,26 @@ public class HarForJMeter {
             properties.setProperty(K_ADD_WEBSOCKET_WITH_PLUGIN_PETER_DOORNBOSH, line.getOptionValue(K_ADD_WEBSOCKET_WITH_PLUGIN_PETER_DOORNBOSH));
         }
 
+        if (line.hasOption(K_USE_HAR_INDEX_OPT)) {
+            properties.setProperty(K_USE_HAR_INDEX_OPT, line.getOptionValue(K_USE_HAR_INDEX_OPT));
+        }
+
+        if (line.hasOption(K_CACHE_DIR_OPT)) {
+            properties.setProperty(K_CACHE_DIR_OPT, line.getOptionValue(K_CACHE_DIR_OPT));
+        }
+
+        if (line.hasOption(K_CACHE_MAX_SIZE_MB_OPT)) {
+            properties.setProperty(K_CACHE_MAX_SIZE_MB_OPT, line.getOptionValue(K_CACHE_MAX_SIZE_MB_OPT));
+        }
+
+        if (line.hasOption(K_PARALLEL_PAGES_OPT)) {
+            properties.setProperty(K_PARALLEL_PAGES_OPT, line.getOptionValue(K_PARALLEL_PAGES_OPT));
+        }
+
+        if (line.hasOption(K_HOIST_HEADERS_OPT)) {
+            properties.setProperty(K_HOIST_HEADERS_OPT, line.getOptionValue(K_HOIST_HEADERS_OPT));
+        }
+
         return properties;
     }
 
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har;
+
+import io.github.vdaburon.jmeter.har.cache.ConversionCache;
+
+/**
+ * The options of HarForJMeter.generateJmxAndRecord, same names and default values as the command line parameters (명령줄 매개변수와 같은 이름과 기본값)
+ * <pre>
+ * HarForJMeter.generateJmxAndRecord(new HarForJMeterOptions("file.har", "script.jmx").setRecordXmlOut("record.xml").setUseHarIndex(true));
+ * </pre>
+ */
+public class HarForJMeterOptions {
+
+    private final String harFile; // the har file to read (읽을 HAR 파일)
+    private final String jmxOut; // the JMeter script to create (생성할 JMeter 스크립트)
+    private String recordXmlOut = ""; // the record.xml file to open with a Listener View Result Tree, empty for no file (Record.xml 파일)
+    private long createNewTransactionAfterRequestMs = 0; // how many milliseconds for creating a new Transaction Controller (새 트랜잭션 컨트롤러 생성 시간)
+    private boolean isAddPause = true; // add Flow Control Action PAUSE (일시 정지 추가)
+    private boolean isRemoveCookie = true; // remove the Cookie information (쿠키 제거)
+    private boolean isRemoveCacheRequest = true; // remove the cache information for the Http Request (캐시 요청 제거)
+    private String urlFilterToInclude = ""; // the regex filter to include url (포함할 URL 정규식 필터)
+    private String urlFilterToExclude = ""; // the regex filter to exclude url (제외할 URL 정규식 필터)
+    private int pageStartNumber = 1; // the first page number (첫 번째 페이지 번호)
+    private int samplerStartNumber = 1; // the first http sampler number (첫 번째 HTTP 샘플러 번호)
+    private String lrwrInfo = ""; // transaction_name or empty, for HAR generated with LoadRunner Web Recorder (LRWR 정보)
+    private String fileExternalInfo = ""; // file contains external infos like 2024-05-07T07:56:40.513Z;TRANSACTION;home_page;start (외부 정보 파일)
+    private boolean isAddViewTreeForRecord = true; // add View Result Tree to view Record.xml file (View Result Tree 추가)
+    private boolean isWebSocketPDoornbosch = false; // manage the websocket with Peter Doornbosch JMeter plugin (웹소켓 플러그인 사용)
+    private boolean isUseHarIndex = false; // use (and create if needed) the index file harFile.idx (HAR 인덱스 파일 사용)
+    private String cacheDir = ""; // the conversion cache directory, empty for no cache (변환 캐시 디렉토리)
+    private long cacheMaxSizeMb = ConversionCache.K_DEFAULT_MAX_SIZE_MB; // the maximum size of the cache in MB (캐시 최대 크기 MB)
+    private boolean isParallelPages = false; // create the pages of the JMeter script in parallel, same script (페이지 병렬 생성)
+    private boolean isHoistHeaders = false; // move the headers sent by all the samplers in a Thread Group HeaderManager (공통 헤더 이동)
+
+    /**
+     * @param harFile the har file to read (읽을 HAR 파일)
+     * @param jmxOut the JMeter script to create (생성할 JMeter 스크립트)
+     */
+    public HarForJMeterOptions(String harFile, String jmxOut) {
+        this.harFile = harFile;
+        this.jmxOut = jmxOut;
+    }
+
+    public String getHarFile() {
+        return harFile;
+    }
+
+    public String getJmxOut() {
+        return jmxOut;
+    }
+
+    public String getRecordXmlOut() {
+        return recordXmlOut;
+    }
+    public HarForJMeterOptions setRecordXmlOut(String recordXmlOut) {
+        this.recordXmlOut = recordXmlOut;
+        return this;
+    }
+
+    public long getCreateNewTransactionAfterRequestMs() {
+        return createNewTransactionAfterRequestMs;
+    }
+    public HarForJMeterOptions setCreateNewTransactionAfterRequestMs(long createNewTransactionAfterRequestMs) {
+        this.createNewTransactionAfterRequestMs = createNewTransactionAfterRequestMs;
+        return this;
+    }
+
+    public boolean isAddPause() {
+        return isAddPause;
+    }
+    public HarForJMeterOptions setAddPause(boolean isAddPause) {
+        this.isAddPause = isAddPause;
+        return this;
+    }
+
+    public boolean isRemoveCookie() {
+        return isRemoveCookie;
+    }
+    public HarForJMeterOptions setRemoveCookie(boolean isRemoveCookie) {
+        this.isRemoveCookie = isRemoveCookie;
+        return this;
+    }
+
+    public boolean isRemoveCacheRequest() {
+        return isRemoveCacheRequest;
+    }
+    public HarForJMeterOptions setRemoveCacheRequest(boolean isRemoveCacheRequest) {
+        this.isRemoveCacheRequest = isRemoveCacheRequest;
+        return this;
+    }
+
+    public String getUrlFilterToInclude() {
+        return urlFilterToInclude;
+    }
+    public HarForJMeterOptions setUrlFilterToInclude(String urlFilterToInclude) {
+        this.urlFilterToInclude = urlFilterToInclude;
+        return this;
+    }
+
+    public String getUrlFilterToExclude() {
+        return urlFilterToExclude;
+    }
+    public HarForJMeterOptions setUrlFilterToExclude(String urlFilterToExclude) {
+        this.urlFilterToExclude = urlFilterToExclude;
+        return this;
+    }
+
+    public int getPageStartNumber() {
+        return pageStartNumber;
+    }
+    public HarForJMeterOptions setPageStartNumber(int pageStartNumber) {
+        this.pageStartNumber = pageStartNumber;
+        return this;
+    }
+
+    public int getSamplerStartNumber() {
+        return samplerStartNumber;
+    }
+    public HarForJMeterOptions setSamplerStartNumber(int samplerStartNumber) {
+        this.samplerStartNumber = samplerStartNumber;
+        return this;
+    }
+
+    public String getLrwrInfo() {
+        return lrwrInfo;
+    }
+    public HarForJMeterOptions setLrwrInfo(String lrwrInfo) {
+        this.lrwrInfo = lrwrInfo;
+        return this;
+    }
+
+    public String getFileExternalInfo() {
+        return fileExternalInfo;
+    }
+    public HarForJMeterOptions setFileExternalInfo(String fileExternalInfo) {
+        this.fileExternalInfo = fileExternalInfo;
+        return this;
+    }
+
+    public boolean isAddViewTreeForRecord() {
+        return isAddViewTreeForRecord;
+    }
+    public HarForJMeterOptions setAddViewTreeForRecord(boolean isAddViewTreeForRecord) {
+        this.isAddViewTreeForRecord = isAddViewTreeForRecord;
+        return this;
+    }
+
+    public boolean isWebSocketPDoornbosch() {
+        return isWebSocketPDoornbosch;
+    }
+    public HarForJMeterOptions setWebSocketPDoornbosch(boolean isWebSocketPDoornbosch) {
+        this.isWebSocketPDoornbosch = isWebSocketPDoornbosch;
+        return this;
+    }
+
+    public boolean isUseHarIndex() {
+        return isUseHarIndex;
+    }
+    public HarForJMeterOptions setUseHarIndex(boolean isUseHarIndex) {
+        this.isUseHarIndex = isUseHarIndex;
+        return this;
+    }
+
+    public String getCacheDir() {
+        return cacheDir;
+    }
+    public HarForJMeterOptions setCacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+        return this;
+    }
+
+    public long getCacheMaxSizeMb() {
+        return cacheMaxSizeMb;
+    }
+    public HarForJMeterOptions setCacheMaxSizeMb(long cacheMaxSizeMb) {
+        this.cacheMaxSizeMb = cacheMaxSizeMb;
+        return this;
+    }
+
+    public boolean isParallelPages() {
+        return isParallelPages;
+    }
+    public HarForJMeterOptions setParallelPages(boolean isParallelPages) {
+        this.isParallelPages = isParallelPages;
+        return this;
+    }
+
+    public boolean isHoistHeaders() {
+        return isHoistHeaders;
+    }
+    public HarForJMeterOptions setHoistHeaders(boolean isHoistHeaders) {
+        this.isHoistHeaders = isHoistHeaders;
+        return this;
+    }
+}
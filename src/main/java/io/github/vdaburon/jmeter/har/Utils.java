@@ -16,45 +16,295 @@
 
 package io.github.vdaburon.jmeter.har;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.TimeZone;
 
 public class Utils {
+    // the time codec : ISO 8601 UTC <-> epoch without Calendar, SimpleDateFormat or java.time objects, thread safe
+    public static final int K_ISO_MILLIS_LENGTH = 24; // 2024-05-03T14:30:42.271Z
+    public static final int K_ISO_MICROS_LENGTH = 27; // 2024-05-03T14:30:42.271234Z
+    private static final long K_MICROS_BY_SECOND = 1000000L;
+    private static final long K_SECONDS_BY_DAY = 86400L;
+    private static final long K_DAYS_0000_TO_1970 = 719468L; // days from 0000-03-01 to 1970-01-01
+    private static final long K_MIN_ISO_EPOCH_MILLIS = -62167219200000L; // 0000-01-01T00:00:00.000Z, the first time of formatIso
+    private static final long K_MAX_ISO_EPOCH_MILLIS = 253402300799999L; // 9999-12-31T23:59:59.999Z, the last time of formatIso
+    private static final ThreadLocal<char[]> K_ISO_BUFFER = ThreadLocal.withInitial(() -> new char[K_ISO_MICROS_LENGTH]);
 
     public static String dateToIsoFormat(Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
         // 2024-05-03T14:30:42.271Z
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-        String sDateIso = sdf.format(calendar.getTime());
-        return sDateIso;
+        return epochMillisToIsoFormat(date.getTime());
     }
 
-
-
     public static String doubleEpocMicroToIsoFormat(double epocSecMicro) {
-        // dTimeMicro
-        double dInterMilli = (epocSecMicro * 1000);
-        long epocMillis = (long) dInterMilli;
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(epocMillis);
+        // dTimeMicro, the milliseconds are truncated
+        long epocMillis = (long) (epocSecMicro * 1000);
         // 2024-05-03T14:30:42.271Z
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-        String sDateIso = sdf.format(calendar.getTime());
-        return sDateIso;
+        return epochMillisToIsoFormat(epocMillis);
     }
 
     public static long dateIsoFormatToTimeLong(String  sDateIso) throws ParseException {
         // 2024-05-03T14:30:42.271Z
+        try {
+            return Math.floorDiv(isoDateTimeToEpochMicros(sDateIso), 1000L);
+        } catch (DateTimeParseException e) {
+            throw new ParseException(e.getMessage(), e.getErrorIndex());
+        }
+    }
+
+    /**
+     * Convert the time of a websocket message (epoch seconds with a fraction of microseconds) to the epoch in microseconds
+     * @param epochSecondsMicro the time, e.g. 1739364958.729252 (the double has about 0.25 microseconds of precision for the current dates)
+     * @return the number of microseconds since 1970-01-01T00:00:00Z, rounded
+     */
+    public static long epochSecondsToEpochMicros(double epochSecondsMicro) {
+        return Math.round(epochSecondsMicro * K_MICROS_BY_SECOND);
+    }
+
+    /**
+     * Parse an ISO 8601 date time to the epoch in microseconds, no object created when the text is valid,
+     *    e.g: "2024-05-03T14:30:42.271Z", "2024-05-03T16:30:42.271+02:00", "2024-05-03T14:30:42.271234Z", "2024-05-03T14:30:42Z" or "2024-05-03T14:30Z"
+     *    a date time without offset is in UTC, the digits after the microseconds are truncated.
+     * The grammar is the one of DateTimeFormatter.ISO_DATE_TIME : yyyy-MM-dd'T'HH:mm[:ss[.fraction of 0 to 9 digits]][offset], 'T' and 'Z' case insensitive,
+     *    offset Z, +HH:mm or +HH:mm:ss between -18:00 and +18:00. The differences : the year has 4 digits, no zone id like [Europe/Paris],
+     *    the offsets +HH and +HHmm are also accepted.
+     * @param sDateIso the date time in ISO 8601 format, the spaces around are ignored
+     * @return the number of microseconds since 1970-01-01T00:00:00Z
+     * @throws DateTimeParseException the text is not an ISO 8601 date time
+     */
+    public static long isoDateTimeToEpochMicros(CharSequence sDateIso) {
+        return isoDateTimeToEpochMicros(sDateIso, 0, sDateIso.length());
+    }
+
+    /**
+     * Parse an ISO 8601 date time in a part of a text (e.g. a field of a csv line) to the epoch in microseconds, no sub string created
+     * @param text the text contains the date time
+     * @param start the first char of the date time
+     * @param endExclusive the char after the date time
+     * @return the number of microseconds since 1970-01-01T00:00:00Z
+     * @throws DateTimeParseException the text is not an ISO 8601 date time
+     */
+    public static long isoDateTimeToEpochMicros(CharSequence text, int start, int endExclusive) {
+        CharSequence sDateIso = text;
+        int end = endExclusive;
+        int i = start;
+        while (i < end && sDateIso.charAt(i) <= ' ') {
+            i++;
+        }
+        while (end > i && sDateIso.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        // yyyy-MM-ddTHH:mm
+        if (end - i < 16 || sDateIso.charAt(i + 4) != '-' || sDateIso.charAt(i + 7) != '-' || (sDateIso.charAt(i + 10) != 'T' && sDateIso.charAt(i + 10) != 't') || sDateIso.charAt(i + 13) != ':') {
+            throw isoParseException(sDateIso, i);
+        }
+        int year = parseDigits(sDateIso, i, 4);
+        int month = parseDigits(sDateIso, i + 5, 2);
+        int day = parseDigits(sDateIso, i + 8, 2);
+        int hour = parseDigits(sDateIso, i + 11, 2);
+        int minute = parseDigits(sDateIso, i + 14, 2);
+        i += 16;
+
+        // :ss.SSSSSS optional
+        int second = 0;
+        long fractionMicros = 0;
+        if (i < end && sDateIso.charAt(i) == ':') {
+            if (end - i < 3) {
+                throw isoParseException(sDateIso, i);
+            }
+            second = parseDigits(sDateIso, i + 1, 2);
+            i += 3;
+            if (i < end && sDateIso.charAt(i) == '.') {
+                i++;
+                int nbDigits = 0;
+                while (i < end && isDigit(sDateIso.charAt(i))) {
+                    if (nbDigits < 6) {
+                        fractionMicros = fractionMicros * 10 + (sDateIso.charAt(i) - '0');
+                    }
+                    nbDigits++;
+                    i++;
+                }
+                if (nbDigits > 9) { // no digit is valid like java.time, e.g: 14:30:42.Z
+                    throw isoParseException(sDateIso, i);
+                }
+                for (int d = nbDigits; d < 6; d++) {
+                    fractionMicros *= 10;
+                }
+            }
+        }
+
+        // Z, +HH, +HH:mm, +HHmm, +HH:mm:ss or no offset (UTC)
+        int offsetSeconds = 0;
+        if (i < end) {
+            char c = sDateIso.charAt(i);
+            if (c == 'Z' || c == 'z') {
+                i++;
+            } else if ((c == '+' || c == '-') && end - i >= 3) {
+                int offsetHour = parseDigits(sDateIso, i + 1, 2);
+                int offsetMinute = 0;
+                int offsetSecond = 0;
+                i += 3;
+                if (end - i >= 3 && sDateIso.charAt(i) == ':') {
+                    offsetMinute = parseDigits(sDateIso, i + 1, 2);
+                    i += 3;
+                    if (end - i >= 3 && sDateIso.charAt(i) == ':') {
+                        offsetSecond = parseDigits(sDateIso, i + 1, 2);
+                        i += 3;
+                    }
+                } else if (end - i >= 2) {
+                    offsetMinute = parseDigits(sDateIso, i, 2);
+                    i += 2;
+                }
+                offsetSeconds = offsetHour * 3600 + offsetMinute * 60 + offsetSecond;
+                if (offsetMinute > 59 || offsetSecond > 59 || offsetSeconds > 18 * 3600) {
+                    throw isoParseException(sDateIso, i);
+                }
+                if (c == '-') {
+                    offsetSeconds = -offsetSeconds;
+                }
+            }
+        }
+        if (i != end || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) || hour > 23 || minute > 59 || second > 59) {
+            throw isoParseException(sDateIso, i);
+        }
+
+        long epochSeconds = daysFromCivil(year, month, day) * K_SECONDS_BY_DAY + hour * 3600L + minute * 60L + second - offsetSeconds;
+        return epochSeconds * K_MICROS_BY_SECOND + fractionMicros;
+    }
+
+    /**
+     * Format the epoch in microseconds to the ISO format with milliseconds in UTC, e.g: 2024-05-03T14:30:42.271Z
+     * A year outside 0000-9999 is formatted by SimpleDateFormat (the year has more than 4 digits, the year before 0001 is the year of era).
+     * @param epochMicros the number of microseconds since 1970-01-01T00:00:00Z
+     * @return the date time in ISO format
+     */
+    public static String epochMicrosToIsoFormat(long epochMicros) {
+        long epochMillis = Math.floorDiv(epochMicros, 1000L);
+        if (epochMillis < K_MIN_ISO_EPOCH_MILLIS || epochMillis > K_MAX_ISO_EPOCH_MILLIS) {
+            return epochMillisToIsoFormat(epochMillis);
+        }
+        char[] buffer = K_ISO_BUFFER.get();
+        int length = formatIso(epochMicros, false, buffer, 0);
+        return new String(buffer, 0, length);
+    }
+
+    // the year outside 0000-9999 is formatted by SimpleDateFormat like before the codec (e.g. 10000-01-01T00:00:00.000Z), rare so a new SimpleDateFormat by call
+    private static String epochMillisToIsoFormat(long epochMillis) {
+        if (epochMillis >= K_MIN_ISO_EPOCH_MILLIS && epochMillis <= K_MAX_ISO_EPOCH_MILLIS) {
+            return epochMicrosToIsoFormat(epochMillis * 1000L);
+        }
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
         sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-        Date dateIso = sdf.parse(sDateIso);
-        return dateIso.getTime();
+        return sdf.format(new Date(epochMillis));
+    }
+
+    /**
+     * Format the epoch in microseconds to the ISO format in UTC in a buffer, no object created (the buffer is reused by the caller),
+     *    e.g: 2024-05-03T14:30:42.271Z (K_ISO_MILLIS_LENGTH chars) or 2024-05-03T14:30:42.271234Z (K_ISO_MICROS_LENGTH chars)
+     * @param epochMicros the number of microseconds since 1970-01-01T00:00:00Z, the year must be between 0000 and 9999
+     * @param isMicros true for 6 digits after the seconds, false for 3 digits (milliseconds truncated)
+     * @param buffer the buffer to write, K_ISO_MICROS_LENGTH chars after offset is always enough
+     * @param offset the first char to write in the buffer
+     * @return the number of chars written
+     * @throws IllegalArgumentException the year is not between 0000 and 9999
+     */
+    public static int formatIso(long epochMicros, boolean isMicros, char[] buffer, int offset) {
+        long epochSeconds = Math.floorDiv(epochMicros, K_MICROS_BY_SECOND);
+        int fractionMicros = (int) Math.floorMod(epochMicros, K_MICROS_BY_SECOND);
+        long days = Math.floorDiv(epochSeconds, K_SECONDS_BY_DAY);
+        int secondOfDay = (int) Math.floorMod(epochSeconds, K_SECONDS_BY_DAY);
+
+        // civil from days (proleptic gregorian calendar, era of 400 years)
+        long z = days + K_DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, 146097L);
+        int dayOfEra = (int) (z - era * 146097L);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthFromMarch = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * monthFromMarch + 2) / 5 + 1;
+        int month = monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999) {
+            throw new IllegalArgumentException("The year must be between 0000 and 9999, epochMicros=" + epochMicros);
+        }
+
+        int i = offset;
+        i = writeDigits(buffer, i, (int) year, 4);
+        buffer[i++] = '-';
+        i = writeDigits(buffer, i, month, 2);
+        buffer[i++] = '-';
+        i = writeDigits(buffer, i, day, 2);
+        buffer[i++] = 'T';
+        i = writeDigits(buffer, i, secondOfDay / 3600, 2);
+        buffer[i++] = ':';
+        i = writeDigits(buffer, i, (secondOfDay / 60) % 60, 2);
+        buffer[i++] = ':';
+        i = writeDigits(buffer, i, secondOfDay % 60, 2);
+        buffer[i++] = '.';
+        if (isMicros) {
+            i = writeDigits(buffer, i, fractionMicros, 6);
+        } else {
+            i = writeDigits(buffer, i, fractionMicros / 1000, 3);
+        }
+        buffer[i++] = 'Z';
+        return i - offset;
+    }
+
+    // days since 1970-01-01 of a date of the proleptic gregorian calendar
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = (month <= 2 ? year - 1 : year);
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - K_DAYS_0000_TO_1970;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean isLeapYear = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+            return isLeapYear ? 29 : 28;
+        }
+        return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
+
+    private static int parseDigits(CharSequence text, int start, int nbDigits) {
+        int value = 0;
+        for (int i = start; i < start + nbDigits; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                throw isoParseException(text, i);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int writeDigits(char[] buffer, int offset, int value, int nbDigits) {
+        for (int i = offset + nbDigits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + nbDigits;
+    }
+
+    private static DateTimeParseException isoParseException(CharSequence text, int index) {
+        return new DateTimeParseException("Text '" + text + "' is not an ISO 8601 date time", text, index);
     }
 
     /**
@@ -86,4 +336,130 @@ public class Utils {
         }
         return mimeType;
     }
+
+    /**
+     * Compute the SHA-256 of the file content
+     * @param file the file to read
+     * @return the SHA-256 in hexadecimal (lower case)
+     * @throws IOException trouble when reading the file
+     */
+    public static String sha256HexOfFile(File file) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e); // SHA-256 is always present in the jdk
+        }
+
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[65536];
+            int nbRead;
+            while ((nbRead = in.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, nbRead);
+            }
+        } finally {
+            in.close();
+        }
+        return bytesToHex(messageDigest.digest());
+    }
+
+    /**
+     * Compute a SHA-256 on a sample of the file content : the size, the first and the last 64 KB and 16 blocks of 4 KB evenly spaced.
+     * Only about 200 KB are read whatever the file size, a change of the content is detected if it is in a block read (or changes the size).
+     * The whole file is read when it is smaller than the sample.
+     * @param file the file to read
+     * @return the SHA-256 of the sample in hexadecimal (lower case)
+     * @throws IOException trouble when reading the file
+     */
+    public static String sha256HexOfFileSample(File file) throws IOException {
+        final int sizeHeadTail = 65536;
+        final int nbBlocks = 16;
+        final int sizeBlock = 4096;
+
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e); // SHA-256 is always present in the jdk
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            long size = raf.length();
+            messageDigest.update(Long.toString(size).getBytes(StandardCharsets.US_ASCII));
+            byte[] buffer = new byte[sizeHeadTail];
+            if (size <= 2L * sizeHeadTail + (long) nbBlocks * sizeBlock) {
+                int nbRead;
+                while ((nbRead = raf.read(buffer)) != -1) {
+                    messageDigest.update(buffer, 0, nbRead);
+                }
+            } else {
+                raf.readFully(buffer, 0, sizeHeadTail);
+                messageDigest.update(buffer, 0, sizeHeadTail);
+                long step = (size - 2L * sizeHeadTail) / nbBlocks;
+                for (int i = 0; i < nbBlocks; i++) {
+                    raf.seek(sizeHeadTail + i * step);
+                    raf.readFully(buffer, 0, sizeBlock);
+                    messageDigest.update(buffer, 0, sizeBlock);
+                }
+                raf.seek(size - sizeHeadTail);
+                raf.readFully(buffer, 0, sizeHeadTail);
+                messageDigest.update(buffer, 0, sizeHeadTail);
+            }
+        } finally {
+            raf.close();
+        }
+        return bytesToHex(messageDigest.digest());
+    }
+
+    /**
+     * Compute the SHA-256 of the text in UTF-8
+     * @param text the text
+     * @return the SHA-256 in hexadecimal (lower case)
+     */
+    public static String sha256Hex(String text) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-256 is always present in the jdk
+        }
+        return bytesToHex(messageDigest.digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Create a label with a number padded with '0' without String.format, the text is appended as is (a '%' in the text is not a format),
+     *    e.g: numberLabel("PAGE_", 3, 2, " - /app/search") return "PAGE_03 - /app/search" like String.format("PAGE_%02d - /app/search", 3)
+     * @param prefix the text before the number
+     * @param num the number
+     * @param width the minimum number of digits
+     * @param text the text after the number (null gives "null" like the concatenation)
+     * @return the label
+     */
+    public static String numberLabel(String prefix, int num, int width, String text) {
+        String sNum = Integer.toString(num);
+        StringBuilder sb = new StringBuilder(prefix.length() + width + 1 + (text == null ? 4 : text.length()));
+        sb.append(prefix);
+        if (num < 0) {
+            sb.append('-');
+            sNum = sNum.substring(1);
+            width--;
+        }
+        for (int i = sNum.length(); i < width; i++) {
+            sb.append('0');
+        }
+        sb.append(sNum);
+        sb.append(text);
+        return sb.toString();
+    }
+
+    public static String bytesToHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (int i = 0; i < bytes.length; i++) {
+            sb.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(bytes[i] & 0xF, 16));
+        }
+        return sb.toString();
+    }
 }
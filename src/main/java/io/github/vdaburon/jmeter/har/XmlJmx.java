@@ -25,42 +25,46 @@ import de.sstoehr.harreader.model.HarPostData;
 import de.sstoehr.harreader.model.HarPostDataParam;
 import de.sstoehr.harreader.model.HarQueryParam;
 import de.sstoehr.harreader.model.HarRequest;
-import de.sstoehr.harreader.model.HttpMethod;
 
+import io.github.vdaburon.jmeter.har.common.CommonHeaders;
+import io.github.vdaburon.jmeter.har.common.ParsedEntry;
+import io.github.vdaburon.jmeter.har.common.SplitUrl;
 import io.github.vdaburon.jmeter.har.common.TransactionInfo;
+import io.github.vdaburon.jmeter.har.common.TransactionInfoIndex;
+import io.github.vdaburon.jmeter.har.common.UrlFilter;
 import io.github.vdaburon.jmeter.har.lrwr.ManageLrwr;
+import io.github.vdaburon.jmeter.har.stream.HarEntryList;
+import io.github.vdaburon.jmeter.har.websocket.ManageWebSocket;
 import io.github.vdaburon.jmeter.har.websocket.WebSocketPDoornboschXmlJmx;
 import io.github.vdaburon.jmeter.har.websocket.WebSocketRequest;
+import io.github.vdaburon.jmeter.har.xml.StreamingDomWriter;
 
 import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import java.io.BufferedWriter;
-import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.security.InvalidParameterException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * This class create a JMeter script jmx file from a HAR JSON file.
@@ -80,18 +84,209 @@ public class XmlJmx {
     private static final String K_VIEW_RESULT_TREE_COMMENT = "For The Recording XML File Created";
     private static final Logger LOGGER = Logger.getLogger(XmlJmx.class.getName());
 
-    protected Document convertHarToJmxXml(Har har, long createNewTransactionAfterRequestMs, boolean isAddPause, boolean isRemoveCookie, boolean isRemoveCacheRequest, String urlFilterToInclude, String urlFilterToExclude, int pageStartNumber, int samplerStartNumber, List<TransactionInfo> listTransactionInfo, boolean isAddViewTreeForRecord, WebSocketRequest webSocketRequest, String recordXmlOut) throws ParserConfigurationException, URISyntaxException {
+    private static final int K_PAGES_WINDOW_BY_THREAD = 4;
+    private static final long K_NO_TIME = Long.MIN_VALUE; // no startedDateTime for the entry
+
+    private StreamingDomWriter streamingDomWriter = null;
+    private int nbThreadsPages = 1;
+    private boolean isHoistCommonHeaders = false;
+    private UrlFilter urlFilter = null;
+
+    /**
+     * Write the JMeter script while it is created, the completed Transaction Controllers and samplers are written then removed from the Document.
+     * The caller calls streamingDomWriter.finish() after convertHarToJmxXml.
+     * @param streamingDomWriter the writer of the jmx file, null to keep the complete Document in memory (default)
+     */
+    public void setStreamingDomWriter(StreamingDomWriter streamingDomWriter) {
+        this.streamingDomWriter = streamingDomWriter;
+    }
+
+    /**
+     * Create the pages (Transaction Controllers and samplers) in parallel, the labels and the numbers are the same as the sequential creation.
+     * @param nbThreadsPages the number of threads, 1 or less for the sequential creation (default)
+     */
+    public void setNbThreadsPages(int nbThreadsPages) {
+        this.nbThreadsPages = nbThreadsPages;
+    }
+
+    /**
+     * Move the headers sent by all the samplers (e.g: User-Agent, Accept-Language) in one HeaderManager at the Thread Group level,
+     * the HeaderManager of a sampler keeps only its other headers or the headers with another value (see CommonHeaders).
+     * Ignored when the script has WebSocket samplers, a HeaderManager at the Thread Group level applies also to the WebSocket connections.
+     * @param isHoistCommonHeaders true to create the Thread Group HeaderManager, false for all the headers in the sampler HeaderManager (default)
+     */
+    public void setHoistCommonHeaders(boolean isHoistCommonHeaders) {
+        this.isHoistCommonHeaders = isHoistCommonHeaders;
+    }
+
+    /**
+     * Use the url filter compiled once and shared with the Record.xml, the urlFilterToInclude and urlFilterToExclude parameters are not compiled again
+     * @param urlFilter the url filter, null to compile the filter parameters of convertHarToJmxXml (default)
+     */
+    public void setUrlFilter(UrlFilter urlFilter) {
+        this.urlFilter = urlFilter;
+    }
+
+    /**
+     * The settings of the conversion and the entries, read only when the pages are created
+     */
+    private static class PageContext {
+        List<HarPage> lPages;
+        boolean isNoPage;
+        List<HarEntry> lEntries; // a HarEntryList reads the entries on demand in the HAR file
+        HashMap<String, List<Integer>> mapEntriesByPageref; // the positions of the entries of each page
+        long timeFirstEntry = K_NO_TIME; // the time of the first entry of the HAR, K_NO_TIME if no entry or no startedDateTime
+        UrlFilter urlFilter;
+        boolean isAddPause;
+        boolean isRemoveCookie;
+        boolean isRemoveCacheRequest;
+        boolean isCreateNewTransactionAfterRequestMs;
+        long createNewTransactionAfterRequestMs;
+        TransactionInfoIndex transactionInfoIndex; // null if no transaction infos
+        boolean isWebSocketPDoornbosch; // the ws entries with their WebSocketRequest attached are converted to websocket samplers
+        CommonHeaders commonHeaders; // null if the headers are not hoisted
+        String scheme;
+        String host;
+        int iPort;
+    }
+
+    /**
+     * The next Transaction Controller number (PAGE_xx) and the next sampler number
+     */
+    private static class PageNumbers {
+        final int pageNum;
+        final int httpSamplernum;
+
+        PageNumbers(int pageNum, int httpSamplernum) {
+            this.pageNum = pageNum;
+            this.httpSamplernum = httpSamplernum;
+        }
+    }
+
+    /**
+     * The Transaction Controllers open in a page, from the Thread Group level (level 0) to the current one,
+     * with the transaction of each Transaction Controller (null if not created from a transaction) for the nested transactions.
+     * The hash trees are null when only the numbers are computed (isCountOnly).
+     */
+    private static class OpenTransactionControllers {
+        final List<TransactionInfo> listTransactionInfo = new ArrayList<>();
+        final List<Element> listHashTree = new ArrayList<>();
+
+        void reset(TransactionInfo transactionInfo, Element hashTree) {
+            listTransactionInfo.clear();
+            listHashTree.clear();
+            add(transactionInfo, hashTree);
+        }
+
+        void add(TransactionInfo transactionInfo, Element hashTree) {
+            listTransactionInfo.add(transactionInfo);
+            listHashTree.add(hashTree);
+        }
+
+        // close the Transaction Controllers after the level
+        void truncate(int nbLevels) {
+            while (listTransactionInfo.size() > nbLevels) {
+                listTransactionInfo.remove(listTransactionInfo.size() - 1);
+                listHashTree.remove(listHashTree.size() - 1);
+            }
+        }
+
+        int size() {
+            return listTransactionInfo.size();
+        }
 
-        // URL 포함 필터가 비어 있지 않으면 해당 패턴을 컴파일합니다.
-        Pattern patternUrlInclude = null;
-        if (!urlFilterToInclude.isEmpty()) {
-            patternUrlInclude = Pattern.compile(urlFilterToInclude);
+        Element getCurrentHashTree() {
+            return listHashTree.get(listHashTree.size() - 1);
         }
+    }
 
-        // URL 제외 필터가 비어 있지 않으면 해당 패턴을 컴파일합니다.
-        Pattern patternUrlExclude = null;
-        if (!urlFilterToExclude.isEmpty()) {
-            patternUrlExclude = Pattern.compile(urlFilterToExclude);
+    /**
+     * The static skeletons of the elements created for each entry (HTTPSamplerProxy, HeaderManager, TestAction pause, TransactionController),
+     * a new element is a deep clone of the template patched only where the values differ.
+     * The templates belong to one Document and are kept in its user data, a Document is used by one thread at a time (a Document by page in parallel).
+     */
+    private static class ElementTemplates {
+        private static final String K_USER_DATA_TEMPLATES = "elementTemplates";
+
+        final Element httpSamplerProxy;
+        final Element headerManager;
+        final Element header;
+        final Element testActionPause;
+        final Element transactionController;
+
+        private ElementTemplates(Document document) {
+            httpSamplerProxy = createTestElement(document, "HTTPSamplerProxy", "HttpTestSampleGui", "HTTPSamplerProxy", "");
+            httpSamplerProxy.appendChild(createProperty(document, "stringProp", "HTTPSampler.domain", null));            // 1
+            httpSamplerProxy.appendChild(createProperty(document, "stringProp", "HTTPSampler.port", null));              // 2
+            httpSamplerProxy.appendChild(createProperty(document, "stringProp", "HTTPSampler.protocol", null));          // 3
+            httpSamplerProxy.appendChild(createProperty(document, "stringProp", "HTTPSampler.contentEncoding", null));   // 4
+            httpSamplerProxy.appendChild(createProperty(document, "stringProp", "HTTPSampler.path", null));              // 5
+            httpSamplerProxy.appendChild(createProperty(document, "stringProp", "HTTPSampler.method", null));            // 6
+            httpSamplerProxy.appendChild(createProperty(document, "boolProp", "HTTPSampler.follow_redirects", "false")); // 7
+            httpSamplerProxy.appendChild(createProperty(document, "boolProp", "HTTPSampler.auto_redirects", "false"));   // 8
+            httpSamplerProxy.appendChild(createProperty(document, "boolProp", "HTTPSampler.use_keepalive", "true"));     // 9
+            httpSamplerProxy.appendChild(createProperty(document, "boolProp", "HTTPSampler.DO_MULTIPART_POST", "false")); // 10
+            httpSamplerProxy.appendChild(createProperty(document, "stringProp", "HTTPSampler.embedded_url_re", null));   // 11
+            httpSamplerProxy.appendChild(createProperty(document, "stringProp", "HTTPSampler.connect_timeout", null));   // 12
+            httpSamplerProxy.appendChild(createProperty(document, "stringProp", "HTTPSampler.response_timeout", null));  // 13
+
+            headerManager = createTestElement(document, "HeaderManager", "HeaderPanel", "HeaderManager", "HTTP Header Manager");
+
+            header = document.createElement("elementProp");
+            header.setAttribute("name", "");
+            header.setAttribute("elementType", "Header");
+            header.appendChild(createProperty(document, "stringProp", "Header.name", null));
+            header.appendChild(createProperty(document, "stringProp", "Header.value", null));
+
+            testActionPause = createTestElement(document, "TestAction", "TestActionGui", "TestAction", "");
+            testActionPause.appendChild(createProperty(document, "intProp", "ActionProcessor.action", "1"));
+            testActionPause.appendChild(createProperty(document, "intProp", "ActionProcessor.target", "0"));
+            testActionPause.appendChild(createProperty(document, "stringProp", "ActionProcessor.duration", null));
+
+            transactionController = createTestElement(document, "TransactionController", "TransactionControllerGui", "TransactionController", "");
+            transactionController.appendChild(createProperty(document, "boolProp", "TransactionController.parent", "false"));
+            transactionController.appendChild(createProperty(document, "boolProp", "TransactionController.includeTimers", "false"));
+        }
+
+        static ElementTemplates of(Document document) {
+            ElementTemplates templates = (ElementTemplates) document.getUserData(K_USER_DATA_TEMPLATES);
+            if (templates == null) {
+                templates = new ElementTemplates(document);
+                document.setUserData(K_USER_DATA_TEMPLATES, templates, null);
+            }
+            return templates;
+        }
+
+        // <name guiclass="" testclass="" testname="" enabled="true">
+        private static Element createTestElement(Document document, String name, String guiclass, String testclass, String testname) {
+            Element element = document.createElement(name);
+            element.setAttribute("guiclass", guiclass);
+            element.setAttribute("testclass", testclass);
+            element.setAttribute("testname", testname);
+            element.setAttribute("enabled", "true");
+            return element;
+        }
+
+        // a clone of the template with the testname
+        static Element newTestElement(Element template, String testname) {
+            Element element = (Element) template.cloneNode(true);
+            element.setAttribute("testname", testname);
+            return element;
+        }
+
+        // set the text of the property and return the next property
+        static Element setText(Node property, String value) {
+            property.setTextContent(value);
+            return (Element) property.getNextSibling();
+        }
+    }
+
+    protected Document convertHarToJmxXml(Har har, long createNewTransactionAfterRequestMs, boolean isAddPause, boolean isRemoveCookie, boolean isRemoveCacheRequest, String urlFilterToInclude, String urlFilterToExclude, int pageStartNumber, int samplerStartNumber, List<TransactionInfo> listTransactionInfo, boolean isAddViewTreeForRecord, List<WebSocketRequest> listWebSocketRequest, String recordXmlOut) throws ParserConfigurationException, URISyntaxException {
+
+        // URL 필터 (포함/제외 규칙), 공유된 필터가 없으면 여기서 컴파일합니다.
+        UrlFilter urlFilterUsed = urlFilter;
+        if (urlFilterUsed == null) {
+            urlFilterUsed = UrlFilter.create(urlFilterToInclude, urlFilterToExclude);
         }
 
         DocumentBuilderFactory documentFactory = DocumentBuilderFactory.newInstance();
@@ -167,10 +362,6 @@ public class XmlJmx {
             isNoPage = true;
         }
 
-        // 시간 및 트랜잭션 관련 변수 초기화
-        long timePageBefore = 0;
-        long timeRequestBefore = 0;
-
         boolean isCreateNewTransactionAfterRequestMs = false;
         if (createNewTransactionAfterRequestMs > 0 && lPages.size() == 1) {
             // 단일 페이지에서 요청 간 시간 기준으로 새 트랜잭션을 생성할지 여부를 결정합니다.
@@ -179,218 +370,404 @@ public class XmlJmx {
             isCreateNewTransactionAfterRequestMs = true;
         }
 
-        int pageNum = pageStartNumber;
-        int httpSamplernum = samplerStartNumber;
-
-        for (int p = 0; p < lPages.size(); p++) {
-            HarPage pageInter = lPages.get(p);
-            // 현재 HAR 페이지를 가져옵니다.
-            String pageId = pageInter.getId();
-            String pageTitle = "";
-            try {
-                URI pageUrl = new URI(pageInter.getTitle());
-                pageTitle = pageUrl.getPath();
-            } catch (java.net.URISyntaxException ex) {
-                // the title is not a valid uri, use directly the title
-                pageTitle = pageInter.getTitle();
+        // one pass to group the entries by pageref, no more scan of all entries for each page (페이지별 엔트리 그룹화)
+        List<HarEntry> lEntries = har.getLog().getEntries();
+        HashMap<String, List<Integer>> mapEntriesByPageref = groupEntriesByPageref(lEntries);
+
+        PageContext pageContext = new PageContext();
+        pageContext.lPages = lPages;
+        pageContext.isNoPage = isNoPage;
+        pageContext.lEntries = lEntries;
+        pageContext.mapEntriesByPageref = mapEntriesByPageref;
+        if (lEntries.size() > 0 && HarEntryList.getEntryStub(lEntries, 0).getStartedDateTime() != null) {
+            pageContext.timeFirstEntry = HarEntryList.getEntryStub(lEntries, 0).getStartedDateTime().getTime();
+        }
+        pageContext.urlFilter = urlFilterUsed;
+        pageContext.isAddPause = isAddPause;
+        pageContext.isRemoveCookie = isRemoveCookie;
+        pageContext.isRemoveCacheRequest = isRemoveCacheRequest;
+        pageContext.isCreateNewTransactionAfterRequestMs = isCreateNewTransactionAfterRequestMs;
+        pageContext.createNewTransactionAfterRequestMs = createNewTransactionAfterRequestMs;
+        pageContext.transactionInfoIndex = (listTransactionInfo != null ? new TransactionInfoIndex(listTransactionInfo) : null); // indexed once for all the pages and entries
+        pageContext.isWebSocketPDoornbosch = (listWebSocketRequest != null); // one connection by ws entry, attached to the entry by ManageWebSocket
+        pageContext.scheme = scheme;
+        pageContext.host = host;
+        pageContext.iPort = iPort;
+
+        if (isHoistCommonHeaders) {
+            // one pass on the entries to find the headers sent by all the samplers (모든 샘플러가 보내는 공통 헤더 찾기)
+            CommonHeaders commonHeaders = findCommonHeaders(pageContext);
+            if (!commonHeaders.isEmpty()) {
+                pageContext.commonHeaders = commonHeaders;
+                Element eltHeaderManager = createThreadGroupHeaderManager(document, commonHeaders);
+                hashAfterThreadGroup.appendChild(eltHeaderManager);
+                Element hashTreeEmpty5 = createHashTree(document);
+                hashAfterThreadGroup.appendChild(hashTreeEmpty5);
+                LOGGER.info("Number of headers common to the " + commonHeaders.getNbRequests() + " requests in the Thread Group HeaderManager : " + commonHeaders.getHeaders().size());
             }
+        }
 
-            // 트랜잭션 정보 처리
-            TransactionInfo transactionInfo = null;
-            if (listTransactionInfo != null) {
-                // 외부 트랜잭션 정보가 제공된 경우 해당 정보를 사용하여 페이지 제목을 설정합니다.
-                // Do we have a page  from lrwr Transaction or external cv file transaction info ?
-                Date datePageStartedDateTime = pageInter.getStartedDateTime();
-                String pageStartedDateTime = Utils.dateToIsoFormat(datePageStartedDateTime);
-
-                transactionInfo = ManageLrwr.getTransactionInfoAroundDateTime(pageStartedDateTime, listTransactionInfo);
-                if (transactionInfo != null) {
-                    pageTitle = transactionInfo.getName();
-                    LOGGER.info("Set the page title with the transaction name: " + pageTitle);
+        PageNumbers pageNumbers = new PageNumbers(pageStartNumber, samplerStartNumber);
+        if (nbThreadsPages > 1 && lPages.size() > 1) {
+            pageNumbers = createPagesParallel(document, hashAfterThreadGroup, pageContext, pageNumbers);
+        } else {
+            for (int p = 0; p < lPages.size(); p++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("JMX creation cancelled at the page : " + p); // the other generator failed (다른 생성기 실패)
                 }
+                pageNumbers = createPage(document, hashAfterThreadGroup, pageContext, p, pageNumbers, false, true);
             }
+        }
+        int httpSamplernum = pageNumbers.httpSamplernum;
 
-            // 트랜잭션 컨트롤러 이름 설정
-            String tcName = String.format("PAGE_%02d - " + pageTitle, pageNum); // PAGE_03 - /gestdocqualif/servletStat
-            // 트랜잭션 컨트롤러 이름을 형식화합니다.
-            pageNum++;
-
-            if (p == 0) {
-                // first page
-                // 첫 번째 페이지의 시작 시간을 기록합니다.
-                timePageBefore = pageInter.getStartedDateTime().getTime();
-            } else {
-                // 페이지 간 시간 계산 및 일시 정지 추가
-                long timeBetween2Pages = pageInter.getStartedDateTime().getTime() - timePageBefore;
-
-                if (isAddPause && timeBetween2Pages > 0) {
-                    createTestActionPauseAndTree(document, timeBetween2Pages, hashAfterThreadGroup);
-                    // 페이지 간 일시 정지를 추가합니다.
+        // 생성된 HTTP 샘플러 프록시의 총 개수를 로깅합니다.
+        LOGGER.info("JMX file contains " + httpSamplernum + " HTTPSamplerProxy");
+
+        return document;
+    }
+
+    /**
+     * 페이지 하나의 트랜잭션 컨트롤러와 샘플러를 생성합니다. (페이지 앞의 일시 정지 포함)
+     * 이전 페이지에 대한 의존성은 페이지 번호와 샘플러 번호뿐이므로, 번호만 계산하는 모드(isCountOnly)로 병렬 생성 전에 각 페이지의 시작 번호를 계산합니다.
+     *
+     * @param document XML Document 객체 (isCountOnly이면 null)
+     * @param hashAfterThreadGroup 페이지 요소를 추가할 해시 트리 (isCountOnly이면 null)
+     * @param pageContext 변환 설정 및 엔트리
+     * @param p 페이지 인덱스
+     * @param pageNumbersStart 이 페이지 시작 시점의 페이지 번호와 샘플러 번호
+     * @param isCountOnly true이면 요소를 생성하지 않고 번호만 계산합니다
+     * @param isFlush true이면 완료된 요소를 streamingDomWriter로 씁니다 (Document가 파일에 쓰이는 Document일 때만)
+     * @return 다음 페이지 시작 시점의 페이지 번호와 샘플러 번호
+     */
+    private PageNumbers createPage(Document document, Element hashAfterThreadGroup, PageContext pageContext, int p, PageNumbers pageNumbersStart, boolean isCountOnly, boolean isFlush) throws URISyntaxException {
+        int pageNum = pageNumbersStart.pageNum;
+        int httpSamplernum = pageNumbersStart.httpSamplernum;
+        TransactionInfoIndex transactionInfoIndex = pageContext.transactionInfoIndex;
+
+        HarPage pageInter = pageContext.lPages.get(p);
+        // 현재 HAR 페이지를 가져옵니다.
+        String pageId = pageInter.getId();
+        String pageTitle = "";
+        try {
+            URI pageUrl = new URI(pageInter.getTitle());
+            pageTitle = pageUrl.getPath();
+        } catch (java.net.URISyntaxException ex) {
+            // the title is not a valid uri, use directly the title
+            pageTitle = pageInter.getTitle();
+        }
+
+        // 트랜잭션 정보 처리
+        TransactionInfo transactionInfo = null;
+        if (transactionInfoIndex != null && pageInter.getStartedDateTime() != null) {
+            // 외부 트랜잭션 정보가 제공된 경우 해당 정보를 사용하여 페이지 제목을 설정합니다.
+            // Do we have a page  from lrwr Transaction or external cv file transaction info ?
+            long pageStartedTimeMicros = pageInter.getStartedDateTime().getTime() * 1000L;
+
+            transactionInfo = ManageLrwr.getTransactionInfoAroundTime(pageStartedTimeMicros, transactionInfoIndex);
+            if (transactionInfo != null) {
+                // the page Transaction Controller is the top level transaction, the nested transactions are created with the entries
+                transactionInfo = transactionInfo.getListPath().get(0);
+                pageTitle = transactionInfo.getName();
+                if (!isCountOnly) {
+                    LOGGER.info("Set the page title with the transaction name: " + pageTitle);
                 }
-                // 다음 페이지를 위한 시간 업데이트
-                timePageBefore = pageInter.getStartedDateTime().getTime();
             }
+        }
 
-            // 트랜잭션 컨트롤러를 생성하고 스레드 그룹 해시 트리에 추가합니다.
-            Element hashTreeAfterTc = createTranControlAndTree(document, tcName, hashAfterThreadGroup);
+        // 트랜잭션 컨트롤러 이름 설정
+        String tcName = Utils.numberLabel("PAGE_", pageNum, 2, " - " + pageTitle); // PAGE_03 - /gestdocqualif/servletStat
+        // 트랜잭션 컨트롤러 이름을 형식화합니다.
+        pageNum++;
 
-            List<HarEntry> lEntries = har.getLog().getEntries();
-            String currentUrl = "";
+        if (p > 0) {
+            // 페이지 간 시간 계산 및 일시 정지 추가 (이전 페이지의 시작 시간 기준)
+            long timePageBefore = pageContext.lPages.get(p - 1).getStartedDateTime().getTime();
+            long timeBetween2Pages = pageInter.getStartedDateTime().getTime() - timePageBefore;
 
-            // 각 HAR 엔트리를 반복 처리합니다.
-            for (int e = 0; e < lEntries.size(); e++) {
-                // 각 HAR 엔트리 처리
-                HarEntry harEntryInter = lEntries.get(e);
-                if (e == 0) {
-                    timeRequestBefore = harEntryInter.getStartedDateTime().getTime();
-                }
+            if (pageContext.isAddPause && timeBetween2Pages > 0 && !isCountOnly) {
+                createTestActionPauseAndTree(document, timeBetween2Pages, hashAfterThreadGroup);
+                // 페이지 간 일시 정지를 추가합니다.
+            }
+        }
 
-                // 요청 시작 시간 및 요청 간 시간 계산
-                long timeRequestStarted = harEntryInter.getStartedDateTime().getTime();
-                long timeBetween2Requests = timeRequestStarted - timeRequestBefore;
+        // 트랜잭션 컨트롤러를 생성하고 스레드 그룹 해시 트리에 추가합니다.
+        Element hashTreeAfterTc = null;
+        if (!isCountOnly) {
+            hashTreeAfterTc = createTranControlAndTree(document, tcName, hashAfterThreadGroup);
+        }
+        OpenTransactionControllers openTcs = new OpenTransactionControllers();
+        openTcs.reset(transactionInfo, hashTreeAfterTc);
+
+        // the positions of the entries of this page in the order of the HAR (엔트리 그룹화 결과에서 현재 페이지의 엔트리를 가져옵니다)
+        List<HarEntry> lEntries = pageContext.lEntries;
+        List<Integer> lEntriesPage = null; // null for all the entries (no page in the HAR)
+        if (!pageContext.isNoPage) {
+            lEntriesPage = pageContext.mapEntriesByPageref.get(pageId);
+            if (lEntriesPage == null) {
+                lEntriesPage = new ArrayList<Integer>();
+            }
+        }
+        String currentUrl = "";
+
+        // the time of the first entry of the HAR, not the first entry of the page (HAR의 첫 번째 엔트리 시간)
+        long timeRequestBefore = pageContext.timeFirstEntry;
+
+        // 현재 페이지의 각 HAR 엔트리를 반복 처리합니다.
+        int nbEntriesPage = (lEntriesPage != null ? lEntriesPage.size() : lEntries.size());
+        for (int e = 0; e < nbEntriesPage; e++) {
+            // 각 HAR 엔트리 처리, the count needs only the fields of the stub (번호 계산은 스텁으로 충분)
+            int posEntry = (lEntriesPage != null ? lEntriesPage.get(e) : e);
+            HarEntry harEntryInter = (isCountOnly ? HarEntryList.getEntryStub(lEntries, posEntry) : lEntries.get(posEntry));
+            if (isFlush) {
+                flushCompletedElements(hashTreeAfterTc); // the previous samplers and Transaction Controllers are complete
+            }
 
-                String pageref = harEntryInter.getPageref();
-                // 엔트리의 페이지 참조를 가져옵니다.
-                if ((pageref != null && pageref.equals(pageId)) || isNoPage) {
-                    // 페이지 참조가 일치하거나 페이지가 없는 경우 요청 처리
-                    // 현재 엔트리가 현재 페이지에 속하거나 페이지가 없는 경우 처리합니다.
-                    HarRequest harRequest = harEntryInter.getRequest();
-                    currentUrl = harRequest.getUrl();
+            // 요청 시작 시간 및 요청 간 시간 계산
+            // an entry without startedDateTime has the time of the previous request, no pause and no new Transaction Controller (시작 시간 없음)
+            long timeRequestStarted = (harEntryInter.getStartedDateTime() != null ? harEntryInter.getStartedDateTime().getTime() : timeRequestBefore);
+            long timeBetween2Requests = (timeRequestBefore != K_NO_TIME && timeRequestStarted != K_NO_TIME ? timeRequestStarted - timeRequestBefore : 0);
+            HarRequest harRequest = harEntryInter.getRequest();
+            currentUrl = harRequest.getUrl();
+
+            // URL 포함 규칙 중 하나와 일치하고 제외 규칙과 일치하지 않는 경우 추가합니다.
+            boolean isAddThisRequest = pageContext.urlFilter.isUrlKept(currentUrl);
+
+            HashMap hAddictional = (HashMap<String, Object>) harEntryInter.getAdditional();
+            if (isAddThisRequest && hAddictional != null) {  // 캐시된 요청 필터링
+                String fromCache = (String) hAddictional.get("_fromCache");
+                // 요청이 캐시된 경우 추가하지 않습니다.
+                if (fromCache != null) {
+                    // this url content is in the browser cache (memory or disk) no need to create a new request
+                    isAddThisRequest = false;
+                }
+            }
 
-                    boolean isAddThisRequest = true;
+            if (isAddThisRequest) {  // 요청 추가가 허용된 경우 처리
+                String samplerLabel = null;
+                ParsedEntry parsedEntry = null;
+                int entrySamplernum = httpSamplernum; // the number of this entry, the Open Connection sampler for a ws entry
+                if (!isCountOnly) {
+                    parsedEntry = new ParsedEntry(harEntryInter);
+                    // 요청 URL을 한 번만 파싱하고 이 엔트리의 모든 요소에서 공유합니다.
+                    samplerLabel = parsedEntry.getLabel(entrySamplernum); // 003 /gestdocqualif/servletStat
+                }
+                httpSamplernum++;
+                String sUrl = harRequest.getUrl();
+                String startUrl = sUrl.substring(0, Math.min(2, sUrl.length())); // ht or ws
+
+                // "data:" 프로토콜 스킵
+                // "data:" 프로토콜로 시작하는 URL은 JMeter에서 지원되지 않으므로 건너뜁니다.
+                if ("da".equalsIgnoreCase(startUrl)) { //data
+                    // jmeter는 data:image 프로토콜을 지원하지 않습니다.
+                    continue;
+                }
 
-                    if (patternUrlInclude != null) {  // 첫 번째 URL 필터 포함
-                        // URL 포함 필터가 있는 경우 요청 URL이 패턴과 일치하는지 확인합니다.
-                        Matcher matcher = patternUrlInclude.matcher(currentUrl);
-                        isAddThisRequest = matcher.find();
+                Element sampler = null;
+                boolean isWebSocket = false;
+                // the connection of this ws entry with its own messages
+                WebSocketRequest webSocketRequest = (pageContext.isWebSocketPDoornbosch ? ManageWebSocket.getWebSocketRequest(harEntryInter) : null);
+                if ("ws".equalsIgnoreCase(startUrl) && webSocketRequest != null) { // ws or wss
+                    if (isCountOnly) {
+                        openTcs.reset(openTcs.listTransactionInfo.get(0), null); // same levels as the jmx creation
+                        pageNum++;
+                        httpSamplernum = entrySamplernum + 1 + WebSocketPDoornboschXmlJmx.countWebSocketMessageSamplers(webSocketRequest) + 1; // open + messages + close
+                        continue;
                     }
+                    // WebSocket 요청인 경우 WebSocket 샘플러를 생성합니다.
+                    String tcNameFromRequest = Utils.numberLabel("PAGE_", pageNum, 2, " - WebSocket " + parsedEntry.getPath()); // PAGE_03 - /gestdocqualif/servletStat
+                    pageNum++;
+                    Element eltTransactionControllerNew = createTransactionController(document, tcNameFromRequest);
+                    hashTreeAfterTc = createHashTree(document);
+                    int closeSamplernum = WebSocketPDoornboschXmlJmx.createWebSocketPDoornboschTree(document, hashTreeAfterTc, samplerLabel, pageContext.scheme, pageContext.host, pageContext.iPort, entrySamplernum, webSocketRequest);
+                    httpSamplernum = closeSamplernum + 1;
+                    hashAfterThreadGroup.appendChild(eltTransactionControllerNew);
+                    hashAfterThreadGroup.appendChild(hashTreeAfterTc);
+                    openTcs.reset(openTcs.listTransactionInfo.get(0), hashTreeAfterTc); // the next samplers are in this Transaction Controller
+
+                    continue; // 웹소켓 및 메시지가 추가되었으므로 이 샘플러에 대한 처리를 마칩니다.
+
+                } else if (!isCountOnly) {
+                    sampler = createHttpSamplerProxy(document, samplerLabel, pageContext.scheme, pageContext.host, pageContext.iPort, parsedEntry);
+                }
+                // HTTP 샘플러 프록시를 생성합니다.
+
+                // 트랜잭션 정보로부터 새 TC 생성 여부 확인
+                boolean isCreateNewTcFromTransactionInfo = false;
+                if (transactionInfoIndex != null && timeRequestStarted != K_NO_TIME) {
+                    // Do we have a page or sub page from lrwr Transaction or external cv file transaction info ?
+                    long entryStartedTimeMicros = timeRequestStarted * 1000L; // 현재 엔트리의 시작 시간 (마이크로초)
+
+                    TransactionInfo transactionInfo2 = ManageLrwr.getTransactionInfoAroundTime(entryStartedTimeMicros, transactionInfoIndex); // 해당 시간 주변의 트랜잭션 정보 가져오기
+                    if (transactionInfo2 != null) {
+                        // 현재 엔트리 시간 주변에 트랜잭션 정보가 있는 경우, 최상위 트랜잭션부터 이 트랜잭션까지 (중첩 트랜잭션) 열린 트랜잭션 컨트롤러와 비교합니다.
+                        List<TransactionInfo> listPath = transactionInfo2.getListPath(); // top level transaction ... transactionInfo2
+                        int nbLevelsSame = 0;
+                        while (nbLevelsSame < listPath.size() && nbLevelsSame < openTcs.size() && listPath.get(nbLevelsSame) == openTcs.listTransactionInfo.get(nbLevelsSame)) {
+                            nbLevelsSame++; // 같은 트랜잭션이면 새 TC 생성 안 함
+                        }
+                        // the entry is in a parent transaction, close the nested Transaction Controllers
+                        openTcs.truncate(Math.max(1, nbLevelsSame));
+
+                        // create the Transaction Controllers of the transactions not open, the top level in the Thread Group, the others nested in their parent
+                        for (int level = nbLevelsSame; level < listPath.size(); level++) {
+                            isCreateNewTcFromTransactionInfo = true; // 새 트랜잭션 컨트롤러 생성
+                            TransactionInfo transactionInfoLevel = listPath.get(level);
+                            pageTitle = transactionInfoLevel.getName();
+                            String tcNameFromRequest = Utils.numberLabel("PAGE_", pageNum, 2, " - " + pageTitle); // 새 트랜잭션 컨트롤러 이름 생성
+                            pageNum++; // 페이지 번호 증가
+
+                            Element hashTreeNew = null;
+                            if (!isCountOnly) {
+                                LOGGER.info("Set the page title with the transaction name: " + pageTitle); // 페이지 제목을 트랜잭션 이름으로 설정
+                                Element hashTreeParent = (level == 0 ? hashAfterThreadGroup : openTcs.listHashTree.get(level - 1));
+                                hashTreeNew = createTranControlAndTree(document, tcNameFromRequest, hashTreeParent);
+                            }
+                            if (level == 0) {
+                                openTcs.reset(transactionInfoLevel, hashTreeNew);
+                            } else {
+                                openTcs.add(transactionInfoLevel, hashTreeNew);
+                            }
+                        }
+                        hashTreeAfterTc = openTcs.getCurrentHashTree();
+                    }
+                }
 
-                    if (isAddThisRequest && patternUrlExclude != null) {  // 두 번째 URL 필터 제외
-                        Matcher matcher = patternUrlExclude.matcher(currentUrl);
-                        // URL 제외 필터가 있는 경우 요청 URL이 패턴과 일치하지 않는지 확인합니다.
-                        isAddThisRequest = !matcher.find();
+                // 요청 간 시간 기준으로 새 트랜잭션 생성
+                if (pageContext.isCreateNewTransactionAfterRequestMs && timeBetween2Requests > pageContext.createNewTransactionAfterRequestMs) {
+                    // 요청 간 시간이 설정된 임계값을 초과하면 새 트랜잭션 컨트롤러를 생성합니다.
+                    if (pageContext.isAddPause && !isCountOnly) { // 일시 정지 추가 여부
+                        createTestActionPauseAndTree(document, timeBetween2Requests, hashAfterThreadGroup);
                     }
 
-                    HashMap hAddictional = (HashMap<String, Object>) harEntryInter.getAdditional();
-                    if (isAddThisRequest && hAddictional != null) {  // 캐시된 요청 필터링
-                        String fromCache = (String) hAddictional.get("_fromCache");
-                        // 요청이 캐시된 경우 추가하지 않습니다.
-                        if (fromCache != null) {
-                            // this url content is in the browser cache (memory or disk) no need to create a new request
-                            isAddThisRequest = false;
+                    if (!isCreateNewTcFromTransactionInfo) { // 트랜잭션 정보로부터 새 TC가 생성되지 않은 경우
+                        if (!isCountOnly) {
+                            String tcNameFromRequest = Utils.numberLabel("PAGE_", pageNum, 2, " - " + parsedEntry.getPath()); // 새 트랜잭션 컨트롤러 이름 생성
+                            hashTreeAfterTc = createTranControlAndTree(document, tcNameFromRequest, hashAfterThreadGroup);
                         }
+                        openTcs.reset(openTcs.listTransactionInfo.get(0), hashTreeAfterTc); // the nested Transaction Controllers are closed
+                        pageNum++; // 페이지 번호 증가
                     }
+                }
+                // 요청 시간 업데이트
+                timeRequestBefore = timeRequestStarted;
+                // 다음 요청을 위해 현재 요청 시간을 업데이트합니다.
 
-                    if (isAddThisRequest) {  // 요청 추가가 허용된 경우 처리
-                        URI url = new URI(harRequest.getUrl());
-                        // 요청 URL을 파싱합니다.
-                        String samplerLabel = String.format("%03d " + url.getPath(), httpSamplernum); // 003 /gestdocqualif/servletStat
-                        httpSamplernum++;
-                        String sUrl = harRequest.getUrl();
-                        String startUrl = sUrl.substring(0, Math.min(2, sUrl.length())); // ht or ws
-
-                        // "data:" 프로토콜 스킵
-                        // "data:" 프로토콜로 시작하는 URL은 JMeter에서 지원되지 않으므로 건너뜁니다.
-                        if ("da".equalsIgnoreCase(startUrl)) { //data
-                            // jmeter는 data:image 프로토콜을 지원하지 않습니다.
-                            continue;
-                        }
+                if (!isCountOnly) {
+                    hashTreeAfterTc.appendChild(sampler);
+                    Element hashTreeAfterHttpSampler = createHashTree(document); // HTTP 샘플러 뒤에 해시 트리 생성
+                    hashTreeAfterTc.appendChild(hashTreeAfterHttpSampler); // HTTP 샘플러 뒤에 해시 트리 추가
 
-                        Element sampler = null;
-                        boolean isWebSocket = false;
-                        if ("ws".equalsIgnoreCase(startUrl) && webSocketRequest != null) { // ws or wss
-                            // WebSocket 요청인 경우 WebSocket 샘플러를 생성합니다.
-                            URI pageUrlFromRequest = new URI(harRequest.getUrl());
-                            String tcNameFromRequest = String.format("PAGE_%02d - WebSocket " + pageUrlFromRequest.getPath(), pageNum); // PAGE_03 - /gestdocqualif/servletStat
-                            pageNum++;
-                            Element eltTransactionControllerNew = createTransactionController(document, tcNameFromRequest);
-                            hashTreeAfterTc = createHashTree(document);
-                            httpSamplernum = WebSocketPDoornboschXmlJmx.createWebSocketPDoornboschTree(document, hashTreeAfterTc, samplerLabel, scheme, host, iPort, httpSamplernum, webSocketRequest);
-                            httpSamplernum++;
-                            hashAfterThreadGroup.appendChild(eltTransactionControllerNew);
-                            hashAfterThreadGroup.appendChild(hashTreeAfterTc);
-
-                            continue; // 웹소켓 및 메시지가 추가되었으므로 이 샘플러에 대한 처리를 마칩니다.
-
-                        } else {
-                            sampler = createHttpSamplerProxy(document, samplerLabel, scheme, host, iPort, harRequest);
-                        }
-                        // HTTP 샘플러 프록시를 생성합니다.
-
-                        // 트랜잭션 정보로부터 새 TC 생성 여부 확인
-                        boolean isCreateNewTcFromTransactionInfo = false;
-                        if (listTransactionInfo != null) {
-                            // Do we have a page or sub page from lrwr Transaction or external cv file transaction info ?
-                            Date dateEntryStartedDateTime = harEntryInter.getStartedDateTime(); // 현재 엔트리의 시작 시간
-                            String entryStartedDateTime = Utils.dateToIsoFormat(dateEntryStartedDateTime); // ISO 형식으로 변환
-
-                            TransactionInfo transactionInfo2 = ManageLrwr.getTransactionInfoAroundDateTime(entryStartedDateTime, listTransactionInfo); // 해당 시간 주변의 트랜잭션 정보 가져오기
-                            if (transactionInfo2 != null) {
-                                // 현재 엔트리 시간 주변에 트랜잭션 정보가 있는 경우 새 트랜잭션 컨트롤러를 생성합니다.
-                                isCreateNewTcFromTransactionInfo = true; // 새 트랜잭션 컨트롤러 생성 필요
-
-                                // 동일한 시작 타임스탬프를 가진 동일한 트랜잭션인 경우 아무것도 하지 않습니다.
-                                if (transactionInfo != null) { // 기존 트랜잭션 정보가 있는 경우
-                                    if (transactionInfo2.getBeginDateTime().equals(transactionInfo.getBeginDateTime())) {
-                                        isCreateNewTcFromTransactionInfo = false; // 시작 타임스탬프가 같으면 동일 트랜잭션으로 간주하여 새 TC 생성 안 함
-                                    } else {
-                                        isCreateNewTcFromTransactionInfo = true;
-                                    }
-                                }
-
-                                if (isCreateNewTcFromTransactionInfo) {
-                                    pageTitle = transactionInfo2.getName();
-                                    LOGGER.info("Set the page title with the transaction name: " + pageTitle); // 페이지 제목을 트랜잭션 이름으로 설정
-
-                                    String tcNameFromRequest = String.format("PAGE_%02d - " + pageTitle, pageNum); // 새 트랜잭션 컨트롤러 이름 생성
-                                    transactionInfo = transactionInfo2; // 현재 트랜잭션 정보를 업데이트
-                                    pageNum++; // 페이지 번호 증가
-
-                                    hashTreeAfterTc = createTranControlAndTree(document, tcNameFromRequest, hashAfterThreadGroup);
-                                }
-                            }
-                        }
+                    // 헤더 관리자를 생성하고 HTTP 샘플러 뒤에 추가합니다.
+                    createHeaderManagerAndTree(pageContext.isRemoveCookie, pageContext.isRemoveCacheRequest, pageContext.commonHeaders, document, harRequest, hashTreeAfterHttpSampler);
+                }
+            } else if (!isCountOnly) {
+                // isAddThisRequest == false  // 요청이 필터링된 경우 로깅
+                LOGGER.fine("This url is filtred : " + currentUrl);
+            }
+        }
+        return new PageNumbers(pageNum, httpSamplernum);
+    }
 
-                        // 요청 간 시간 기준으로 새 트랜잭션 생성
-                        if (isCreateNewTransactionAfterRequestMs && timeBetween2Requests > createNewTransactionAfterRequestMs) {
-                            // 요청 간 시간이 설정된 임계값을 초과하면 새 트랜잭션 컨트롤러를 생성합니다.
-                            if (isAddPause) { // 일시 정지 추가 여부
-                                createTestActionPauseAndTree(document, timeBetween2Requests, hashAfterThreadGroup);
-                            }
+    /**
+     * 페이지들을 병렬로 생성합니다.
+     * 먼저 번호만 계산하는 패스로 각 페이지의 시작 페이지 번호와 샘플러 번호를 계산하고 (레이블이 순차 생성과 동일),
+     * 각 페이지는 ForkJoinPool에서 자신의 Document에 생성된 후 순서대로 Document에 옮겨집니다 (adoptNode).
+     * 메모리를 제한하기 위해 쓰레드당 K_PAGES_WINDOW_BY_THREAD 페이지까지만 미리 생성합니다.
+     *
+     * @param document XML Document 객체
+     * @param hashAfterThreadGroup 스레드 그룹 해시 트리
+     * @param pageContext 변환 설정 및 엔트리
+     * @param pageNumbersStart 첫 페이지의 페이지 번호와 샘플러 번호
+     * @return 마지막 페이지 이후의 페이지 번호와 샘플러 번호
+     */
+    private PageNumbers createPagesParallel(Document document, Element hashAfterThreadGroup, final PageContext pageContext, PageNumbers pageNumbersStart) throws ParserConfigurationException, URISyntaxException {
+        final int nbPages = pageContext.lPages.size();
+
+        // prefix pass, the numbers at the start of each page (각 페이지의 시작 번호 계산)
+        final List<PageNumbers> listPageNumbers = new ArrayList<>(nbPages);
+        PageNumbers pageNumbers = pageNumbersStart;
+        for (int p = 0; p < nbPages; p++) {
+            listPageNumbers.add(pageNumbers);
+            pageNumbers = createPage(null, null, pageContext, p, pageNumbers, true, false);
+        }
+        LOGGER.info("Create the " + nbPages + " pages with " + nbThreadsPages + " threads");
 
-                            if (!isCreateNewTcFromTransactionInfo) { // 트랜잭션 정보로부터 새 TC가 생성되지 않은 경우
-                                URI pageUrlFromRequest = new URI(harRequest.getUrl()); // 요청 URL로부터 URI 생성
-                                String tcNameFromRequest = String.format("PAGE_%02d - " + pageUrlFromRequest.getPath(), pageNum); // 새 트랜잭션 컨트롤러 이름 생성
-                                pageNum++; // 페이지 번호 증가
-                                hashTreeAfterTc = createTranControlAndTree(document, tcNameFromRequest, hashAfterThreadGroup);
+        final DocumentBuilderFactory documentFactory = DocumentBuilderFactory.newInstance();
+        ForkJoinPool forkJoinPool = new ForkJoinPool(nbThreadsPages);
+        try {
+            ArrayDeque<Future<Element>> queueFragments = new ArrayDeque<>();
+            int nextPage = 0;
+            for (int p = 0; p < nbPages; p++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("JMX creation cancelled at the page : " + p); // the other generator failed (다른 생성기 실패)
+                }
+                while (nextPage < nbPages && nextPage < p + nbThreadsPages * K_PAGES_WINDOW_BY_THREAD) {
+                    final int pageToCreate = nextPage;
+                    queueFragments.add(forkJoinPool.submit(new Callable<Element>() {
+                        @Override
+                        public Element call() throws ParserConfigurationException, URISyntaxException {
+                            // a Document by page, a DOM Document is not thread safe
+                            Document documentPage;
+                            synchronized (documentFactory) {
+                                documentPage = documentFactory.newDocumentBuilder().newDocument();
                             }
+                            Element eltFragment = createHashTree(documentPage);
+                            createPage(documentPage, eltFragment, pageContext, pageToCreate, listPageNumbers.get(pageToCreate), false, false);
+                            return eltFragment;
                         }
-                        // 요청 시간 업데이트
-                        timeRequestBefore = timeRequestStarted;
-                        // 다음 요청을 위해 현재 요청 시간을 업데이트합니다.
-
-                        hashTreeAfterTc.appendChild(sampler);
-                        Element hashTreeAfterHttpSampler = createHashTree(document); // HTTP 샘플러 뒤에 해시 트리 생성
-                        hashTreeAfterTc.appendChild(hashTreeAfterHttpSampler); // HTTP 샘플러 뒤에 해시 트리 추가
+                    }));
+                    nextPage++;
+                }
 
-                        // 헤더 관리자를 생성하고 HTTP 샘플러 뒤에 추가합니다.
-                        createHeaderManagerAndTree(isRemoveCookie, isRemoveCacheRequest, document, harRequest, hashTreeAfterHttpSampler);
-                    } else {
-                        // isAddThisRequest == false  // 요청이 필터링된 경우 로깅
-                        LOGGER.fine("This url is filtred : " + currentUrl);
-                    }
+                Element eltFragment = waitForPage(queueFragments.poll());
+                Node node = eltFragment.getFirstChild();
+                while (node != null) {
+                    Node nextNode = node.getNextSibling();
+                    eltFragment.removeChild(node);
+                    hashAfterThreadGroup.appendChild(document.adoptNode(node));
+                    node = nextNode;
                 }
+                flushCompletedElements(hashAfterThreadGroup); // the elements of this page are complete
             }
+        } finally {
+            forkJoinPool.shutdownNow();
         }
-        // 생성된 HTTP 샘플러 프록시의 총 개수를 로깅합니다.
-        LOGGER.info("JMX file contains " + httpSamplernum + " HTTPSamplerProxy");
+        return pageNumbers;
+    }
 
-        return document;
+    private static Element waitForPage(Future<Element> futurePage) throws ParserConfigurationException, URISyntaxException {
+        try {
+            return futurePage.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // the caller sees the interrupt (인터럽트 상태 유지)
+            CancellationException cancellationException = new CancellationException("JMX creation cancelled while waiting for a page");
+            cancellationException.initCause(e);
+            throw cancellationException;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof URISyntaxException) {
+                throw (URISyntaxException) cause;
+            }
+            if (cause instanceof ParserConfigurationException) {
+                throw (ParserConfigurationException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
     }
     // HAR 데이터를 기반으로 JMX XML 문서를 생성하는 메서드입니다.
 
-    private void createHeaderManagerAndTree(boolean isRemoveCookie, boolean isRemoveCacheRequest, Document document, HarRequest harRequest, Element hashTreeAfterHttpSampler) {
-        Element headers = createHeaderManager(document, harRequest, isRemoveCookie, isRemoveCacheRequest); // 헤더 관리자 생성
+    private void createHeaderManagerAndTree(boolean isRemoveCookie, boolean isRemoveCacheRequest, CommonHeaders commonHeaders, Document document, HarRequest harRequest, Element hashTreeAfterHttpSampler) {
+        Element headers = createHeaderManager(document, harRequest, isRemoveCookie, isRemoveCacheRequest, commonHeaders); // 헤더 관리자 생성
+        if (commonHeaders != null && !headers.getFirstChild().hasChildNodes()) {
+            // all the headers are in the Thread Group HeaderManager (모든 헤더가 스레드 그룹 HeaderManager에 있음)
+            return;
+        }
         hashTreeAfterHttpSampler.appendChild(headers);
         Element hashTreeAfterHeaders = createHashTree(document);
         hashTreeAfterHttpSampler.appendChild(hashTreeAfterHeaders);
@@ -432,6 +809,105 @@ public class XmlJmx {
         hashAfterThreadGroup.appendChild(hashAfterTestAction);
     }
 
+    private void flushCompletedElements(Element eltCurrent) {
+        if (streamingDomWriter != null) {
+            try {
+                streamingDomWriter.flush(eltCurrent);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Group the positions of the entries by pageref, the positions keep the order of the HAR in each list, the entries without pageref are not in the map.
+     * The pageref of a HarEntryList is read in the index, not in the HAR file.
+     * @param lEntries the entries of the HAR
+     * @return the map pageref -&gt; the positions in lEntries of the entries of this page
+     */
+    static HashMap<String, List<Integer>> groupEntriesByPageref(List<HarEntry> lEntries) {
+        HashMap<String, List<Integer>> mapEntriesByPageref = new HashMap<>();
+        for (int e = 0; e < lEntries.size(); e++) {
+            String pageref = HarEntryList.getEntryStub(lEntries, e).getPageref();
+            if (pageref == null) {
+                continue;
+            }
+            List<Integer> lEntriesPage = mapEntriesByPageref.get(pageref);
+            if (lEntriesPage == null) {
+                lEntriesPage = new ArrayList<>();
+                mapEntriesByPageref.put(pageref, lEntriesPage);
+            }
+            lEntriesPage.add(e);
+        }
+        return mapEntriesByPageref;
+    }
+
+    /**
+     * Count the headers of the entries converted to a HTTP sampler (same filters as createPage) and find the common headers.
+     * No common header when the script has WebSocket samplers, the Thread Group HeaderManager would also add its headers to the WebSocket connections.
+     * @param pageContext the entries and the filters
+     * @return the common headers, computed, empty if WebSocket samplers
+     */
+    static CommonHeaders findCommonHeaders(PageContext pageContext) {
+        CommonHeaders commonHeaders = new CommonHeaders();
+        List<HarHeader> lHeadersKept = new ArrayList<>();
+        for (HarEntry harEntry : pageContext.lEntries) {
+            if (!isSamplerEntry(pageContext, harEntry)) {
+                continue;
+            }
+            if (isWebSocketSamplerEntry(pageContext, harEntry)) {
+                // the headers stay in the HeaderManager of each HTTP sampler (웹소켓 샘플러가 있으면 공통 헤더 없음)
+                LOGGER.info("WebSocket samplers in the script, the headers are not moved in a Thread Group HeaderManager");
+                return new CommonHeaders();
+            }
+            lHeadersKept.clear();
+            List<HarHeader> lHeaders = harEntry.getRequest().getHeaders();
+            if (lHeaders != null) {
+                for (HarHeader header : lHeaders) {
+                    if (header.getName() != null && isHeaderKept(header.getName(), pageContext.isRemoveCookie, pageContext.isRemoveCacheRequest)) {
+                        lHeadersKept.add(header);
+                    }
+                }
+            }
+            commonHeaders.addRequestHeaders(lHeadersKept);
+        }
+        commonHeaders.compute();
+        return commonHeaders;
+    }
+
+    // is this entry a sampler in createPage ? the url filters, not in the browser cache and not data:
+    private static boolean isSamplerEntry(PageContext pageContext, HarEntry harEntry) {
+        String url = harEntry.getRequest().getUrl();
+        if (!pageContext.urlFilter.isUrlKept(url)) {
+            return false;
+        }
+        Map<String, Object> hAddictional = harEntry.getAdditional();
+        if (hAddictional != null && hAddictional.get("_fromCache") != null) {
+            return false;
+        }
+        String startUrl = url.substring(0, Math.min(2, url.length())); // ht or ws
+        return !"da".equalsIgnoreCase(startUrl);
+    }
+
+    // is this sampler entry a websocket with the plugin in createPage ?
+    private static boolean isWebSocketSamplerEntry(PageContext pageContext, HarEntry harEntry) {
+        String url = harEntry.getRequest().getUrl();
+        String startUrl = url.substring(0, Math.min(2, url.length())); // ht or ws
+        return "ws".equalsIgnoreCase(startUrl) && pageContext.isWebSocketPDoornbosch && ManageWebSocket.getWebSocketRequest(harEntry) != null;
+    }
+
+    /**
+     * Create the HeaderManager at the Thread Group level with the common headers
+     * @param document the document
+     * @param commonHeaders the common headers, computed
+     * @return the HeaderManager
+     */
+    protected Element createThreadGroupHeaderManager(Document document, CommonHeaders commonHeaders) {
+        HarRequest harRequestCommon = new HarRequest();
+        harRequestCommon.setHeaders(new ArrayList<>(commonHeaders.getHeaders()));
+        return createHeaderManager(document, harRequestCommon, false, false, null);
+    }
+
     private static List<HarPage> createOneHarPage(Har har) {
         List<HarPage> lPages;
         // no page, need to add one from first entry
@@ -952,30 +1428,8 @@ public class XmlJmx {
           <boolProp name="TransactionController.includeTimers">false</boolProp>
         </TransactionController>
          */
-        // TransactionController 요소를 생성합니다.
-        Element eltTransactionController = document.createElement("TransactionController");
-        Attr attrTransactionControllerguiclass = document.createAttribute("guiclass");
-        attrTransactionControllerguiclass.setValue("TransactionControllerGui");
-        eltTransactionController.setAttributeNode(attrTransactionControllerguiclass);
-
-        Attr attrTransactionControllertestclass = document.createAttribute("testclass");
-        attrTransactionControllertestclass.setValue("TransactionController");
-        eltTransactionController.setAttributeNode(attrTransactionControllertestclass);
-
-        Attr attrTransactionControllertestname = document.createAttribute("testname");
-        attrTransactionControllertestname.setValue(testname);
-        eltTransactionController.setAttributeNode(attrTransactionControllertestname);
-
-        Attr attrTransactionControllerenabled = document.createAttribute("enabled");
-        attrTransactionControllerenabled.setValue("true");
-        eltTransactionController.setAttributeNode(attrTransactionControllerenabled);
-        // TransactionController 요소의 속성을 설정합니다.
-
-        Element eltBoolProp1 = createProperty(document, "boolProp", "TransactionController.parent", "false");
-        eltTransactionController.appendChild(eltBoolProp1);
-        Element eltBoolProp2 = createProperty(document, "boolProp", "TransactionController.includeTimers", "false");
-        eltTransactionController.appendChild(eltBoolProp2);
-        // 타이머 포함 여부를 설정합니다.
+        // TransactionController 요소를 템플릿에서 복제하고 testname만 설정합니다.
+        Element eltTransactionController = ElementTemplates.newTestElement(ElementTemplates.of(document).transactionController, testname);
 
         return eltTransactionController;
     }
@@ -1193,30 +1647,15 @@ public class XmlJmx {
     }
 
 
-    protected Element createHttpSamplerProxy(Document document, String testname, String scheme, String host, int iPort, HarRequest harRequest) throws URISyntaxException {
+    protected Element createHttpSamplerProxy(Document document, String testname, String scheme, String host, int iPort, ParsedEntry parsedEntry) {
         /*
          <HTTPSamplerProxy guiclass="HttpTestSampleGui" testclass="HTTPSamplerProxy" testname="007 /gestdocqualif/servletLogin" enabled="true">
             <elementProp name="HTTPsampler.Arguments" elementType="Arguments" guiclass="HTTPArgumentsPanel" testclass="Arguments" enabled="true">
          */
-        // HTTPSamplerProxy 요소 생성
-        Element eltHTTPSamplerProxy = document.createElement("HTTPSamplerProxy");
-        Attr attrHTTPSamplerProxyguiclass = document.createAttribute("guiclass");
-        attrHTTPSamplerProxyguiclass.setValue("HttpTestSampleGui");
-        eltHTTPSamplerProxy.setAttributeNode(attrHTTPSamplerProxyguiclass);
-
-        Attr attrHTTPSamplerProxytestclass = document.createAttribute("testclass");
-        attrHTTPSamplerProxytestclass.setValue("HTTPSamplerProxy");
-        eltHTTPSamplerProxy.setAttributeNode(attrHTTPSamplerProxytestclass);
-
-        Attr attrHTTPSamplerProxytestname = document.createAttribute("testname");
-        attrHTTPSamplerProxytestname.setValue(testname);
-        eltHTTPSamplerProxy.setAttributeNode(attrHTTPSamplerProxytestname);
-
-        Attr attrHTTPSamplerProxyenabled = document.createAttribute("enabled");
-        attrHTTPSamplerProxyenabled.setValue("true");
-        eltHTTPSamplerProxy.setAttributeNode(attrHTTPSamplerProxyenabled);
-        // HTTPSamplerProxy 속성 설정
+        // HTTPSamplerProxy 요소를 템플릿에서 복제 (속성 4개와 속성 요소 13개), 값이 다른 곳만 설정합니다.
+        Element eltHTTPSamplerProxy = ElementTemplates.newTestElement(ElementTemplates.of(document).httpSamplerProxy, testname);
 
+        HarRequest harRequest = parsedEntry.getRequest();
         HarPostData postData = harRequest.getPostData();
         String mimeType = postData.getMimeType();
         String doMultiPart = "false";
@@ -1240,109 +1679,79 @@ public class XmlJmx {
             <stringProp name="HTTPSampler.connect_timeout"></stringProp>     // 12
             <stringProp name="HTTPSampler.response_timeout"></stringProp>    // 13
                 */
-        // URL 파싱
-        URI url = new URI(harRequest.getUrl());
-
+        // 파싱된 URL 사용
         String hostInter = "";
-        if (!host.equalsIgnoreCase(url.getHost())) {  // 호스트가 다른 경우 설정
-            hostInter = url.getHost();
+        if (!host.equalsIgnoreCase(parsedEntry.getHost())) {  // 호스트가 다른 경우 설정
+            hostInter = parsedEntry.getHost();
         }
-        Element stringProp1 = createProperty(document, "stringProp", "HTTPSampler.domain", hostInter);
-        eltHTTPSamplerProxy.appendChild(stringProp1);
+        Element stringProp1 = (Element) eltHTTPSamplerProxy.getFirstChild();
+        Element stringProp2 = ElementTemplates.setText(stringProp1, hostInter);
 
         int defautPort = 443;
         // 기본 포트 설정
-        if ("http".equalsIgnoreCase(url.getScheme())) {
+        if ("http".equalsIgnoreCase(parsedEntry.getScheme())) {
             defautPort = 80;
         }
-        if ("ws".equalsIgnoreCase(url.getScheme())) {
+        if ("ws".equalsIgnoreCase(parsedEntry.getScheme())) {
             defautPort = 80;
         }
         // 포트가 다른 경우 설정
 
         String sPortInter = "";
-        int port = url.getPort() == -1 ? defautPort : url.getPort();
+        int port = parsedEntry.getPort() == -1 ? defautPort : parsedEntry.getPort();
         if (iPort != port) {
             sPortInter = "" + port;
         }
-        Element stringProp2 = createProperty(document, "stringProp", "HTTPSampler.port", sPortInter);
-        eltHTTPSamplerProxy.appendChild(stringProp2);
+        Element stringProp3 = ElementTemplates.setText(stringProp2, sPortInter);
 
         // 스키마가 다른 경우 설정
         String schemeInter = "";
-        if (!scheme.equalsIgnoreCase(url.getScheme())) {
-            schemeInter= url.getScheme();
+        if (!scheme.equalsIgnoreCase(parsedEntry.getScheme())) {
+            schemeInter= parsedEntry.getScheme();
         }
-        Element stringProp3 = createProperty(document, "stringProp", "HTTPSampler.protocol", schemeInter);
-        eltHTTPSamplerProxy.appendChild(stringProp3);
+        Element stringProp4 = ElementTemplates.setText(stringProp3, schemeInter);
 
         // HTTP 메서드 가져오기
-        String methodInter = harRequest.getMethod().name();
+        String methodInter = parsedEntry.getMethod();
 
         String contentEncodingInter = "";
         // POST, PUT, PATCH 요청의 Content-Type에 따라 contentEncoding 설정
-        if ("POST".equalsIgnoreCase(methodInter) || "PUT".equalsIgnoreCase(methodInter) || "PATCH".equalsIgnoreCase(methodInter)) {
-            if (harRequest.getHeaders() != null && harRequest.getHeaders().size() > 0) {
-                for (HarHeader header : harRequest.getHeaders()) {
-                    String headerName = header.getName();
-                    String headerValue = header.getValue();
-
-                    if ("Content-Type".equalsIgnoreCase(headerName)) {
-                        if ("application/json".equalsIgnoreCase(headerValue)) {
-                            contentEncodingInter = "UTF-8";
-                            break;
-                        }
-                    }
+        if (parsedEntry.isPostOrPutOrPatch()) {
+            for (String headerValue : parsedEntry.getRequestHeaderValues("Content-Type")) {
+                if ("application/json".equalsIgnoreCase(headerValue)) {
+                    contentEncodingInter = "UTF-8";
+                    break;
                 }
             }
         }
 
-        Element stringProp4 = createProperty(document, "stringProp", "HTTPSampler.contentEncoding", contentEncodingInter);
-        eltHTTPSamplerProxy.appendChild(stringProp4);
+        Element stringProp5 = ElementTemplates.setText(stringProp4, contentEncodingInter);
 
         // 경로 설정
-        String pathInter = url.getPath();
-        if ("POST".equalsIgnoreCase(methodInter) || "PUT".equalsIgnoreCase(methodInter) || "PATCH".equalsIgnoreCase(methodInter)) {
+        String pathInter = parsedEntry.getPath();
+        if (parsedEntry.isPostOrPutOrPatch()) {
             // POST, PUT, PATCH 요청의 경우 쿼리 문자열을 경로에 추가
-            if (url.getQuery() != null) {
-                pathInter += "?" + url.getQuery();
+            if (parsedEntry.getQuery() != null) {
+                pathInter += "?" + parsedEntry.getQuery();
             }
         }
 
-        Element stringProp5 = createProperty(document, "stringProp", "HTTPSampler.path", pathInter);
-        eltHTTPSamplerProxy.appendChild(stringProp5);
-
-        Element stringProp6 = createProperty(document, "stringProp", "HTTPSampler.method", methodInter);
-        eltHTTPSamplerProxy.appendChild(stringProp6);
-
-        Element boolProp7 = createProperty(document, "boolProp", "HTTPSampler.follow_redirects", "false");
-        eltHTTPSamplerProxy.appendChild(boolProp7);
+        Element stringProp6 = ElementTemplates.setText(stringProp5, pathInter);
+        Element boolProp7 = ElementTemplates.setText(stringProp6, methodInter);
 
-        Element boolProp8 = createProperty(document, "boolProp", "HTTPSampler.auto_redirects", "false");
-        eltHTTPSamplerProxy.appendChild(boolProp8);
-
-        Element boolProp9 = createProperty(document, "boolProp", "HTTPSampler.use_keepalive", "true");
-        eltHTTPSamplerProxy.appendChild(boolProp9);
-
-        Element boolProp10 = createProperty(document, "boolProp", "HTTPSampler.DO_MULTIPART_POST", doMultiPart);
-        eltHTTPSamplerProxy.appendChild(boolProp10);
-
-        Element stringProp11 = createProperty(document, "stringProp", "HTTPSampler.embedded_url_re", null);
-        eltHTTPSamplerProxy.appendChild(stringProp11);
-
-        Element stringProp12 = createProperty(document, "stringProp", "HTTPSampler.connect_timeout", null);
-        eltHTTPSamplerProxy.appendChild(stringProp12);
-
-        Element stringProp13 = createProperty(document, "stringProp", "HTTPSampler.response_timeout", null);
-        eltHTTPSamplerProxy.appendChild(stringProp13);
+        // 7 to 13 from the template, only DO_MULTIPART_POST changes
+        if ("true".equals(doMultiPart)) {
+            Element boolProp10 = (Element) boolProp7.getNextSibling().getNextSibling().getNextSibling();
+            boolProp10.setTextContent(doMultiPart);
+        }
 
 
-        eltHTTPSamplerProxy = createHttpSamplerParams(document, harRequest, eltHTTPSamplerProxy);
+        eltHTTPSamplerProxy = createHttpSamplerParams(document, parsedEntry, eltHTTPSamplerProxy);
 
         return eltHTTPSamplerProxy;
     }
 
-    protected Element createHttpSamplerParams(Document document, HarRequest harRequest, Element eltHTTPSamplerProxy) {
+    protected Element createHttpSamplerParams(Document document, ParsedEntry parsedEntry, Element eltHTTPSamplerProxy) {
         /*
         <elementProp name="HTTPsampler.Arguments" elementType="Arguments" guiclass="HTTPArgumentsPanel" testclass="Arguments" testname="User Defined Variables">
         <collectionProp name="Arguments.arguments">
@@ -1375,10 +1784,10 @@ public class XmlJmx {
         boolean isParamAdd = false;
 
         // POST, PUT, PATCH 요청 처리
-        if (harRequest.getMethod().equals(HttpMethod.POST) || harRequest.getMethod().equals(HttpMethod.PUT) || harRequest.getMethod().equals(HttpMethod.PATCH)) {
+        HarRequest harRequest = parsedEntry.getRequest();
+        if (parsedEntry.isPostOrPutOrPatch()) {
             HarPostData postData = harRequest.getPostData();
-            String mimeType = postData.getMimeType();
-            mimeType = Utils.extractMimeType(mimeType); // remove charset if exists
+            String mimeType = parsedEntry.getPostDataMimeType(); // without charset
 
             // application/x-www-form-urlencoded 타입 처리
             if ("application/x-www-form-urlencoded".equalsIgnoreCase(mimeType)) {
@@ -1408,7 +1817,7 @@ public class XmlJmx {
                 // 멀티파트 데이터에서 매개변수 추출
 
                 // HarRequest에서 멀티파트 데이터를 추출하여 HarPostData 객체로 변환
-                HarPostData postDataModified =  HarForJMeter.extractParamsFromMultiPart(harRequest);
+                HarPostData postDataModified =  parsedEntry.getMultipartPostData();
 
                 for (HarPostDataParam dataParam : postDataModified.getParams()) {
                     String paramName = dataParam.getName();
@@ -1438,7 +1847,7 @@ public class XmlJmx {
             }
         }
 
-        if (!(harRequest.getMethod().equals(HttpMethod.POST) || harRequest.getMethod().equals(HttpMethod.PUT) || harRequest.getMethod().equals(HttpMethod.PATCH))) {
+        if (!parsedEntry.isPostOrPutOrPatch()) {
             // NOT POST NOT PUT NOT PATCH, e.g : DELETE HEAD, OPTIONS, PATCH, PROPFIND
 
             Element boolPropPostBodyRaw = createProperty(document, "boolProp", "HTTPSampler.postBodyRaw", "false");
@@ -1657,6 +2066,19 @@ public class XmlJmx {
 
 
     protected Element createHeaderManager(Document document, HarRequest harRequest, boolean isRemoveCookie, boolean isRemoveCacheRequest) {
+        return createHeaderManager(document, harRequest, isRemoveCookie, isRemoveCacheRequest, null);
+    }
+
+    /**
+     * Create the HeaderManager of a sampler without the headers already in the Thread Group HeaderManager
+     * @param document the document
+     * @param harRequest the request
+     * @param isRemoveCookie do we remove the Cookie header ?
+     * @param isRemoveCacheRequest do we remove the cache headers ?
+     * @param commonHeaders the headers in the Thread Group HeaderManager, null if no Thread Group HeaderManager
+     * @return the HeaderManager
+     */
+    protected Element createHeaderManager(Document document, HarRequest harRequest, boolean isRemoveCookie, boolean isRemoveCacheRequest, CommonHeaders commonHeaders) {
         /*
         <HeaderManager guiclass="HeaderPanel" testclass="HeaderManager" testname="HTTP Header Manager" enabled="true">
              <collectionProp name="HeaderManager.headers">
@@ -1679,29 +2101,9 @@ public class XmlJmx {
               </collectionProp>
             </HeaderManager>
          */
-        // HeaderManager 요소 생성
-        Element eltHeadManager = document.createElement("HeaderManager");
-        Attr attreltHeadManagerguiclass = document.createAttribute("guiclass");
-        // HeaderManager의 guiclass 속성 설정
-        attreltHeadManagerguiclass.setValue("HeaderPanel");
-        eltHeadManager.setAttributeNode(attreltHeadManagerguiclass);
-
-        Attr attreltHeadManagertestclass = document.createAttribute("testclass");
-        // HeaderManager의 testclass 속성 설정
-        attreltHeadManagertestclass.setValue("HeaderManager");
-        eltHeadManager.setAttributeNode(attreltHeadManagertestclass);
-
-        Attr attreltHeadManagertestname = document.createAttribute("testname");
-        // HeaderManager의 testname 속성 설정
-        attreltHeadManagertestname.setValue("HTTP Header Manager");
-        eltHeadManager.setAttributeNode(attreltHeadManagertestname);
-
-        Attr attreltHeadManagerenabled = document.createAttribute("enabled");
-        // HeaderManager의 enabled 속성 설정
-        attreltHeadManagerenabled.setValue("true");
-        eltHeadManager.setAttributeNode(attreltHeadManagerenabled);
-
-        Element headers = createHttpSamplerHeaders(document, harRequest, isRemoveCookie, isRemoveCacheRequest);
+        // HeaderManager 요소를 템플릿에서 복제합니다 (testname은 항상 "HTTP Header Manager")
+        Element eltHeadManager = (Element) ElementTemplates.of(document).headerManager.cloneNode(true);
+        Element headers = createHttpSamplerHeaders(document, harRequest, isRemoveCookie, isRemoveCacheRequest, commonHeaders);
         // HTTP 샘플러 헤더 생성 및 추가
         eltHeadManager.appendChild(headers);
 
@@ -1709,6 +2111,10 @@ public class XmlJmx {
     }
 
     protected Element createHttpSamplerHeaders(Document document, HarRequest harRequest, boolean isRemoveCookie, boolean isRemoveCacheRequest) {
+        return createHttpSamplerHeaders(document, harRequest, isRemoveCookie, isRemoveCacheRequest, null);
+    }
+
+    protected Element createHttpSamplerHeaders(Document document, HarRequest harRequest, boolean isRemoveCookie, boolean isRemoveCacheRequest, CommonHeaders commonHeaders) {
         /*
             <collectionProp name="HeaderManager.headers">
                 <elementProp name="Referer" elementType="Header">
@@ -1733,48 +2139,28 @@ public class XmlJmx {
         collectionProp.setAttributeNode(attrcollectionPropname);
 
         if (harRequest.getHeaders() != null && harRequest.getHeaders().size() > 0) {
+            Element templateHeader = ElementTemplates.of(document).header;
             for (HarHeader header : harRequest.getHeaders()) {
                 String headerName = header.getName();
                 String headerValue = header.getValue();
 
-                boolean addThisHearder = true;
+                boolean addThisHearder = isHeaderKept(headerName, isRemoveCookie, isRemoveCacheRequest);
 
-                if ("Cookie".equalsIgnoreCase(headerName)) {
-                    if (isRemoveCookie) {
-                        // 쿠키 관리자를 추가했으므로 쿠키 헤더를 제거합니다.
-                        addThisHearder = false;
-                    }
-                }
-
-                if ("If-Modified-Since".equalsIgnoreCase(headerName) || "If-None-Match".equalsIgnoreCase(headerName) || "If-Last-Modified".equalsIgnoreCase(headerName)) {
-                    if (isRemoveCacheRequest) {
-                        // no cache If-Modified-Since or If-None-Match because add a Cache Manager
-                        // 캐시 관리자를 추가했으므로 캐시 관련 헤더를 제거합니다.
-                        addThisHearder = false;
-                    }
-                }
-
-                if ("Content-Length".equalsIgnoreCase(headerName)) {
-                    // Content-Length는 JMeter가 요청 생성 시 계산하므로 제거합니다.
-                    addThisHearder = false;
-                }
-
-                if (headerName != null && !headerName.isEmpty() && headerName.startsWith(":")) {
-                    // HTTP/2 프로토콜에서 ':'로 시작하는 헤더(예: ":authority", ":method", ":path", ":scheme")는 추가하지 않습니다.
+                if (addThisHearder && commonHeaders != null && commonHeaders.isCommon(headerName, headerValue)) {
+                    // 스레드 그룹의 HeaderManager에 같은 값으로 있는 헤더는 추가하지 않습니다.
                     addThisHearder = false;
                 }
 
                 if(addThisHearder) {
                     // 헤더를 추가할 수 있는 경우 elementProp 생성
-                    Element elementProp = createElementProp(document, headerName, "Header", null, null, null);
+                    Element elementProp = (Element) templateHeader.cloneNode(true);
+                    elementProp.setAttribute("name", headerName);
 
-                    Element stringProp1 = createProperty(document, "stringProp", "Header.name", headerName);
+                    Element stringProp1 = (Element) elementProp.getFirstChild();
                     // Header.name 속성 설정
-                    elementProp.appendChild(stringProp1);
-
-                    Element stringProp2 = createProperty(document, "stringProp", "Header.value", headerValue);
+                    Element stringProp2 = ElementTemplates.setText(stringProp1, headerName);
                     // Header.value 속성 설정
-                    elementProp.appendChild(stringProp2);
+                    stringProp2.setTextContent(headerValue);
                     collectionProp.appendChild(elementProp);
                 }
             }
@@ -1783,6 +2169,43 @@ public class XmlJmx {
         return collectionProp;
     }
 
+    /**
+     * Is this request header added in the HeaderManager ? Not the Cookie (Cookie Manager), not the cache headers (Cache Manager), not Content-Length and not the HTTP/2 pseudo headers
+     * @param headerName the header name
+     * @param isRemoveCookie do we remove the Cookie header ?
+     * @param isRemoveCacheRequest do we remove the If-Modified-Since, If-None-Match and If-Last-Modified headers ?
+     * @return true if the header is added
+     */
+    static boolean isHeaderKept(String headerName, boolean isRemoveCookie, boolean isRemoveCacheRequest) {
+        boolean addThisHearder = true;
+
+        if ("Cookie".equalsIgnoreCase(headerName)) {
+            if (isRemoveCookie) {
+                // 쿠키 관리자를 추가했으므로 쿠키 헤더를 제거합니다.
+                addThisHearder = false;
+            }
+        }
+
+        if ("If-Modified-Since".equalsIgnoreCase(headerName) || "If-None-Match".equalsIgnoreCase(headerName) || "If-Last-Modified".equalsIgnoreCase(headerName)) {
+            if (isRemoveCacheRequest) {
+                // no cache If-Modified-Since or If-None-Match because add a Cache Manager
+                // 캐시 관리자를 추가했으므로 캐시 관련 헤더를 제거합니다.
+                addThisHearder = false;
+            }
+        }
+
+        if ("Content-Length".equalsIgnoreCase(headerName)) {
+            // Content-Length는 JMeter가 요청 생성 시 계산하므로 제거합니다.
+            addThisHearder = false;
+        }
+
+        if (headerName != null && !headerName.isEmpty() && headerName.startsWith(":")) {
+            // HTTP/2 프로토콜에서 ':'로 시작하는 헤더(예: ":authority", ":method", ":path", ":scheme")는 추가하지 않습니다.
+            addThisHearder = false;
+        }
+        return addThisHearder;
+    }
+
     protected Element createTestActionPause(Document document, String testname, long pauseMs) {
         /*
         <TestAction guiclass="TestActionGui" testclass="TestAction" testname="fca PAUSE TEMPS_COURT" enabled="true">
@@ -1791,36 +2214,10 @@ public class XmlJmx {
           <stringProp name="ActionProcessor.duration">${K_TEMPS_COURT}</stringProp>
         </TestAction>
          */
-        // TestAction 요소 생성
-        Element eltTestAction = document.createElement("TestAction");
-        Attr attrTestActionguiclass = document.createAttribute("guiclass");
-        // TestAction의 guiclass 속성 설정
-        attrTestActionguiclass.setValue("TestActionGui");
-        eltTestAction.setAttributeNode(attrTestActionguiclass);
-
-        Attr attrTestActiontestclass = document.createAttribute("testclass");
-        // TestAction의 testclass 속성 설정
-        attrTestActiontestclass.setValue("TestAction");
-        eltTestAction.setAttributeNode(attrTestActiontestclass);
-
-        Attr attrTestActiontestname = document.createAttribute("testname");
-        // TestAction의 testname 속성 설정
-        attrTestActiontestname.setValue(testname);
-        eltTestAction.setAttributeNode(attrTestActiontestname);
-
-        Attr attrTestActionenabled = document.createAttribute("enabled");
-        // TestAction의 enabled 속성 설정
-        attrTestActionenabled.setValue("true");
-        eltTestAction.setAttributeNode(attrTestActionenabled);
-
-        Element eltIntProp1 = createProperty(document, "intProp","ActionProcessor.action", "1");
-        // ActionProcessor.action 속성 설정
-        eltTestAction.appendChild(eltIntProp1);
-        Element eltIntProp2 = createProperty(document, "intProp","ActionProcessor.target", "0");
-        // ActionProcessor.target 속성 설정
-        eltTestAction.appendChild(eltIntProp2);
-        Element eltStringProp3 = createProperty(document, "stringProp","ActionProcessor.duration", "" + pauseMs);
-        eltTestAction.appendChild(eltStringProp3);
+        // TestAction 요소를 템플릿에서 복제하고 testname과 ActionProcessor.duration만 설정합니다.
+        Element eltTestAction = ElementTemplates.newTestElement(ElementTemplates.of(document).testActionPause, testname);
+        Element eltStringProp3 = (Element) eltTestAction.getLastChild(); // ActionProcessor.duration
+        eltStringProp3.setTextContent(Long.toString(pauseMs));
 
         return eltTestAction;
     }
@@ -1836,7 +2233,7 @@ public class XmlJmx {
         List<HarEntry> lEntries = har.getLog().getEntries();
         if (lEntries != null && lEntries.size() > 0) {
             HarEntry harEntryInter = lEntries.get(0);
-            URI pageUrl = new URI(harEntryInter.getRequest().getUrl());
+            SplitUrl pageUrl = SplitUrl.split(harEntryInter.getRequest().getUrl());
             scheme = pageUrl.getScheme(); // http or https
             // URL에서 스키마 추출 (http 또는 https)
             host = pageUrl.getHost(); // google.com
@@ -1869,23 +2266,22 @@ public class XmlJmx {
     public static void saveXmFile(Document document, String jmxXmlFileOut) throws TransformerException {
         // create the xml file
         // XML 파일 생성
-        //transform the DOM Object to an XML File
-        // DOM 객체를 XML 파일로 변환
+        // same output as the Transformer with indent (UTF-8, indent 2), without the identity transform
         LOGGER.fine("saveXmFile, param jmxXmlFileOut=<" + jmxXmlFileOut + ">" );
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-        DOMSource domSource = new DOMSource(document);
-        // DOMSource 생성
+        StreamingDomWriter streamingDomWriter = null;
         try {
-            Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(jmxXmlFileOut), StandardCharsets.UTF_8));
-            StreamResult streamResult = new StreamResult(out);
-            // StreamResult 생성
-            transformer.transform(domSource, streamResult);
-            // 변환 수행
+            streamingDomWriter = new StreamingDomWriter(jmxXmlFileOut);
+            streamingDomWriter.writeDocument(document);
         } catch (Exception e) {
             throw new TransformerException(e);
+        } finally {
+            if (streamingDomWriter != null) {
+                try {
+                    streamingDomWriter.close();
+                } catch (IOException e) {
+                    LOGGER.warning("Can't close the file : " + jmxXmlFileOut + ", exception : " + e);
+                }
+            }
         }
     }
 }
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.cache;
+
+import io.github.vdaburon.jmeter.har.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Local on disk cache of the conversions. The key is the SHA-256 of the HAR content (SHA-256 of the whole file)
+ * and of the options in a canonical form (sorted by name), a copy of the HAR or a new last modified time gives the same key.
+ * The SHA-256 of the HAR is memoized in a file of the cache directory by path, size and last modified time, the HAR is read entirely only when it changed.
+ * One directory per key contains the JMeter script and the Record.xml created.
+ * The size of the cache is bounded, the least recently used directories are deleted first (the last modified time of a directory is updated on each hit).
+ */
+public class ConversionCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ConversionCache.class.getName());
+
+    public static final String K_JMX_FILE = "script.jmx";
+    public static final String K_RECORD_FILE = "record.xml";
+    public static final long K_DEFAULT_MAX_SIZE_MB = 512;
+    private static final String K_TMP_EXTENSION = ".tmp";
+    private static final String K_SHA256_EXTENSION = ".sha256";
+
+    private final File cacheDir;
+    private final long maxSizeBytes;
+
+    /**
+     * @param cacheDir the cache directory, created if needed
+     * @param maxSizeMb the maximum size of the cache in MB, 0 or less for the default size
+     */
+    public ConversionCache(String cacheDir, long maxSizeMb) {
+        this.cacheDir = new File(cacheDir);
+        if (maxSizeMb <= 0) {
+            maxSizeMb = K_DEFAULT_MAX_SIZE_MB;
+        }
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    /**
+     * Create the key of a conversion
+     * @param fileHar the HAR file
+     * @param mapOptions the options name and value that change the files created
+     * @return the key, SHA-256 in hexadecimal of the HAR content and the options sorted by name
+     * @throws IOException trouble when reading the HAR file
+     */
+    public String createKey(File fileHar, Map<String, String> mapOptions) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        // the content only, not the path nor the last modified time (내용만 사용)
+        sb.append("har.sha256=").append(sha256HexOfHar(fileHar)).append('\n');
+        Map<String, String> mapSorted = new TreeMap<>(mapOptions);
+        for (Map.Entry<String, String> entry : mapSorted.entrySet()) {
+            sb.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        return Utils.sha256Hex(sb.toString());
+    }
+
+    /**
+     * The SHA-256 of the whole HAR content, memoized in the file &lt;SHA-256 of the HAR path&gt;.sha256 of the cache directory with the size and the last modified time of the HAR.
+     * The HAR is read again when its size or its last modified time changed, an edit that keeps both is not detected.
+     * @param fileHar the HAR file
+     * @return the SHA-256 of the HAR in hexadecimal
+     * @throws IOException trouble when reading the HAR file
+     */
+    protected String sha256HexOfHar(File fileHar) throws IOException {
+        // size and last modified time read before the content, a change during the read is seen at the next call
+        String memoPrefix = fileHar.length() + " " + fileHar.lastModified() + " ";
+        File fileMemo = new File(cacheDir, Utils.sha256Hex(fileHar.getCanonicalPath()) + K_SHA256_EXTENSION);
+        if (fileMemo.isFile()) {
+            try {
+                String memo = new String(Files.readAllBytes(fileMemo.toPath()), StandardCharsets.UTF_8);
+                if (memo.startsWith(memoPrefix)) {
+                    return memo.substring(memoPrefix.length()).trim();
+                }
+            } catch (IOException e) {
+                LOGGER.warning("Can't read the SHA-256 memo : " + fileMemo + ", exception : " + e);
+            }
+        }
+
+        String sha256 = Utils.sha256HexOfFile(fileHar);
+        // write in a temporary file then rename, an other process never reads an incomplete memo
+        File fileTmp = new File(cacheDir, fileMemo.getName() + K_TMP_EXTENSION + System.nanoTime());
+        try {
+            cacheDir.mkdirs();
+            Files.write(fileTmp.toPath(), (memoPrefix + sha256).getBytes(StandardCharsets.UTF_8));
+            Files.move(fileTmp.toPath(), fileMemo.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warning("Can't save the SHA-256 memo : " + fileMemo + ", exception : " + e); // the next call reads the HAR again
+        } finally {
+            fileTmp.delete();
+        }
+        return sha256;
+    }
+
+    /**
+     * Copy the files of a previous conversion
+     * @param key the conversion key
+     * @param jmxOut the JMeter script to create
+     * @param recordXmlOut the Record.xml to create, empty if no Record.xml
+     * @return true if the files are in the cache and copied, false if the conversion is needed
+     */
+    public boolean restore(String key, String jmxOut, String recordXmlOut) {
+        File dirEntry = new File(cacheDir, key);
+        File fileJmx = new File(dirEntry, K_JMX_FILE);
+        File fileRecord = new File(dirEntry, K_RECORD_FILE);
+        if (!fileJmx.isFile() || (!recordXmlOut.isEmpty() && !fileRecord.isFile())) {
+            LOGGER.info("Conversion not in the cache, key : " + key);
+            return false;
+        }
+        try {
+            Files.copy(fileJmx.toPath(), new File(jmxOut).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            if (!recordXmlOut.isEmpty()) {
+                Files.copy(fileRecord.toPath(), new File(recordXmlOut).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Can't copy the files from the cache : " + dirEntry + ", exception : " + e);
+            return false;
+        }
+        dirEntry.setLastModified(System.currentTimeMillis()); // most recently used
+        LOGGER.info("Conversion found in the cache, files copied from : " + dirEntry);
+        return true;
+    }
+
+    /**
+     * Save the files of a conversion in the cache then remove the least recently used conversions if the cache is too large
+     * @param key the conversion key
+     * @param jmxOut the JMeter script created
+     * @param recordXmlOut the Record.xml created, empty if no Record.xml
+     */
+    public void store(String key, String jmxOut, String recordXmlOut) {
+        File dirEntry = new File(cacheDir, key);
+        // copy in a temporary directory then rename, an other process never sees an incomplete entry
+        File dirTmp = new File(cacheDir, key + K_TMP_EXTENSION + System.nanoTime());
+        try {
+            if (!dirTmp.mkdirs()) {
+                throw new IOException("Can't create the directory " + dirTmp);
+            }
+            Files.copy(new File(jmxOut).toPath(), new File(dirTmp, K_JMX_FILE).toPath());
+            if (!recordXmlOut.isEmpty()) {
+                Files.copy(new File(recordXmlOut).toPath(), new File(dirTmp, K_RECORD_FILE).toPath());
+            }
+            deleteDir(dirEntry);
+            if (!dirTmp.renameTo(dirEntry)) {
+                throw new IOException("Can't rename the directory " + dirTmp + " to " + dirEntry);
+            }
+            LOGGER.info("Conversion saved in the cache : " + dirEntry);
+        } catch (IOException e) {
+            LOGGER.warning("Can't save the conversion in the cache, exception : " + e);
+        } finally {
+            deleteDir(dirTmp);
+        }
+        evict();
+    }
+
+    /**
+     * Delete the least recently used conversions until the cache size is lower than the maximum size
+     */
+    protected void evict() {
+        File[] tabDirs = cacheDir.listFiles();
+        if (tabDirs == null) {
+            return;
+        }
+        List<File> listDirs = new ArrayList<>();
+        long totalSize = 0;
+        for (int i = 0; i < tabDirs.length; i++) {
+            File dir = tabDirs[i];
+            if (dir.isDirectory() && !dir.getName().contains(K_TMP_EXTENSION)) {
+                listDirs.add(dir);
+                totalSize += sizeOfDir(dir);
+            }
+        }
+        if (totalSize <= maxSizeBytes) {
+            return;
+        }
+
+        final Map<File, Long> mapLastModified = new TreeMap<>(); // read once, the sort needs stable values
+        for (int i = 0; i < listDirs.size(); i++) {
+            mapLastModified.put(listDirs.get(i), listDirs.get(i).lastModified());
+        }
+        Collections.sort(listDirs, new Comparator<File>() {
+            @Override
+            public int compare(File f1, File f2) {
+                return Long.compare(mapLastModified.get(f1), mapLastModified.get(f2));
+            }
+        });
+
+        for (int i = 0; i < listDirs.size() && totalSize > maxSizeBytes; i++) {
+            File dir = listDirs.get(i);
+            long size = sizeOfDir(dir);
+            deleteDir(dir);
+            totalSize -= size;
+            LOGGER.info("Cache size > " + maxSizeBytes + " bytes, remove the least recently used : " + dir);
+        }
+    }
+
+    private static long sizeOfDir(File dir) {
+        long size = 0;
+        File[] tabFiles = dir.listFiles();
+        if (tabFiles != null) {
+            for (int i = 0; i < tabFiles.length; i++) {
+                size += tabFiles[i].length();
+            }
+        }
+        return size;
+    }
+
+    private static void deleteDir(File dir) {
+        File[] tabFiles = dir.listFiles();
+        if (tabFiles != null) {
+            for (int i = 0; i < tabFiles.length; i++) {
+                tabFiles[i].delete();
+            }
+        }
+        dir.delete();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.common;
+
+import de.sstoehr.harreader.model.HarHeader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The request headers common to the samplers of the script, moved in one HeaderManager at the Thread Group level.
+ * A header is common when all the requests send it once and more than K_MIN_PERCENT_SAME_VALUE % of the requests send the same value,
+ * a request with another value keeps this header in its own HeaderManager (JMeter uses the value of the HeaderManager under the sampler).
+ * A header missing in one request is never common because a HeaderManager can't remove a header.
+ * The requests are added with addRequestHeaders then compute() is called, after compute() the object is read only and shared by the threads.
+ */
+public class CommonHeaders {
+    public static final int K_MIN_PERCENT_SAME_VALUE = 50;
+    private static final int K_MIN_NB_REQUESTS = 2;
+
+    // the count of a header name (case ignored) in the requests
+    private static class HeaderCount {
+        String name; // the name in the first request
+        int nbRequests = 0;
+        boolean isDuplicate = false; // twice in a request or without value
+        Map<String, Integer> mapNbByValue = new HashMap<>();
+    }
+
+    private final Map<String, HeaderCount> mapCountByName = new LinkedHashMap<>(); // lower case name, order of the first request
+    private int nbRequests = 0;
+
+    private final List<HarHeader> listCommonHeaders = new ArrayList<>();
+    private final Map<String, String> mapCommonValueByName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * Count the headers of a request converted to a sampler
+     * @param lHeaders the headers kept for this sampler (Cookie, Content-Length ... already removed)
+     */
+    public void addRequestHeaders(List<HarHeader> lHeaders) {
+        nbRequests++;
+        Map<String, Boolean> mapSeenInRequest = new HashMap<>();
+        for (HarHeader header : lHeaders) {
+            String key = header.getName().toLowerCase(Locale.ROOT);
+            HeaderCount headerCount = mapCountByName.get(key);
+            if (headerCount == null) {
+                headerCount = new HeaderCount();
+                headerCount.name = header.getName();
+                mapCountByName.put(key, headerCount);
+            }
+            if (mapSeenInRequest.put(key, Boolean.TRUE) != null || header.getValue() == null) {
+                headerCount.isDuplicate = true;
+                continue;
+            }
+            headerCount.nbRequests++;
+            Integer nbValue = headerCount.mapNbByValue.get(header.getValue());
+            headerCount.mapNbByValue.put(header.getValue(), nbValue == null ? 1 : nbValue + 1);
+        }
+    }
+
+    /**
+     * Find the common headers and their value from the requests added
+     */
+    public void compute() {
+        if (nbRequests < K_MIN_NB_REQUESTS) {
+            return;
+        }
+        for (HeaderCount headerCount : mapCountByName.values()) {
+            if (headerCount.isDuplicate || headerCount.nbRequests != nbRequests) {
+                continue;
+            }
+            String valueMax = null;
+            int nbMax = 0;
+            for (Map.Entry<String, Integer> entry : headerCount.mapNbByValue.entrySet()) {
+                if (entry.getValue() > nbMax) {
+                    valueMax = entry.getKey();
+                    nbMax = entry.getValue();
+                }
+            }
+            if (nbMax * 100L > (long) nbRequests * K_MIN_PERCENT_SAME_VALUE) {
+                HarHeader harHeader = new HarHeader();
+                harHeader.setName(headerCount.name);
+                harHeader.setValue(valueMax);
+                listCommonHeaders.add(harHeader);
+                mapCommonValueByName.put(headerCount.name, valueMax);
+            }
+        }
+    }
+
+    /**
+     * @return the common headers for the Thread Group HeaderManager, in the order of the first request
+     */
+    public List<HarHeader> getHeaders() {
+        return Collections.unmodifiableList(listCommonHeaders);
+    }
+
+    /**
+     * @param name the header name, the case is ignored
+     * @param value the header value in the request
+     * @return true if this header with this value is in the Thread Group HeaderManager, no need to add it in the sampler HeaderManager
+     */
+    public boolean isCommon(String name, String value) {
+        return value != null && value.equals(mapCommonValueByName.get(name));
+    }
+
+    public boolean isEmpty() {
+        return listCommonHeaders.isEmpty();
+    }
+
+    public int getNbRequests() {
+        return nbRequests;
+    }
+}
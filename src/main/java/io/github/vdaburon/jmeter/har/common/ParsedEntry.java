@@ -0,0 +1,222 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.common;
+
+import de.sstoehr.harreader.model.HarEntry;
+import de.sstoehr.harreader.model.HarHeader;
+import de.sstoehr.harreader.model.HarPostData;
+import de.sstoehr.harreader.model.HarRequest;
+import de.sstoehr.harreader.model.HarResponse;
+
+import io.github.vdaburon.jmeter.har.HarForJMeter;
+import io.github.vdaburon.jmeter.har.Utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The values derived from a HAR entry used by the generators (JMX script and Record.xml), computed once for the entry.
+ * The url is split when the view is created (SplitUrl, lenient), the headers, the post data mime type and the multipart params are computed at the first call.
+ * A view is used by one thread at a time like the HarEntry.
+ */
+public class ParsedEntry {
+    private final HarEntry harEntry;
+    private final SplitUrl splitUrl;
+    private final String method;
+
+    private String postDataMimeType;
+    private Map<String, List<String>> mapRequestHeaders;
+    private Map<String, List<String>> mapResponseHeaders;
+    private HarPostData multipartPostData;
+    private String responseEncoding;
+
+    public ParsedEntry(HarEntry harEntry) {
+        this.harEntry = harEntry;
+        HarRequest harRequest = harEntry.getRequest();
+        this.splitUrl = SplitUrl.split(harRequest.getUrl());
+        this.method = harRequest.getMethod().name();
+    }
+
+    public HarEntry getHarEntry() {
+        return harEntry;
+    }
+
+    public HarRequest getRequest() {
+        return harEntry.getRequest();
+    }
+
+    public HarResponse getResponse() {
+        return harEntry.getResponse();
+    }
+
+    public String getUrl() {
+        return harEntry.getRequest().getUrl();
+    }
+
+    public SplitUrl getSplitUrl() {
+        return splitUrl;
+    }
+
+    public String getScheme() {
+        return splitUrl.getScheme();
+    }
+
+    public String getHost() {
+        return splitUrl.getHost();
+    }
+
+    /**
+     * @return the port in the url or -1 if no port in the url
+     */
+    public int getPort() {
+        return splitUrl.getPort();
+    }
+
+    public String getPath() {
+        return splitUrl.getPath();
+    }
+
+    public String getQuery() {
+        return splitUrl.getQuery();
+    }
+
+    /**
+     * @return the method name, e.g: GET, POST
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    public boolean isPostOrPutOrPatch() {
+        return "POST".equalsIgnoreCase(method) || "PUT".equalsIgnoreCase(method) || "PATCH".equalsIgnoreCase(method);
+    }
+
+    /**
+     * @param num the sampler number
+     * @return the sampler label, e.g: "003 /gestdocqualif/servletStat"
+     */
+    public String getLabel(int num) {
+        return Utils.numberLabel("", num, 3, " " + getPath());
+    }
+
+    /**
+     * @return the post data mime type without charset or boundary, e.g: "multipart/form-data"
+     */
+    public String getPostDataMimeType() {
+        if (postDataMimeType == null) {
+            postDataMimeType = Utils.extractMimeType(harEntry.getRequest().getPostData().getMimeType());
+        }
+        return postDataMimeType;
+    }
+
+    /**
+     * @param name the header name, the case is ignored
+     * @return the first value of this request header or null if no header with a value
+     */
+    public String getRequestHeader(String name) {
+        return firstValue(getRequestHeaderValues(name));
+    }
+
+    /**
+     * @param name the header name, the case is ignored
+     * @return the values of this request header in the HAR order, empty list if no header
+     */
+    public List<String> getRequestHeaderValues(String name) {
+        if (mapRequestHeaders == null) {
+            mapRequestHeaders = createMapHeaders(harEntry.getRequest().getHeaders());
+        }
+        return valuesOrEmpty(mapRequestHeaders.get(name));
+    }
+
+    /**
+     * @param name the header name, the case is ignored
+     * @return the first value of this response header or null if no header with a value
+     */
+    public String getResponseHeader(String name) {
+        if (mapResponseHeaders == null) {
+            mapResponseHeaders = createMapHeaders(harEntry.getResponse().getHeaders());
+        }
+        return firstValue(mapResponseHeaders.get(name));
+    }
+
+    /**
+     * @return the charset in the response Content-Type header, "UTF-8" by default
+     */
+    public String getResponseEncoding() {
+        if (responseEncoding == null) {
+            responseEncoding = "UTF-8";
+            String contentType = getResponseHeader("Content-Type");
+            if (contentType != null) {
+                String charset = StringUtils.substringAfter(contentType, "charset=");
+                if (charset != null) {
+                    responseEncoding = charset;
+                }
+            }
+        }
+        return responseEncoding;
+    }
+
+    /**
+     * @return the params extracted from the multipart post data text
+     */
+    public HarPostData getMultipartPostData() {
+        if (multipartPostData == null) {
+            multipartPostData = HarForJMeter.extractParamsFromMultiPart(harEntry.getRequest());
+        }
+        return multipartPostData;
+    }
+
+    // the header values by name (case ignored), the headers without value are not kept
+    private static Map<String, List<String>> createMapHeaders(List<HarHeader> lHeaders) {
+        Map<String, List<String>> mapHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (lHeaders != null) {
+            for (HarHeader header : lHeaders) {
+                String name = header.getName();
+                String value = header.getValue();
+                if (name == null || value == null) {
+                    continue;
+                }
+                List<String> lValues = mapHeaders.get(name);
+                if (lValues == null) {
+                    lValues = new ArrayList<>(1);
+                    mapHeaders.put(name, lValues);
+                }
+                lValues.add(value);
+            }
+        }
+        return mapHeaders;
+    }
+
+    private static List<String> valuesOrEmpty(List<String> lValues) {
+        if (lValues == null) {
+            return Collections.emptyList();
+        }
+        return lValues;
+    }
+
+    private static String firstValue(List<String> lValues) {
+        if (lValues == null || lValues.isEmpty()) {
+            return null;
+        }
+        return lValues.get(0);
+    }
+}
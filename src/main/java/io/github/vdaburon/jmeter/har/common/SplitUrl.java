@@ -0,0 +1,271 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.common;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A url split in scheme, host, port, path and query, the parts are offsets in the original url and the strings are created only when asked.
+ * For a valid url the values are the same as java.net.URI (getScheme, getHost, getPort, getPath and getQuery decoded),
+ * the split is lenient and never fails : the characters not allowed by URI (e.g: space, '|', '{', '}') are kept as is,
+ * a '%' not followed by 2 hexadecimal digits is not decoded, a not numeric port gives -1.
+ * A url with a scheme and no '/' after the ':' is opaque (e.g: "data:image/png;base64,iVBO"), no host, path or query like URI.
+ */
+public class SplitUrl {
+    private final String url;
+    private final int schemeEnd;  // -1 if no scheme
+    private final int hostStart;  // -1 if no host
+    private final int hostEnd;
+    private final int port;       // -1 if no port
+    private final int pathStart;  // -1 if opaque
+    private final int pathEnd;
+    private final int queryStart; // -1 if no query
+    private final int queryEnd;
+
+    private SplitUrl(String url, int schemeEnd, int hostStart, int hostEnd, int port, int pathStart, int pathEnd, int queryStart, int queryEnd) {
+        this.url = url;
+        this.schemeEnd = schemeEnd;
+        this.hostStart = hostStart;
+        this.hostEnd = hostEnd;
+        this.port = port;
+        this.pathStart = pathStart;
+        this.pathEnd = pathEnd;
+        this.queryStart = queryStart;
+        this.queryEnd = queryEnd;
+    }
+
+    /**
+     * Split the url, e.g: "https://www.example.com:8443/app/search?q=a%20b#top" gives scheme "https", host "www.example.com", port 8443, path "/app/search" and query "q=a b"
+     * @param url the url to split (absolute or relative)
+     * @return the url split
+     */
+    public static SplitUrl split(String url) {
+        int length = url.length();
+
+        // scheme, the characters before the first ':' if not after a '/', '?' or '#'
+        int schemeEnd = -1;
+        for (int i = 0; i < length; i++) {
+            char c = url.charAt(i);
+            if (c == ':') {
+                if (isScheme(url, i)) {
+                    schemeEnd = i;
+                }
+                break;
+            }
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+        }
+
+        int fragmentStart = url.indexOf('#', schemeEnd + 1);
+        int end = fragmentStart == -1 ? length : fragmentStart;
+        int pos = schemeEnd + 1;
+
+        if (schemeEnd != -1 && (pos >= length || url.charAt(pos) != '/')) {
+            // opaque url, e.g: data: or mailto:
+            return new SplitUrl(url, schemeEnd, -1, -1, -1, -1, -1, -1, -1);
+        }
+
+        // authority [userinfo@]host[:port]
+        int hostStart = -1;
+        int hostEnd = -1;
+        int port = -1;
+        if (pos + 1 < end && url.charAt(pos) == '/' && url.charAt(pos + 1) == '/') {
+            int authorityStart = pos + 2;
+            int authorityEnd = authorityStart;
+            while (authorityEnd < end) {
+                char c = url.charAt(authorityEnd);
+                if (c == '/' || c == '?') {
+                    break;
+                }
+                authorityEnd++;
+            }
+
+            int hostFrom = url.lastIndexOf('@', authorityEnd - 1);
+            hostFrom = hostFrom < authorityStart ? authorityStart : hostFrom + 1;
+            int hostTo = authorityEnd;
+            if (hostFrom < authorityEnd && url.charAt(hostFrom) == '[') {
+                int bracketEnd = url.indexOf(']', hostFrom);
+                if (bracketEnd != -1 && bracketEnd < authorityEnd) {
+                    hostTo = bracketEnd + 1; // IPv6 address with the brackets like URI
+                }
+            } else {
+                int colon = url.indexOf(':', hostFrom);
+                if (colon != -1 && colon < authorityEnd) {
+                    hostTo = colon;
+                }
+            }
+            if (hostTo < authorityEnd && url.charAt(hostTo) == ':') {
+                port = parsePort(url, hostTo + 1, authorityEnd);
+            }
+            if (hostTo > hostFrom) {
+                hostStart = hostFrom;
+                hostEnd = hostTo;
+            }
+            pos = authorityEnd;
+        }
+
+        // path then query
+        int queryMark = url.indexOf('?', pos);
+        if (queryMark >= end) {
+            queryMark = -1;
+        }
+        int pathEnd = queryMark == -1 ? end : queryMark;
+        int queryStart = queryMark == -1 ? -1 : queryMark + 1;
+        int queryEnd = queryMark == -1 ? -1 : end;
+
+        return new SplitUrl(url, schemeEnd, hostStart, hostEnd, port, pos, pathEnd, queryStart, queryEnd);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return the scheme, e.g: "https", null if no scheme
+     */
+    public String getScheme() {
+        return schemeEnd == -1 ? null : url.substring(0, schemeEnd);
+    }
+
+    /**
+     * @return the host, e.g: "www.example.com" or "[::1]", null if no host
+     */
+    public String getHost() {
+        return hostStart == -1 ? null : url.substring(hostStart, hostEnd);
+    }
+
+    /**
+     * @return the port in the url, -1 if no port
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return the decoded path, "" if no path, null if the url is opaque
+     */
+    public String getPath() {
+        return pathStart == -1 ? null : decode(url, pathStart, pathEnd);
+    }
+
+    /**
+     * @return the decoded query without the '?', null if no query
+     */
+    public String getQuery() {
+        return queryStart == -1 ? null : decode(url, queryStart, queryEnd);
+    }
+
+    public boolean isOpaque() {
+        return pathStart == -1;
+    }
+
+    /**
+     * @return the offset of the path (not decoded) in the url, -1 if the url is opaque
+     */
+    public int getPathStart() {
+        return pathStart;
+    }
+
+    /**
+     * @return the offset after the path (not decoded) in the url, -1 if the url is opaque
+     */
+    public int getPathEnd() {
+        return pathEnd;
+    }
+
+    // alpha *( alpha | digit | "+" | "-" | "." )
+    private static boolean isScheme(String url, int schemeEnd) {
+        if (schemeEnd == 0 || !isAsciiLetter(url.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < schemeEnd; i++) {
+            char c = url.charAt(i);
+            if (!isAsciiLetter(c) && !(c >= '0' && c <= '9') && c != '+' && c != '-' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static int parsePort(String url, int start, int end) {
+        if (start == end || end - start > 9) {
+            return -1;
+        }
+        int port = 0;
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            port = port * 10 + (c - '0');
+        }
+        return port;
+    }
+
+    // decode the %XX sequences as UTF-8 like URI, the text is returned as is when no '%'
+    private static String decode(String url, int start, int end) {
+        int percent = url.indexOf('%', start);
+        if (percent == -1 || percent >= end) {
+            return url.substring(start, end);
+        }
+
+        StringBuilder sb = new StringBuilder(end - start);
+        sb.append(url, start, percent);
+        ByteArrayOutputStream bytes = null;
+        int i = percent;
+        while (i < end) {
+            char c = url.charAt(i);
+            if (c == '%' && i + 2 < end && hexValue(url.charAt(i + 1)) != -1 && hexValue(url.charAt(i + 2)) != -1) {
+                if (bytes == null) {
+                    bytes = new ByteArrayOutputStream();
+                }
+                bytes.write((hexValue(url.charAt(i + 1)) << 4) | hexValue(url.charAt(i + 2)));
+                i += 3;
+                continue;
+            }
+            if (bytes != null && bytes.size() > 0) {
+                sb.append(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+                bytes.reset();
+            }
+            sb.append(c);
+            i++;
+        }
+        if (bytes != null && bytes.size() > 0) {
+            sb.append(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
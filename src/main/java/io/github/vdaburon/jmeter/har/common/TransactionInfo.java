@@ -16,12 +16,24 @@
 
 package io.github.vdaburon.jmeter.har.common;
 
+import io.github.vdaburon.jmeter.har.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
+/**
+ * A transaction from the LoadRunner Web Recorder _transactions or from the external csv file, the begin and the end are in epoch microseconds (parsed once)
+ * The parent is the transaction containing this transaction (nested transactions), see TransactionInfoBuilder
+ */
 public class TransactionInfo {
+    public static final long K_FAR_FUTURE_TIME_MICROS = 2650875010001000L; // 2054-01-01T10:10:10.001Z
+
     private String name;
-    private String beginDateTime;
-    private String endDateTime = "2054-01-01T10:10:10.001Z"; // a far futur date by default for transaction with start but no stop
+    private long beginTimeMicros;
+    private long endTimeMicros = K_FAR_FUTURE_TIME_MICROS; // a far futur date by default for transaction with start but no stop
+    private TransactionInfo parent = null; // null for a top level transaction
 
     public String getName() {
         return name;
@@ -30,27 +42,95 @@ public class TransactionInfo {
         this.name = name;
     }
 
+    /**
+     * @return the begin in microseconds since 1970-01-01T00:00:00Z
+     */
+    public long getBeginTimeMicros() {
+        return beginTimeMicros;
+    }
+    public void setBeginTimeMicros(long beginTimeMicros) {
+        this.beginTimeMicros = beginTimeMicros;
+    }
+
+    /**
+     * @return the end in microseconds since 1970-01-01T00:00:00Z, K_FAR_FUTURE_TIME_MICROS if no stop
+     */
+    public long getEndTimeMicros() {
+        return endTimeMicros;
+    }
+    public void setEndTimeMicros(long endTimeMicros) {
+        this.endTimeMicros = endTimeMicros;
+    }
+
+    /**
+     * @return the transaction containing this transaction, null for a top level transaction
+     */
+    public TransactionInfo getParent() {
+        return parent;
+    }
+    public void setParent(TransactionInfo parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * @return the transactions from the top level transaction to this transaction (included)
+     */
+    public List<TransactionInfo> getListPath() {
+        List<TransactionInfo> listPath = new ArrayList<>();
+        for (TransactionInfo transactionInfo = this; transactionInfo != null; transactionInfo = transactionInfo.parent) {
+            listPath.add(transactionInfo);
+        }
+        Collections.reverse(listPath);
+        return listPath;
+    }
+
+    /**
+     * @return the begin in ISO format with milliseconds, e.g: 2024-05-03T14:30:42.271Z
+     * @deprecated the begin is in epoch microseconds, use getBeginTimeMicros()
+     */
+    @Deprecated
     public String getBeginDateTime() {
-        return beginDateTime;
+        return Utils.epochMicrosToIsoFormat(beginTimeMicros);
     }
+
+    /**
+     * @param beginDateTime the begin in ISO format, e.g: 2024-05-03T14:30:42.271Z
+     * @throws java.time.format.DateTimeParseException the begin is not a valid ISO date time
+     * @deprecated the begin is in epoch microseconds, use setBeginTimeMicros(long)
+     */
+    @Deprecated
     public void setBeginDateTime(String beginDateTime) {
-        this.beginDateTime = beginDateTime;
+        this.beginTimeMicros = Utils.isoDateTimeToEpochMicros(beginDateTime);
     }
 
+    /**
+     * @return the end in ISO format with milliseconds, e.g: 2024-05-03T14:30:42.271Z
+     * @deprecated the end is in epoch microseconds, use getEndTimeMicros()
+     */
+    @Deprecated
     public String getEndDateTime() {
-        return endDateTime;
+        return Utils.epochMicrosToIsoFormat(endTimeMicros);
     }
+
+    /**
+     * @param endDateTime the end in ISO format, e.g: 2024-05-03T14:30:42.271Z
+     * @throws java.time.format.DateTimeParseException the end is not a valid ISO date time
+     * @deprecated the end is in epoch microseconds, use setEndTimeMicros(long)
+     */
+    @Deprecated
     public void setEndDateTime(String endDateTime) {
-        this.endDateTime = endDateTime;
+        this.endTimeMicros = Utils.isoDateTimeToEpochMicros(endDateTime);
     }
 
-
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("TransactionInfo{");
         sb.append("name='").append(name).append('\'');
-        sb.append(", beginDateTime='").append(beginDateTime).append('\'');
-        sb.append(", endDateTime='").append(endDateTime).append('\'');
+        sb.append(", beginDateTime='").append(Utils.epochMicrosToIsoFormat(beginTimeMicros)).append('\'');
+        sb.append(", endDateTime='").append(Utils.epochMicrosToIsoFormat(endTimeMicros)).append('\'');
+        if (parent != null) {
+            sb.append(", parent='").append(parent.getName()).append('\'');
+        }
         sb.append('}');
         return sb.toString();
     }
@@ -64,11 +144,11 @@ public class TransactionInfo {
             return false;
         }
         TransactionInfo that = (TransactionInfo) o;
-        return Objects.equals(name, that.name) && Objects.equals(beginDateTime, that.beginDateTime) && Objects.equals(endDateTime, that.endDateTime);
+        return Objects.equals(name, that.name) && beginTimeMicros == that.beginTimeMicros && endTimeMicros == that.endTimeMicros;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, beginDateTime, endDateTime);
+        return Objects.hash(name, beginTimeMicros, endTimeMicros);
     }
 }
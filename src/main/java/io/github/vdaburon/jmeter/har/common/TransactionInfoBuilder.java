@@ -0,0 +1,116 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.common;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Create the list of TransactionInfo and the tree of the transactions from the start and stop events,
+ * used for the LoadRunner Web Recorder _transactions and for the external csv file.
+ * <ul>
+ * <li>a stop closes the last transaction started with the same name and not yet stopped (a stack by name), each event is O(1) in any stop order</li>
+ * <li>the parent of a transaction is the innermost transaction whose [begin, end] contains its [begin, end] (the latest begin, then the earliest end)</li>
+ * <li>two overlapping transactions without containment are not nested, a transaction without stop is never a parent and has no parent</li>
+ * </ul>
+ * The tree is computed by getListTransactionInfo() once all the events are given, a sort and a stack (O(T log T)).
+ */
+public class TransactionInfoBuilder {
+    private final List<TransactionInfo> listTransactionInfo = new ArrayList<>();
+    private final HashMap<String, ArrayDeque<TransactionInfo>> mapOpenTransactionsByName = new HashMap<>(); // the last started on the top
+    private boolean isTreeComputed = true;
+
+    /**
+     * A transaction starts
+     * @param name the transaction name
+     * @param timeMicros the start in microseconds since 1970-01-01T00:00:00Z
+     * @return the new TransactionInfo, the end is TransactionInfo.K_FAR_FUTURE_TIME_MICROS until the stop
+     */
+    public TransactionInfo start(String name, long timeMicros) {
+        TransactionInfo transactionInfo = new TransactionInfo();
+        transactionInfo.setName(name);
+        transactionInfo.setBeginTimeMicros(timeMicros);
+        listTransactionInfo.add(transactionInfo);
+        mapOpenTransactionsByName.computeIfAbsent(name, k -> new ArrayDeque<>()).push(transactionInfo);
+        isTreeComputed = false;
+        return transactionInfo;
+    }
+
+    /**
+     * A transaction stops
+     * @param name the transaction name
+     * @param timeMicros the end in microseconds since 1970-01-01T00:00:00Z
+     * @return true if a transaction with this name was open, false if this stop has no start
+     */
+    public boolean stop(String name, long timeMicros) {
+        ArrayDeque<TransactionInfo> stackOpenTransactions = mapOpenTransactionsByName.get(name);
+        if (stackOpenTransactions == null || stackOpenTransactions.isEmpty()) {
+            return false;
+        }
+        stackOpenTransactions.pop().setEndTimeMicros(timeMicros);
+        isTreeComputed = false;
+        return true;
+    }
+
+    /**
+     * @return the transactions in the order of the start, with their parent
+     */
+    public List<TransactionInfo> getListTransactionInfo() {
+        if (!isTreeComputed) {
+            computeParents();
+            isTreeComputed = true;
+        }
+        return listTransactionInfo;
+    }
+
+    // the transactions stopped sorted by begin, then the largest first (the container before the contained), then the order of the start
+    private void computeParents() {
+        Set<TransactionInfo> setOpen = Collections.newSetFromMap(new IdentityHashMap<>()); // TransactionInfo.equals compares the values
+        for (ArrayDeque<TransactionInfo> stackOpenTransactions : mapOpenTransactionsByName.values()) {
+            setOpen.addAll(stackOpenTransactions);
+        }
+        List<TransactionInfo> listStopped = new ArrayList<>(listTransactionInfo.size());
+        for (int i = 0; i < listTransactionInfo.size(); i++) {
+            TransactionInfo transactionInfo = listTransactionInfo.get(i);
+            transactionInfo.setParent(null);
+            if (!setOpen.contains(transactionInfo)) {
+                listStopped.add(transactionInfo);
+            }
+        }
+        listStopped.sort((t1, t2) -> {
+            int compare = Long.compare(t1.getBeginTimeMicros(), t2.getBeginTimeMicros());
+            return (compare != 0 ? compare : Long.compare(t2.getEndTimeMicros(), t1.getEndTimeMicros())); // stable sort, the order of the start for the same interval
+        });
+
+        // the stack holds the containers of the current transaction, the innermost on the top.
+        // A transaction removed because it ends before the current one can't contain a next transaction that the current one doesn't contain
+        ArrayDeque<TransactionInfo> stackContainers = new ArrayDeque<>();
+        for (int i = 0; i < listStopped.size(); i++) {
+            TransactionInfo transactionInfo = listStopped.get(i);
+            while (!stackContainers.isEmpty() && stackContainers.peek().getEndTimeMicros() < transactionInfo.getEndTimeMicros()) {
+                stackContainers.pop();
+            }
+            transactionInfo.setParent(stackContainers.peek()); // null for a top level transaction
+            stackContainers.push(transactionInfo);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The TransactionInfo list indexed once to find the transaction around a time in O(log T) instead of a scan of the whole list.
+ * The begin and end times cut the time line in elementary segments (a time of the list or the interval between 2 consecutive times),
+ * the transaction of each segment is computed once with a sweep of the time line.
+ * The result is the same as the scan of the list : the last TransactionInfo of the list with begin &lt;= time &lt;= end.
+ * The index is read only after the creation and shared by the threads creating the pages.
+ */
+public class TransactionInfoIndex {
+    private final List<TransactionInfo> listTransactionInfo;
+    private final long[] tabTimesMicros; // the distinct begin and end times sorted
+    private final int[] tabIndexAtTime; // the index in the list of the transaction at tabTimesMicros[k], -1 for none
+    private final int[] tabIndexAfterTime; // the index in the list of the transaction between tabTimesMicros[k] and tabTimesMicros[k + 1], -1 for none
+
+    /**
+     * Index the transactions
+     * @param listTransactionInfo the list of TransactionInfo (the order of the list is kept, the last transaction wins when transactions overlap)
+     */
+    public TransactionInfoIndex(List<TransactionInfo> listTransactionInfo) {
+        this.listTransactionInfo = listTransactionInfo;
+
+        int nbTransactions = listTransactionInfo.size();
+        long[] tabTimesAll = new long[nbTransactions * 2];
+        List<Integer> listIndexByBegin = new ArrayList<>(nbTransactions);
+        for (int i = 0; i < nbTransactions; i++) {
+            TransactionInfo transactionInfo = listTransactionInfo.get(i);
+            tabTimesAll[2 * i] = transactionInfo.getBeginTimeMicros();
+            tabTimesAll[2 * i + 1] = transactionInfo.getEndTimeMicros();
+            listIndexByBegin.add(i);
+        }
+        listIndexByBegin.sort((i1, i2) -> Long.compare(listTransactionInfo.get(i1).getBeginTimeMicros(), listTransactionInfo.get(i2).getBeginTimeMicros()));
+
+        // the distinct times
+        Arrays.sort(tabTimesAll);
+        int nbTimes = 0;
+        for (int i = 0; i < tabTimesAll.length; i++) {
+            if (nbTimes == 0 || tabTimesAll[i] != tabTimesAll[nbTimes - 1]) {
+                tabTimesAll[nbTimes++] = tabTimesAll[i];
+            }
+        }
+        tabTimesMicros = Arrays.copyOf(tabTimesAll, nbTimes);
+        tabIndexAtTime = new int[nbTimes];
+        tabIndexAfterTime = new int[nbTimes];
+
+        // the transactions begun, the last of the list on the top, the transactions ended are removed when they reach the top
+        PriorityQueue<Integer> queueBegun = new PriorityQueue<>(Math.max(1, listIndexByBegin.size()), Collections.reverseOrder());
+        int nextByBegin = 0;
+        for (int k = 0; k < nbTimes; k++) {
+            long timeMicros = tabTimesMicros[k];
+            while (nextByBegin < nbTransactions && listTransactionInfo.get(listIndexByBegin.get(nextByBegin)).getBeginTimeMicros() == timeMicros) {
+                queueBegun.add(listIndexByBegin.get(nextByBegin));
+                nextByBegin++;
+            }
+            // at the time : end >= time
+            while (!queueBegun.isEmpty() && listTransactionInfo.get(queueBegun.peek()).getEndTimeMicros() < timeMicros) {
+                queueBegun.poll();
+            }
+            tabIndexAtTime[k] = queueBegun.isEmpty() ? -1 : queueBegun.peek();
+
+            // after the time : end > time
+            while (!queueBegun.isEmpty() && listTransactionInfo.get(queueBegun.peek()).getEndTimeMicros() <= timeMicros) {
+                queueBegun.poll();
+            }
+            tabIndexAfterTime[k] = queueBegun.isEmpty() ? -1 : queueBegun.peek();
+        }
+    }
+
+    /**
+     * Get the last TransactionInfo of the list when the parameter startedTimeMicros is between begin and end
+     * @param startedTimeMicros the time to search the corresponding TransactionInfo (microseconds since 1970-01-01T00:00:00Z)
+     * @return the TransactionInfo or null if no transaction around this time
+     */
+    public TransactionInfo getTransactionInfoAroundTime(long startedTimeMicros) {
+        int k = Arrays.binarySearch(tabTimesMicros, startedTimeMicros);
+        int index;
+        if (k >= 0) {
+            index = tabIndexAtTime[k];
+        } else {
+            int insertionPoint = -k - 1;
+            index = (insertionPoint == 0 ? -1 : tabIndexAfterTime[insertionPoint - 1]);
+        }
+        return (index == -1 ? null : listTransactionInfo.get(index));
+    }
+
+    public List<TransactionInfo> getListTransactionInfo() {
+        return listTransactionInfo;
+    }
+}
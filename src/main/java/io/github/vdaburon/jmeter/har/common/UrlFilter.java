@@ -0,0 +1,250 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The url filters of the JMeter script and the Record.xml, compiled once and shared by the two generators (read only, thread safe).
+ * An url is kept when it matches one include rule (or no include rule) and no exclude rule.
+ * The filter text (filter_include or filter_exclude) contains one rule or several rules separated by a new line:
+ * <ul>
+ * <li>host:www.example.com,*.example.org the hosts (case ignored), *.example.org is a sub domain of example.org, answered with a hash lookup</li>
+ * <li>path:/api/,/static/ the path prefixes (path not decoded), answered with a prefix tree</li>
+ * <li>regex:https://www.example.com/.* or a text without prefix, a regular expression found in the url (same as the previous versions)</li>
+ * </ul>
+ * The host and path rules are evaluated before the regular expressions.
+ */
+public class UrlFilter {
+    public static final String K_RULE_HOST = "host:";
+    public static final String K_RULE_PATH = "path:";
+    public static final String K_RULE_REGEX = "regex:";
+    public static final String K_RULES_SEPARATOR = "\n";
+    private static final String K_VALUES_SEPARATOR = ",";
+    private static final String K_SUB_DOMAIN = "*.";
+
+    private final Rules includeRules;
+    private final Rules excludeRules;
+
+    private UrlFilter(Rules includeRules, Rules excludeRules) {
+        this.includeRules = includeRules;
+        this.excludeRules = excludeRules;
+    }
+
+    /**
+     * Compile the include and exclude filters
+     * @param urlFilterToInclude the include rules separated by a new line, empty for no include filter
+     * @param urlFilterToExclude the exclude rules separated by a new line, empty for no exclude filter
+     * @return the filter
+     * @throws java.util.regex.PatternSyntaxException a regular expression is incorrect
+     */
+    public static UrlFilter create(String urlFilterToInclude, String urlFilterToExclude) {
+        return create(splitRules(urlFilterToInclude), splitRules(urlFilterToExclude));
+    }
+
+    /**
+     * Compile the include and exclude rules
+     * @param listIncludeRules the include rules (host:, path:, regex: or a regular expression)
+     * @param listExcludeRules the exclude rules (host:, path:, regex: or a regular expression)
+     * @return the filter
+     * @throws java.util.regex.PatternSyntaxException a regular expression is incorrect
+     */
+    public static UrlFilter create(List<String> listIncludeRules, List<String> listExcludeRules) {
+        return new UrlFilter(new Rules(listIncludeRules), new Rules(listExcludeRules));
+    }
+
+    /**
+     * @param url the request url
+     * @return true if the url matches an include rule (or no include rule) and no exclude rule
+     */
+    public boolean isUrlKept(String url) {
+        if (includeRules.isEmpty() && excludeRules.isEmpty()) {
+            return true;
+        }
+        SplitUrl splitUrl = null;
+        if (includeRules.isNeedSplitUrl() || excludeRules.isNeedSplitUrl()) {
+            splitUrl = SplitUrl.split(url);
+        }
+        if (!includeRules.isEmpty() && !includeRules.matches(url, splitUrl)) {
+            return false;
+        }
+        return excludeRules.isEmpty() || !excludeRules.matches(url, splitUrl);
+    }
+
+    public boolean isNoFilter() {
+        return includeRules.isEmpty() && excludeRules.isEmpty();
+    }
+
+    private static List<String> splitRules(String filter) {
+        List<String> listRules = new ArrayList<>();
+        if (filter != null && !filter.isEmpty()) {
+            for (String rule : filter.split(K_RULES_SEPARATOR)) {
+                if (!rule.isEmpty()) {
+                    listRules.add(rule);
+                }
+            }
+        }
+        return listRules;
+    }
+
+    // the include or the exclude rules
+    private static class Rules {
+        private final Set<String> setHosts = new HashSet<>();
+        private final Set<String> setParentDomains = new HashSet<>(); // example.org for *.example.org
+        private final PathPrefixTree pathPrefixTree = new PathPrefixTree();
+        private final List<Pattern> listPatterns = new ArrayList<>();
+
+        Rules(List<String> listRules) {
+            for (String rule : listRules) {
+                if (rule.startsWith(K_RULE_HOST)) {
+                    for (String host : splitValues(rule.substring(K_RULE_HOST.length()))) {
+                        host = host.toLowerCase(Locale.ROOT);
+                        if (host.startsWith(K_SUB_DOMAIN)) {
+                            setParentDomains.add(host.substring(K_SUB_DOMAIN.length()));
+                        } else {
+                            setHosts.add(host);
+                        }
+                    }
+                } else if (rule.startsWith(K_RULE_PATH)) {
+                    for (String pathPrefix : splitValues(rule.substring(K_RULE_PATH.length()))) {
+                        pathPrefixTree.add(pathPrefix);
+                    }
+                } else if (rule.startsWith(K_RULE_REGEX)) {
+                    listPatterns.add(Pattern.compile(rule.substring(K_RULE_REGEX.length())));
+                } else {
+                    listPatterns.add(Pattern.compile(rule));
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return !isNeedSplitUrl() && listPatterns.isEmpty();
+        }
+
+        boolean isNeedSplitUrl() {
+            return !setHosts.isEmpty() || !setParentDomains.isEmpty() || !pathPrefixTree.isEmpty();
+        }
+
+        boolean matches(String url, SplitUrl splitUrl) {
+            if (!setHosts.isEmpty() || !setParentDomains.isEmpty()) {
+                String host = splitUrl.getHost();
+                if (host != null && isHostMatches(host.toLowerCase(Locale.ROOT))) {
+                    return true;
+                }
+            }
+            if (!pathPrefixTree.isEmpty() && !splitUrl.isOpaque() && pathPrefixTree.isPrefixOf(url, splitUrl.getPathStart(), splitUrl.getPathEnd())) {
+                return true;
+            }
+            for (Pattern pattern : listPatterns) {
+                if (pattern.matcher(url).find()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isHostMatches(String host) {
+            if (setHosts.contains(host)) {
+                return true;
+            }
+            if (!setParentDomains.isEmpty()) {
+                int dot = host.indexOf('.');
+                while (dot != -1) {
+                    if (setParentDomains.contains(host.substring(dot + 1))) {
+                        return true;
+                    }
+                    dot = host.indexOf('.', dot + 1);
+                }
+            }
+            return false;
+        }
+
+        private static List<String> splitValues(String values) {
+            List<String> listValues = new ArrayList<>();
+            for (String value : values.split(K_VALUES_SEPARATOR)) {
+                value = value.trim();
+                if (!value.isEmpty()) {
+                    listValues.add(value);
+                }
+            }
+            return listValues;
+        }
+    }
+
+    // a prefix tree of the path prefixes, one node by character
+    private static class PathPrefixTree {
+        private char[] chars = new char[0];
+        private PathPrefixTree[] children = new PathPrefixTree[0];
+        private boolean isPrefixEnd = false;
+        private boolean isEmpty = true;
+
+        void add(String prefix) {
+            isEmpty = false;
+            PathPrefixTree node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                char c = prefix.charAt(i);
+                PathPrefixTree child = node.child(c);
+                if (child == null) {
+                    child = new PathPrefixTree();
+                    child.isEmpty = false;
+                    node.chars = Arrays.copyOf(node.chars, node.chars.length + 1);
+                    node.children = Arrays.copyOf(node.children, node.children.length + 1);
+                    node.chars[node.chars.length - 1] = c;
+                    node.children[node.children.length - 1] = child;
+                }
+                node = child;
+            }
+            node.isPrefixEnd = true;
+        }
+
+        boolean isEmpty() {
+            return isEmpty;
+        }
+
+        // is a prefix of the tree at the start of text[start, end[ ?
+        boolean isPrefixOf(String text, int start, int end) {
+            PathPrefixTree node = this;
+            for (int i = start; ; i++) {
+                if (node.isPrefixEnd) {
+                    return true;
+                }
+                if (i >= end) {
+                    return false;
+                }
+                node = node.child(text.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+            }
+        }
+
+        private PathPrefixTree child(char c) {
+            for (int i = 0; i < chars.length; i++) {
+                if (chars[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -18,17 +18,16 @@ package io.github.vdaburon.jmeter.har.external;
 
 import io.github.vdaburon.jmeter.har.Utils;
 import io.github.vdaburon.jmeter.har.common.TransactionInfo;
+import io.github.vdaburon.jmeter.har.common.TransactionInfoBuilder;
 
 import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.security.InvalidParameterException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Date;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -43,14 +42,18 @@ public class ManageExternalFile {
     public static final String K_TYPE_STOP = "stop";
 
     public static final String K_FILE_IN_SEP = ";";
+    private static final char K_FILE_IN_SEP_CHAR = ';';
+    private static final int K_NB_FIELDS = 4; // TIME_STAMP;ELEMENT;NAME;TYPE
+    private static final int K_READ_BUFFER_SIZE = 1024 * 1024; // the marker files can have hundreds of thousands of lines
     public static final String K_FILE_IN_DEFAULT_CHARSET = "UTF-8";
 
     private static final Logger LOGGER = Logger.getLogger(ManageExternalFile.class.getName());
 
     /**
-     * Read the csv file with transaction infos
+     * Read the csv file with transaction infos in one pass, a stop closes the last transaction started with the same name and not yet stopped,
+     * the nested transactions keep their parent (TransactionInfo.getParent())
      * @param fileName the csv file to read and parse, e.g. one line : 2024-05-07T07:56:40.513Z;TRANSACTION;home_page;start
-     * @return a list of TransactionInfo
+     * @return a list of TransactionInfo in the order of the start lines
      */
     public static List<TransactionInfo> createListTransactionInfo(String fileName) {
         LOGGER.info("Read external file: " + fileName);
@@ -65,79 +68,95 @@ public class ManageExternalFile {
         2024-05-07T07:57:08.679Z;TRANSACTION;bt_authent;start
         2024-05-07T07:57:10.123Z;COMMENT;user toto;
         */
-        ArrayList<TransactionInfo> listTransactionInfo = new ArrayList();
+        TransactionInfoBuilder transactionInfoBuilder = new TransactionInfoBuilder();
+        int[] tabFieldStart = new int[K_NB_FIELDS];
+        int[] tabFieldEnd = new int[K_NB_FIELDS];
+        int nbLines = 0;
 
-        BufferedReader in = null;
-        try {
-            File file = new File(fileName);
-            FileInputStream fis = new FileInputStream(file);
-            InputStreamReader isr = new InputStreamReader(fis, Charset.forName(K_FILE_IN_DEFAULT_CHARSET));
-
-            in = new BufferedReader(isr);
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(Files.newInputStream(Paths.get(fileName)), Charset.forName(K_FILE_IN_DEFAULT_CHARSET)), K_READ_BUFFER_SIZE)) {
             String line = null;
             while ((line = in.readLine()) != null) {
+                nbLines++;
                 // TIME_STAMP;ELEMENT;NAME;TYPE
-                List<String> items = Arrays.asList(line.split(K_FILE_IN_SEP));
-                if (items.size() != 4) {
+                if (!splitFields(line, tabFieldStart, tabFieldEnd)) {
+                    continue;
+                }
+
+                if (!isFieldEquals(line, tabFieldStart[1], tabFieldEnd[1], K_ELEMENT_TRANSACTION)) {
                     continue;
                 }
 
-                String dateTimestamp = items.get(0);
-                String element = items.get(1);
-                String name = items.get(2);
-                if (!name.isEmpty()) {
-                    name = name.trim();
+                // the timestamp is parsed once, the transactions are compared with the epoch in microseconds
+                long timeMicros;
+                try {
+                    timeMicros = Utils.isoDateTimeToEpochMicros(line, tabFieldStart[0], tabFieldEnd[0]);
+                } catch (DateTimeParseException e) {
+                    LOGGER.warning("Line ignored, the timestamp is not a valid date time : " + line);
+                    continue;
                 }
-                String type = items.get(3);
-                if (!type.isEmpty()) {
-                    type = type.trim();
+                String name = line.substring(tabFieldStart[2], tabFieldEnd[2]).trim();
+                int typeStart = tabFieldStart[3];
+                int typeEnd = tabFieldEnd[3];
+                while (typeStart < typeEnd && line.charAt(typeStart) <= ' ') {
+                    typeStart++;
+                }
+                while (typeEnd > typeStart && line.charAt(typeEnd - 1) <= ' ') {
+                    typeEnd--;
                 }
 
-                if (K_ELEMENT_TRANSACTION.equals(element)) {
-
-                    if (K_TYPE_START.equals(type)) {
-                        TransactionInfo transactionInfo = new TransactionInfo();
-                        transactionInfo.setName(name);
-                        transactionInfo.setBeginDateTime(dateTimestamp);
-                        listTransactionInfo.add(transactionInfo);
-                    } else if (K_TYPE_STOP.equals(type)) {
-                        for (int j = listTransactionInfo.size() -1 ; j >= 0; j--) {
-                            TransactionInfo transactionInfoInter = listTransactionInfo.get(j);
-                            if (transactionInfoInter.getName().equals(name)) {
-                                transactionInfoInter.setEndDateTime(dateTimestamp);
-                                listTransactionInfo.set(j,transactionInfoInter);
-                                break;
-                            }
-                        }
+                if (isFieldEquals(line, typeStart, typeEnd, K_TYPE_START)) {
+                    transactionInfoBuilder.start(name, timeMicros);
+                } else if (isFieldEquals(line, typeStart, typeEnd, K_TYPE_STOP)) {
+                    if (!transactionInfoBuilder.stop(name, timeMicros)) {
+                        LOGGER.fine("Stop without start ignored : " + line);
                     }
                 }
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
-        } finally {
-            if (in != null) {
-                try {
-                    in.close();
-                } catch (IOException e) {
-                    // silent closing
-                }
-            }
         }
 
-        // verify not null for begin date or end date to avoid future exception
-        for (int i = 0; i < listTransactionInfo.size(); i++) {
-            TransactionInfo transactionInfoInter = listTransactionInfo.get(i);
-            if (transactionInfoInter.getBeginDateTime() == null) {
-                transactionInfoInter.setBeginDateTime(Utils.dateToIsoFormat(new Date()));
-                listTransactionInfo.set(i,transactionInfoInter);
-            }
+        List<TransactionInfo> listTransactionInfo = transactionInfoBuilder.getListTransactionInfo();
+        LOGGER.info("External infos : " + nbLines + " lines, " + listTransactionInfo.size() + " transactions");
+        LOGGER.fine("External infos : " + listTransactionInfo);
+        return listTransactionInfo;
+    }
 
-            if (transactionInfoInter.getEndDateTime() == null) {
-                transactionInfoInter.setEndDateTime(transactionInfoInter.getBeginDateTime());
-                listTransactionInfo.set(i,transactionInfoInter);
+    /**
+     * Find the 4 fields of a line without regular expression, same rule as line.split(K_FILE_IN_SEP) with 4 items :
+     * the empty fields at the end are ignored so the 4th field must be not empty
+     * @param line the line to split
+     * @param tabFieldStart the start of each field (output)
+     * @param tabFieldEnd the end (exclusive) of each field (output)
+     * @return true if the line contains 4 fields
+     */
+    private static boolean splitFields(String line, int[] tabFieldStart, int[] tabFieldEnd) {
+        int start = 0;
+        for (int f = 0; f < K_NB_FIELDS; f++) {
+            int sep = line.indexOf(K_FILE_IN_SEP_CHAR, start);
+            if (sep == -1) {
+                if (f < K_NB_FIELDS - 1) {
+                    return false;
+                }
+                sep = line.length();
             }
+            tabFieldStart[f] = start;
+            tabFieldEnd[f] = sep;
+            start = sep + 1;
         }
-        LOGGER.info("External infos : " + listTransactionInfo);
-        return listTransactionInfo;
+        if (tabFieldStart[K_NB_FIELDS - 1] == tabFieldEnd[K_NB_FIELDS - 1]) {
+            return false;
+        }
+        // only empty fields after the 4th field
+        for (int i = tabFieldEnd[K_NB_FIELDS - 1]; i < line.length(); i++) {
+            if (line.charAt(i) != K_FILE_IN_SEP_CHAR) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isFieldEquals(String line, int start, int end, String value) {
+        return end - start == value.length() && line.startsWith(value, start);
     }
 }
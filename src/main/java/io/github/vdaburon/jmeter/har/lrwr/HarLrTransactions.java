@@ -16,6 +16,9 @@
 
 package io.github.vdaburon.jmeter.har.lrwr;
 
+import io.github.vdaburon.jmeter.har.Utils;
+
+import java.time.format.DateTimeParseException;
 import java.util.Objects;
 
 public class HarLrTransactions {
@@ -48,8 +51,10 @@ public class HarLrTransactions {
 
     public static final String K_TYPE_START = "start";
     public static final String K_TYPE_STOP = "stop";
+    public static final long K_TIME_UNKNOWN = Long.MIN_VALUE; // the startedDateTime is missing or not an ISO date time
 
     private String startedDateTime;
+    private long startedTimeMicros = K_TIME_UNKNOWN;
     private String name;
     private String type; // start or stop
 
@@ -57,8 +62,27 @@ public class HarLrTransactions {
         return startedDateTime;
     }
 
+    /**
+     * Set the startedDateTime and parse it once in epoch microseconds
+     * @param startedDateTime the date time in ISO 8601 format, e.g. 2024-05-03T14:37:35.794Z
+     */
     public void setStartedDateTime(String startedDateTime) {
         this.startedDateTime = startedDateTime;
+        this.startedTimeMicros = K_TIME_UNKNOWN;
+        if (startedDateTime != null) {
+            try {
+                this.startedTimeMicros = Utils.isoDateTimeToEpochMicros(startedDateTime);
+            } catch (DateTimeParseException e) {
+                // K_TIME_UNKNOWN
+            }
+        }
+    }
+
+    /**
+     * @return the startedDateTime in microseconds since 1970-01-01T00:00:00Z, K_TIME_UNKNOWN if missing or not an ISO date time
+     */
+    public long getStartedTimeMicros() {
+        return startedTimeMicros;
     }
 
     /**
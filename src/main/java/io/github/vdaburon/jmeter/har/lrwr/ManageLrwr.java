@@ -16,19 +16,23 @@
 
 package io.github.vdaburon.jmeter.har.lrwr;
 
-import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.JsonPath;
+import com.fasterxml.jackson.databind.JsonNode;
 
+import de.sstoehr.harreader.HarReaderException;
+import de.sstoehr.harreader.model.Har;
+import io.github.vdaburon.jmeter.har.Utils;
 import io.github.vdaburon.jmeter.har.common.TransactionInfo;
+import io.github.vdaburon.jmeter.har.common.TransactionInfoBuilder;
+import io.github.vdaburon.jmeter.har.common.TransactionInfoIndex;
+import io.github.vdaburon.jmeter.har.stream.HarStreamReader;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.security.InvalidParameterException;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -52,6 +56,20 @@ public class ManageLrwr {
         return isContainsLrTransactions;
     }
 
+    /**
+     * It is a HAR generated with LoadRunner Web Recorder and contains an array of _transactions ? The har is already parsed, no new read of the file
+     * @param har the har already loaded with the HarReader, the _transactions array is kept in the additional fields of the log
+     * @return true if contains an array of _transactions else false if no _transaction or empty array
+     */
+    public static boolean isHarContainsLrwr(Har har) {
+        boolean isContainsLrTransactions = false;
+        List listHarLrTransactions = getListTransactionLrwr(har);
+        if (listHarLrTransactions != null && listHarLrTransactions.size() > 0) {
+            isContainsLrTransactions = true;
+        }
+        return isContainsLrTransactions;
+    }
+
     /**
      * Get the list of HarLrTransaction, usually call the isHarContainsLrwr before and if the result is true call this method
      * @param harIn the har file that could be generated with the LoadRunner Web Recorder
@@ -60,54 +78,77 @@ public class ManageLrwr {
     public static  List<HarLrTransactions> getListTransactionLrwr(String harIn) {
         List<HarLrTransactions> listHarLrTransactions = null;
 
-        File fileHarIn = new File(harIn);
-        FileInputStream fis = null;
-        try {
-            fis = new FileInputStream(fileHarIn);
-        } catch (FileNotFoundException e) {
+        if (!new File(harIn).isFile()) {
             return listHarLrTransactions;
         }
 
-        Object document = Configuration.defaultConfiguration().jsonProvider().parse(fis,"UTF-8");
-
-        //String version = JsonPath.read(document, "$.log.version");
-        //System.out.println("version=" + version);
-
+        // only the log._transactions array is read, the entries are skipped by the json parser without creating objects
+        JsonNode jsonArray;
         try {
-            ArrayList jsonArray = JsonPath.read(document, "$.log._transactions[*]");
-            LOGGER.fine("jsonArray.size=" + jsonArray.size());
-
-            listHarLrTransactions = new ArrayList() ;
-
-            for (int i = 0; i < jsonArray.size(); i++) {
-                // transforme the JSON array of LinkedHashMap to a List of HarLrTransactions
-                LinkedHashMap lhm = (LinkedHashMap) jsonArray.get(i);
-                LOGGER.fine("lhm=" +lhm);
-                HarLrTransactions harLrTransactions = new HarLrTransactions();
-                harLrTransactions.setName((String) lhm.get("name"));
-                String sType = (String) lhm.get("type");
-                harLrTransactions.setType(sType);
-                harLrTransactions.setStartedDateTime((String) lhm.get("startedDateTime"));
-                listHarLrTransactions.add(harLrTransactions);
-            }
+            jsonArray = new HarStreamReader(harIn).readLogField("_transactions");
+        } catch (HarReaderException e) {
+            LOGGER.warning("Can't read the _transactions in the file : " + harIn + ", exception : " + e);
+            return listHarLrTransactions;
+        }
+        if (jsonArray == null || !jsonArray.isArray()) {
+            // no _transactions
+            return listHarLrTransactions;
+        }
+        LOGGER.fine("jsonArray.size=" + jsonArray.size());
+
+        listHarLrTransactions = new ArrayList();
+        for (int i = 0; i < jsonArray.size(); i++) {
+            // transforme the JSON array of ObjectNode to a List of HarLrTransactions
+            JsonNode node = jsonArray.get(i);
+            LOGGER.fine("node=" + node);
+            HarLrTransactions harLrTransactions = new HarLrTransactions();
+            harLrTransactions.setName(node.path("name").textValue());
+            String sType = node.path("type").textValue();
+            harLrTransactions.setType(sType);
+            harLrTransactions.setStartedDateTime(node.path("startedDateTime").textValue());
+            listHarLrTransactions.add(harLrTransactions);
+        }
+        return listHarLrTransactions;
+    }
 
-        } catch (com.jayway.jsonpath.PathNotFoundException e) {
+    /**
+     * Get the list of HarLrTransaction from the har already parsed (log._transactions in the additional fields), no new read of the file
+     * @param har the har already loaded with the HarReader
+     * @return the list of HarLrTransaction or null if _transaction not exist
+     */
+    public static List<HarLrTransactions> getListTransactionLrwr(Har har) {
+        List<HarLrTransactions> listHarLrTransactions = null;
+        if (har == null || har.getLog() == null) {
+            return listHarLrTransactions;
+        }
+
+        Object oTransactions = har.getLog().getAdditional().get("_transactions");
+        if (!(oTransactions instanceof List)) {
             // no _transactions
-            listHarLrTransactions = null;
-        } finally {
-            if (fis != null) {
-                try {
-                    fis.close();
-                } catch (IOException e) {
-                    // close silently
-                }
-            }
+            return listHarLrTransactions;
+        }
+
+        List jsonArray = (List) oTransactions;
+        LOGGER.fine("jsonArray.size=" + jsonArray.size());
+
+        listHarLrTransactions = new ArrayList();
+        for (int i = 0; i < jsonArray.size(); i++) {
+            // transforme the JSON array of Map to a List of HarLrTransactions
+            Map lhm = (Map) jsonArray.get(i);
+            LOGGER.fine("lhm=" + lhm);
+            HarLrTransactions harLrTransactions = new HarLrTransactions();
+            harLrTransactions.setName((String) lhm.get("name"));
+            String sType = (String) lhm.get("type");
+            harLrTransactions.setType(sType);
+            harLrTransactions.setStartedDateTime((String) lhm.get("startedDateTime"));
+            listHarLrTransactions.add(harLrTransactions);
         }
         return listHarLrTransactions;
     }
 
     /**
-     * Transform the list of HarLrTransactions to a new List of TransactionInfo, because it's easier to search for information between begin date and end date
+     * Transform the list of HarLrTransactions to a new List of TransactionInfo in one pass, because it's easier to search for information between begin date and end date
+     * The nested transactions keep their parent (TransactionInfo.getParent()), a stop closes the last transaction started with the same name.
      * @param listHarLrTransactions the List listHarLrTransactions, must be not null or InvalidParameterException
      * @return the list of TransactionInfo
      */
@@ -116,31 +157,26 @@ public class ManageLrwr {
             throw new InvalidParameterException("listHarLrTransactions must be not null");
         }
 
-        ArrayList<TransactionInfo> listTransactionInfo = new ArrayList();
+        TransactionInfoBuilder transactionInfoBuilder = new TransactionInfoBuilder();
         for (int i = 0; i < listHarLrTransactions.size(); i++) {
             HarLrTransactions harLrTransactions = listHarLrTransactions.get(i);
 
+            if (harLrTransactions.getStartedTimeMicros() == HarLrTransactions.K_TIME_UNKNOWN) {
+                LOGGER.warning("Transaction ignored, the startedDateTime is not a valid date time : " + harLrTransactions.getStartedDateTime() + ", name : " + harLrTransactions.getName());
+                continue;
+            }
+
             if (HarLrTransactions.K_TYPE_START.equals(harLrTransactions.getType())) {
-                TransactionInfo transactionInfo = new TransactionInfo();
-                transactionInfo.setName((String) harLrTransactions.getName());
-                transactionInfo.setBeginDateTime(harLrTransactions.getStartedDateTime());
-                listTransactionInfo.add(transactionInfo);
+                transactionInfoBuilder.start(harLrTransactions.getName(), harLrTransactions.getStartedTimeMicros());
             }
 
-            // start with the last value (reverse)
             if (HarLrTransactions.K_TYPE_STOP.equals(harLrTransactions.getType())) {
-                for (int j = listTransactionInfo.size() -1 ; j >= 0; j--) {
-                    TransactionInfo transactionInfo = listTransactionInfo.get(j);
-                    if (transactionInfo.getName().equals(harLrTransactions.getName())) {
-                        transactionInfo.setEndDateTime(harLrTransactions.getStartedDateTime());
-                        listTransactionInfo.set(j,transactionInfo);
-                        break;
-                    }
+                if (!transactionInfoBuilder.stop(harLrTransactions.getName(), harLrTransactions.getStartedTimeMicros())) {
+                    LOGGER.fine("Stop without start ignored, name : " + harLrTransactions.getName());
                 }
             }
-
         }
-        return listTransactionInfo;
+        return transactionInfoBuilder.getListTransactionInfo();
     }
 
     /**
@@ -148,27 +184,50 @@ public class ManageLrwr {
      * @param startedDateTime the date to search the corresponding TransactionInfo
      * @param listTransactionInfo the listTransactionInfo contains all TransactionInfo
      * @return if a TransactionInfo which includes start and end dates from startedDateTime exists return this TransactionInfo else return null
+     * @deprecated a scan of the whole list for each call, use getTransactionInfoAroundTime(long, TransactionInfoIndex) with the list indexed once
      */
+    @Deprecated
     public static TransactionInfo getTransactionInfoAroundDateTime(String startedDateTime, List<TransactionInfo> listTransactionInfo) {
-        boolean isFind = false;
-        int nbElts = listTransactionInfo.size();
-        int i = 0;
-        TransactionInfo transactionInfoFind = null;
+        long startedTimeMicros;
+        try {
+            startedTimeMicros = Utils.isoDateTimeToEpochMicros(startedDateTime);
+        } catch (DateTimeParseException e) {
+            LOGGER.warning("Not a valid date time : " + startedDateTime + ", no transaction");
+            return null;
+        }
 
-        while (i < nbElts) {
+        TransactionInfo transactionInfoFind = null;
+        for (int i = 0; i < listTransactionInfo.size(); i++) {
             TransactionInfo transactionInfo = listTransactionInfo.get(i);
-            if (transactionInfo.getBeginDateTime().compareTo(startedDateTime) <= 0 && transactionInfo.getEndDateTime().compareTo(startedDateTime) >= 0) {
-                isFind = true;
+            if (transactionInfo.getBeginTimeMicros() <= startedTimeMicros && transactionInfo.getEndTimeMicros() >= startedTimeMicros) {
                 transactionInfoFind = transactionInfo;
             }
-            i++;
         }
 
-        if (isFind) {
+        if (transactionInfoFind != null) {
             LOGGER.fine("transactionInfoFind=" + transactionInfoFind + " for startedDateTime=" + startedDateTime);
         } else {
             LOGGER.fine("NOT FIND for startedDateTime=" + startedDateTime);
         }
         return transactionInfoFind;
     }
+
+    /**
+     * Get the last TransactionInfo from the listTransactionInfo when the parameter startedTimeMicros is between begin and end, with the index of the transactions (O(log T))
+     * @param startedTimeMicros the time to search the corresponding TransactionInfo (microseconds since 1970-01-01T00:00:00Z)
+     * @param transactionInfoIndex the listTransactionInfo indexed
+     * @return if a TransactionInfo which includes start and end from startedTimeMicros exists return this TransactionInfo else return null
+     */
+    public static TransactionInfo getTransactionInfoAroundTime(long startedTimeMicros, TransactionInfoIndex transactionInfoIndex) {
+        TransactionInfo transactionInfoFind = transactionInfoIndex.getTransactionInfoAroundTime(startedTimeMicros);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            // called for each page and entry, the message is created only when the level FINE is logged
+            if (transactionInfoFind != null) {
+                LOGGER.fine("transactionInfoFind=" + transactionInfoFind + " for startedTimeMicros=" + startedTimeMicros);
+            } else {
+                LOGGER.fine("NOT FIND for startedTimeMicros=" + startedTimeMicros);
+            }
+        }
+        return transactionInfoFind;
+    }
 }
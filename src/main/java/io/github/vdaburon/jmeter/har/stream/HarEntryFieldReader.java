@@ -0,0 +1,42 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * Read one field of each entry directly with the parser instead of a json tree of Map and List,
+ * e.g. the _webSocketMessages read in WebSocketMessage objects in the same pass as the entries.
+ * The value returned is in the additional fields of its HarEntry with the path as name. The entries are read in the order of the file, one at a time.
+ */
+public interface HarEntryFieldReader {
+
+    /**
+     * @return the path of the field in the entry, the field names separated by /, e.g. "_webSocketMessages"
+     */
+    String getPathInEntry();
+
+    /**
+     * Read the value of the field
+     * @param parser the parser on the first token of the value, at the end the parser must be on the last token of the value (e.g. END_ARRAY)
+     * @return the value for the additional fields of the HarEntry, null to keep nothing
+     * @throws IOException trouble when reading the value
+     */
+    Object readValue(JsonParser parser) throws IOException;
+}
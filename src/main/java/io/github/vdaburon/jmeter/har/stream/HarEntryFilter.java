@@ -0,0 +1,79 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.stream;
+
+import io.github.vdaburon.jmeter.har.common.UrlFilter;
+
+/**
+ * The url filters, the _fromCache and the data: url evaluated while reading an entry.
+ * An entry not kept is replaced by a light stub (pageref, startedDateTime, url, method, _fromCache), the converters apply the same filters on the stub,
+ * so the sampler numbering and the time between requests don't change.
+ */
+public class HarEntryFilter {
+
+    public static final String K_FROM_CACHE = "_fromCache";
+
+    private final UrlFilter urlFilter;
+
+    protected HarEntryFilter(UrlFilter urlFilter) {
+        this.urlFilter = urlFilter;
+    }
+
+    /**
+     * The filter with the url filter already compiled and shared with the converters
+     * @param urlFilter the url filter
+     * @return the filter
+     */
+    public static HarEntryFilter create(UrlFilter urlFilter) {
+        return new HarEntryFilter(urlFilter);
+    }
+
+    /**
+     * The filter for the JMeter script and the Record.xml, the same rules for both
+     * @param urlFilterToInclude the include rules, empty for no filter
+     * @param urlFilterToExclude the exclude rules, empty for no filter
+     * @return the filter
+     */
+    public static HarEntryFilter create(String urlFilterToInclude, String urlFilterToExclude) {
+        return new HarEntryFilter(UrlFilter.create(urlFilterToInclude, urlFilterToExclude));
+    }
+
+    /**
+     * Is this entry converted to a sampler ? If not, a stub is enough for the converter
+     * @param url the request url
+     * @param fromCache the _fromCache value or null
+     * @return true if the complete entry is needed
+     */
+    public boolean isEntryKept(String url, String fromCache) {
+        if (url == null) {
+            return true; // let the converter decide
+        }
+        if (url.regionMatches(true, 0, "ws://", 0, 5) || url.regionMatches(true, 0, "wss://", 0, 6)) {
+            return true; // the _webSocketMessages are read by ManageWebSocket without the url filters
+        }
+        boolean isAddThisRequest = urlFilter.isUrlKept(url);
+        if (fromCache != null) {
+            // this url content is in the browser cache (memory or disk)
+            isAddThisRequest = false;
+        }
+        if (url.regionMatches(true, 0, "data:", 0, 5)) {
+            // jmeter don't support data:image protocole
+            isAddThisRequest = false;
+        }
+        return isAddThisRequest;
+    }
+}
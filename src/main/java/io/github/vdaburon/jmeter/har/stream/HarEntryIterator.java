@@ -0,0 +1,223 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import de.sstoehr.harreader.model.HarEntry;
+import de.sstoehr.harreader.model.HarLog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator on the log.entries of a HAR file, only one HarEntry is created at a time.
+ * The others fields of the log (before and after the entries array) are kept in a small json tree, call getHarLog() after reading all entries to get them.
+ * An IOException when reading the next entry is thrown as an UncheckedIOException.
+ */
+public class HarEntryIterator implements Iterator<HarEntry>, Closeable {
+
+    private final JsonParser parser;
+    private final ObjectMapper mapper;
+    private final ObjectNode logHeader;
+    private final HarEntryReader harEntryReader;
+    private final MappedHarFile mappedHarFile; // released by close(), null if not mapped
+    private boolean isMappedHarFileKept = false;
+    private HarEntry nextEntry = null;
+    private long nextEntryStartOffset = -1;
+    private long nextEntryEndOffset = -1;
+    private long entryStartOffset = -1;
+    private long entryEndOffset = -1;
+    private boolean isEndOfEntries = false;
+    private int numEntry = 0;
+
+    /**
+     * @param parser the parser positioned on the START_OBJECT of the "log"
+     * @param mapper the har-reader mapper to create HarEntry and HarLog
+     * @param listPathToSkip the paths in the entry to skip without creating values (e.g. response/content/text), empty to read all
+     * @param mappedHarFile the HAR file mapped in memory to create a LazyResponseBody for the response content text, null to read the text
+     * @throws IOException trouble when reading the fields before the entries array
+     */
+    protected HarEntryIterator(JsonParser parser, ObjectMapper mapper, List<String> listPathToSkip, MappedHarFile mappedHarFile) throws IOException {
+        this.parser = parser;
+        this.mapper = mapper;
+        this.harEntryReader = new HarEntryReader(mapper, listPathToSkip, mappedHarFile);
+        this.mappedHarFile = mappedHarFile;
+        this.logHeader = mapper.createObjectNode();
+        isEndOfEntries = !readLogFieldsUntilEntries();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextEntry != null) {
+            return true;
+        }
+        if (isEndOfEntries) {
+            return false;
+        }
+        try {
+            JsonToken token = parser.nextToken();
+            while (token == JsonToken.VALUE_NULL) {
+                token = parser.nextToken();
+            }
+            if (token == JsonToken.START_OBJECT) {
+                nextEntryStartOffset = parser.currentTokenLocation().getByteOffset();
+                nextEntry = harEntryReader.readEntry(parser, 0);
+                nextEntryEndOffset = parser.currentLocation().getByteOffset(); // after the END_OBJECT
+                return true;
+            }
+            // END_ARRAY, read the fields after the entries array (e.g. _transactions for LoadRunner Web Recorder)
+            isEndOfEntries = true;
+            readLogFieldsUntilEntries();
+            HarStreamReader.closeQuietly(parser); // the mapped file stays open, the lazy response body of the last entry could be not yet read
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public HarEntry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more entries, number of entries read=" + numEntry);
+        }
+        HarEntry harEntry = nextEntry;
+        entryStartOffset = nextEntryStartOffset;
+        entryEndOffset = nextEntryEndOffset;
+        nextEntry = null;
+        numEntry++;
+        return harEntry;
+    }
+
+    /**
+     * Evaluate the filter on the request url and the _fromCache while reading an entry, an entry not kept is a light stub
+     * (see HarEntryReader.K_LIST_PATH_STUB), its other fields after the decision are skipped at the token level.
+     * @param harEntryFilter the filter, null to read all entries
+     */
+    protected void setHarEntryFilter(HarEntryFilter harEntryFilter) {
+        harEntryReader.setHarEntryFilter(harEntryFilter);
+    }
+
+    /**
+     * The mapped HAR file is not released by close(), the lazy response bodies of the entries returned are read after the close (released by the garbage collector)
+     */
+    protected void keepMappedHarFileOpen() {
+        isMappedHarFileKept = true;
+    }
+
+    /**
+     * @param entryFieldReader the reader of a field of the entries (e.g. the _webSocketMessages), null to read the field in the HarEntry
+     */
+    protected void setEntryFieldReader(HarEntryFieldReader entryFieldReader) {
+        harEntryReader.setEntryFieldReader(entryFieldReader);
+    }
+
+    /**
+     * @return the position in the HAR file of the '{' of the last entry returned by next(), -1 if unknown (not an UTF-8 file)
+     */
+    public long getEntryStartOffset() {
+        return entryStartOffset;
+    }
+
+    /**
+     * @return the position in the HAR file after the '}' of the last entry returned by next(), -1 if unknown (not an UTF-8 file)
+     */
+    public long getEntryEndOffset() {
+        return entryEndOffset;
+    }
+
+    /**
+     * Skip the remaining entries without creating objects, the log fields after the entries array are read
+     * @throws IOException trouble when reading the HAR file
+     */
+    protected void skipEntries() throws IOException {
+        nextEntry = null;
+        if (!isEndOfEntries) {
+            JsonToken token = parser.nextToken();
+            while (token != null && token != JsonToken.END_ARRAY) {
+                parser.skipChildren();
+                token = parser.nextToken();
+            }
+            isEndOfEntries = true;
+            readLogFieldsUntilEntries();
+        }
+    }
+
+    /**
+     * The log without the entries, complete only when all entries are read
+     * @return the HarLog with the fields version, creator, browser, pages, comment and additional fields
+     */
+    public HarLog getHarLog() {
+        try {
+            return mapper.treeToValue(logHeader, HarLog.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the log fields without the entries as a json tree, complete only when all entries are read
+     */
+    protected ObjectNode getLogHeader() {
+        return logHeader;
+    }
+
+    /**
+     * @return the number of entries returned by next()
+     */
+    public int getNumEntry() {
+        return numEntry;
+    }
+
+    /**
+     * Read the log fields in the logHeader tree until the entries array or the end of the log object
+     * @return true if the parser is positioned on the START_ARRAY of the entries
+     * @throws IOException trouble when reading the HAR file
+     */
+    private boolean readLogFieldsUntilEntries() throws IOException {
+        if (parser.isClosed()) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (HarStreamReader.K_ENTRIES.equals(fieldName) && token == JsonToken.START_ARRAY) {
+                return true;
+            }
+            logHeader.set(fieldName, mapper.readTree(parser));
+        }
+        return false;
+    }
+
+    /**
+     * Close the parser and release the mapped HAR file, the lazy response bodies of the entries returned can't be read after the close
+     */
+    @Override
+    public void close() {
+        HarStreamReader.closeQuietly(parser);
+        if (mappedHarFile != null && !isMappedHarFileKept) {
+            mappedHarFile.close();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.sstoehr.harreader.model.HarEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The entries of a HAR file read on demand with its HarIndex, get(i) reads the entry i in the memory-mapped HAR file (byte range of the index)
+ * and returns a new HarEntry, the entries read are not kept in the list. An entry not kept by the filter is a light stub created from the index.
+ * The memory grows with the index and the entries in use, not with the file size.
+ * The entries given to keep() stay in memory, e.g. the websocket entries with their WebSocketRequest attached.
+ * get() is thread safe (a HarEntryReader by call) : the pages of the JMeter script in parallel and the Record.xml read the same list.
+ * An IOException when reading an entry is thrown as an UncheckedIOException.
+ * close() releases the mapped HAR file, the entries and their lazy response bodies can't be read after the close.
+ */
+public class HarEntryList extends AbstractList<HarEntry> implements RandomAccess, Closeable {
+
+    private final List<HarIndexEntry> listIndexEntries;
+    private final HarEntryFilter harEntryFilter;
+    private final MappedHarFile mappedHarFile;
+    private final ObjectMapper mapper;
+    private final List<String> listPathToSkip;
+    private final boolean isLazyResponseText;
+    private final HarEntryFieldReader entryFieldReader;
+    private final Map<Integer, HarEntry> mapEntriesKept = new HashMap<>();
+    private final AtomicInteger nbEntriesRead = new AtomicInteger();
+
+    /**
+     * @param harIndex the index of the HAR file
+     * @param harEntryFilter the filter, null to read all entries
+     * @param mappedHarFile the HAR file mapped in memory
+     * @param mapper the har-reader mapper to create HarEntry
+     * @param listPathToSkip the paths in the entry to skip without creating values (e.g. response/content/text)
+     * @param isLazyResponseText true to keep the response content text as a LazyResponseBody
+     * @param entryFieldReader the reader of a field of the entries (e.g. the _webSocketMessages), null to read the field in the HarEntry
+     */
+    protected HarEntryList(HarIndex harIndex, HarEntryFilter harEntryFilter, MappedHarFile mappedHarFile, ObjectMapper mapper, List<String> listPathToSkip,
+                           boolean isLazyResponseText, HarEntryFieldReader entryFieldReader) {
+        this.listIndexEntries = harIndex.getListIndexEntries();
+        this.harEntryFilter = harEntryFilter;
+        this.mappedHarFile = mappedHarFile;
+        this.mapper = mapper;
+        this.listPathToSkip = new ArrayList<>(listPathToSkip);
+        this.isLazyResponseText = isLazyResponseText;
+        this.entryFieldReader = entryFieldReader;
+    }
+
+    /**
+     * Read the entry in the HAR file, a new HarEntry at each call except for the entries kept
+     * @param index the position of the entry in the log.entries
+     * @return the HarEntry or a stub if the entry is not kept by the filter
+     */
+    @Override
+    public HarEntry get(int index) {
+        HarEntry harEntryKept = mapEntriesKept.get(index);
+        if (harEntryKept != null) {
+            return harEntryKept;
+        }
+        HarIndexEntry harIndexEntry = listIndexEntries.get(index);
+        if (harEntryFilter != null && !harEntryFilter.isEntryKept(harIndexEntry.getUrl(), harIndexEntry.getFromCache())) {
+            return harIndexEntry.createHarEntryStub();
+        }
+
+        // the reader keeps the state of the entry read, a reader by call
+        HarEntryReader harEntryReader = new HarEntryReader(mapper, listPathToSkip, isLazyResponseText ? mappedHarFile : null);
+        harEntryReader.setEntryFieldReader(entryFieldReader);
+        try {
+            HarEntry harEntry = harEntryReader.readEntry(mappedHarFile, harIndexEntry.getStartOffset(), harIndexEntry.getEndOffset());
+            nbEntriesRead.incrementAndGet();
+            return harEntry;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return listIndexEntries.size();
+    }
+
+    /**
+     * The entry without reading the HAR file, enough to group the entries by page, filter them and compute the time between requests
+     * @param index the position of the entry in the log.entries
+     * @return the entry kept or a light stub from the index (pageref, startedDateTime, method, url, status, mime type, _fromCache)
+     */
+    public HarEntry getEntryStub(int index) {
+        HarEntry harEntryKept = mapEntriesKept.get(index);
+        if (harEntryKept != null) {
+            return harEntryKept;
+        }
+        return listIndexEntries.get(index).createHarEntryStub();
+    }
+
+    /**
+     * The entry without reading the HAR file for a HarEntryList, else the entry of the list
+     * @param listEntries the entries
+     * @param index the position of the entry
+     * @return the entry kept or a light stub for a HarEntryList, else the entry
+     */
+    public static HarEntry getEntryStub(List<HarEntry> listEntries, int index) {
+        if (listEntries instanceof HarEntryList) {
+            return ((HarEntryList) listEntries).getEntryStub(index);
+        }
+        return listEntries.get(index);
+    }
+
+    /**
+     * Read the entry and keep it in memory, the next get() return the same HarEntry (e.g. with a field added by the caller).
+     * Call keep() before the list is read by several threads.
+     * @param index the position of the entry in the log.entries
+     * @return the HarEntry kept
+     */
+    public HarEntry keep(int index) {
+        HarEntry harEntry = get(index);
+        mapEntriesKept.put(index, harEntry);
+        return harEntry;
+    }
+
+    /**
+     * @return the number of entries read in the HAR file since the creation (the stubs are not counted)
+     */
+    public int getNbEntriesRead() {
+        return nbEntriesRead.get();
+    }
+
+    /**
+     * Release the mapped HAR file, no thread must read an entry or a lazy response body after the close
+     */
+    @Override
+    public void close() {
+        mappedHarFile.close();
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.sstoehr.harreader.model.HarContent;
+import de.sstoehr.harreader.model.HarEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read one entry object with the parser, the paths to skip are not read and the response content text could be a LazyResponseBody.
+ * The HarEntry is bound directly from the parser (no json tree), an EntryParser skips the paths at the token level.
+ * Used by the HarEntryIterator (whole file) and by the HarIndex (one byte range per entry).
+ */
+public class HarEntryReader {
+
+    // the fields of an entry not kept by the filter, the converters need them for the page, the time between requests and the filters
+    public static final List<String> K_LIST_PATH_STUB = Arrays.asList("pageref", "startedDateTime", HarEntryFilter.K_FROM_CACHE,
+            "request/method", "request/url", "response/status", "response/content/mimeType");
+    private static final String K_PATH_REQUEST_URL = "request/url";
+
+    private final ObjectMapper mapper;
+    private final List<String> listPathToSkip;
+    private final List<String> listPathToVisit; // the paths to skip, the lazy response text and the field of the entryFieldReader
+    private final List<String> listLastFieldNameToVisit = new ArrayList<>(); // the last field name of the paths to visit, the path of a field is computed only for these names
+    private final MappedHarFile mappedHarFile;
+    private LazyResponseBody lazyResponseBody = null;
+    private HarEntryFieldReader entryFieldReader = null;
+    private Object entryFieldValue = null;
+    private HarEntryFilter harEntryFilter = null;
+
+    /**
+     * @param mapper the har-reader mapper to create HarEntry
+     * @param listPathToSkip the paths in the entry to skip without creating values (e.g. response/content/text), empty to read all
+     * @param mappedHarFile the HAR file mapped in memory to create a LazyResponseBody for the response content text, null to read the text
+     */
+    public HarEntryReader(ObjectMapper mapper, List<String> listPathToSkip, MappedHarFile mappedHarFile) {
+        this.mapper = mapper;
+        this.listPathToSkip = new ArrayList<>(listPathToSkip);
+        this.mappedHarFile = mappedHarFile;
+        this.listPathToVisit = new ArrayList<>(listPathToSkip);
+        if (mappedHarFile != null) {
+            listPathToVisit.add(HarStreamReader.K_PATH_RESPONSE_CONTENT_TEXT);
+        }
+        computeLastFieldNames();
+    }
+
+    /**
+     * Read a field of the entries with the parser, the value returned by the entryFieldReader is in the additional fields of the HarEntry
+     * @param entryFieldReader the reader of the field (e.g. the _webSocketMessages), null to read the field in the HarEntry
+     */
+    public void setEntryFieldReader(HarEntryFieldReader entryFieldReader) {
+        if (this.entryFieldReader != null) {
+            listPathToVisit.remove(this.entryFieldReader.getPathInEntry());
+        }
+        this.entryFieldReader = entryFieldReader;
+        if (entryFieldReader != null) {
+            listPathToVisit.add(entryFieldReader.getPathInEntry());
+        }
+        computeLastFieldNames();
+    }
+
+    /**
+     * Evaluate the filter on the request url and the _fromCache while the entry is read, when the entry is not kept the next fields not in
+     * K_LIST_PATH_STUB are skipped at the token level and the entry returned is a light stub (no headers, cookies, postData nor response body).
+     * The entry is read in one pass, the url and the _fromCache are in any order in the entry.
+     * @param harEntryFilter the filter, null to read all entries
+     */
+    public void setHarEntryFilter(HarEntryFilter harEntryFilter) {
+        this.harEntryFilter = harEntryFilter;
+        computeLastFieldNames();
+    }
+
+    private void computeLastFieldNames() {
+        listLastFieldNameToVisit.clear();
+        if (harEntryFilter != null) {
+            listLastFieldNameToVisit.add("url");
+            listLastFieldNameToVisit.add(HarEntryFilter.K_FROM_CACHE);
+        }
+        for (int i = 0; i < listPathToVisit.size(); i++) {
+            String path = listPathToVisit.get(i);
+            String lastFieldName = path.substring(path.lastIndexOf('/') + 1);
+            if (!listLastFieldNameToVisit.contains(lastFieldName)) {
+                listLastFieldNameToVisit.add(lastFieldName);
+            }
+        }
+    }
+
+    /**
+     * Read the entry object, the parser is on the START_OBJECT of the entry
+     * @param parser the parser
+     * @param baseOffset the position in the HAR file of the first byte read by the parser (0 when the parser reads the whole file)
+     * @return the HarEntry
+     * @throws IOException trouble when reading the entry
+     */
+    public HarEntry readEntry(JsonParser parser, long baseOffset) throws IOException {
+        if (listLastFieldNameToVisit.isEmpty()) {
+            return mapper.readValue(parser, HarEntry.class);
+        }
+        lazyResponseBody = null;
+        entryFieldValue = null;
+        EntryParser entryParser = new EntryParser(parser, baseOffset);
+        HarEntry harEntry = mapper.readValue(entryParser, HarEntry.class);
+
+        if (entryParser.isStub) {
+            // only the fields of the stub, the fields read before the filter decision are not kept
+            lazyResponseBody = null;
+            entryFieldValue = null;
+            return new HarIndexEntry(harEntry, -1, -1).createHarEntryStub();
+        }
+
+        if (entryFieldValue != null) {
+            harEntry.setAdditionalField(entryFieldReader.getPathInEntry(), entryFieldValue);
+            entryFieldValue = null;
+        }
+
+        if (lazyResponseBody != null) {
+            HarContent harContent = harEntry.getResponse().getContent();
+            lazyResponseBody.setEncoding(harContent.getEncoding());
+            harContent.setAdditionalField(LazyResponseBody.K_ADDITIONAL_FIELD, lazyResponseBody);
+            lazyResponseBody = null;
+        }
+        return harEntry;
+    }
+
+    /**
+     * Read the entry in the byte range of the HAR file
+     * @param mappedHarFile the HAR file mapped in memory
+     * @param startOffset the position of the '{' of the entry
+     * @param endOffset the position after the '}' of the entry
+     * @return the HarEntry
+     * @throws IOException trouble when reading the entry
+     */
+    public HarEntry readEntry(MappedHarFile mappedHarFile, long startOffset, long endOffset) throws IOException {
+        JsonParser parser = mapper.getFactory().createParser(mappedHarFile.openStream(startOffset, endOffset));
+        try {
+            parser.nextToken(); // START_OBJECT
+            return readEntry(parser, startOffset);
+        } finally {
+            HarStreamReader.closeQuietly(parser);
+        }
+    }
+
+    private static boolean isParentOfPath(List<String> listPath, String path) {
+        for (int i = 0; i < listPath.size(); i++) {
+            String pathToVisit = listPath.get(i);
+            if (pathToVisit.length() > path.length() && pathToVisit.startsWith(path) && pathToVisit.charAt(path.length()) == '/') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The parser of one entry given to the mapper, the values of the paths to skip are skipped at the token level (a skipped string is never decoded),
+     * the response content text becomes a LazyResponseBody and the field of the entryFieldReader is read by its reader.
+     * The mapper never sees these fields, the other tokens are the tokens of the parser.
+     */
+    private class EntryParser extends JsonParserDelegate {
+        private final long baseOffset;
+        private final JsonStreamContext entryContext;
+        private String pathValueForFilter = null; // the path of the next value read for the filter (request/url or _fromCache)
+        private String url = null;
+        private String fromCache = null;
+        private boolean isStub = false; // the entry is not kept by the filter, only the fields of K_LIST_PATH_STUB are read
+
+        private EntryParser(JsonParser parser, long baseOffset) {
+            super(parser);
+            this.baseOffset = baseOffset;
+            this.entryContext = parser.getParsingContext(); // the parser is on the START_OBJECT of the entry
+        }
+
+        @Override
+        public JsonToken nextToken() throws IOException {
+            JsonToken token = delegate.nextToken();
+            if (pathValueForFilter != null) {
+                readValueForFilter(token);
+            }
+            while (token == JsonToken.FIELD_NAME && (isStub || listLastFieldNameToVisit.contains(delegate.currentName()))) {
+                String pathField = getPathInEntry(delegate.getParsingContext());
+                if (pathField == null || !visitField(pathField)) {
+                    break;
+                }
+                token = delegate.nextToken();
+            }
+            return token;
+        }
+
+        @Override
+        public JsonToken nextValue() throws IOException {
+            JsonToken token = nextToken();
+            if (token == JsonToken.FIELD_NAME) {
+                token = nextToken();
+            }
+            return token;
+        }
+
+        // the parser is on the FIELD_NAME, return true if the value is read here (the parser is on the last token of the value), false if the mapper reads it
+        private boolean visitField(String pathField) throws IOException {
+            if (isStub) {
+                if (K_LIST_PATH_STUB.contains(pathField) || isParentOfPath(K_LIST_PATH_STUB, pathField)) {
+                    return false;
+                }
+                delegate.nextToken();
+                delegate.skipChildren();
+                return true;
+            }
+            if (harEntryFilter != null && (K_PATH_REQUEST_URL.equals(pathField) || HarEntryFilter.K_FROM_CACHE.equals(pathField))) {
+                pathValueForFilter = pathField; // the value is read by the mapper and for the filter
+                return false;
+            }
+            if (listPathToSkip.contains(pathField)) {
+                delegate.nextToken();
+                delegate.skipChildren();
+                return true;
+            }
+            if (entryFieldReader != null && entryFieldReader.getPathInEntry().equals(pathField)) {
+                delegate.nextToken();
+                entryFieldValue = entryFieldReader.readValue(delegate);
+                return true;
+            }
+            if (mappedHarFile != null && HarStreamReader.K_PATH_RESPONSE_CONTENT_TEXT.equals(pathField) && delegate.currentTokenLocation().getByteOffset() >= 0) {
+                if (delegate.nextToken() == JsonToken.VALUE_STRING) {
+                    // the string is not decoded, the next token skips it
+                    lazyResponseBody = new LazyResponseBody(mappedHarFile, baseOffset + delegate.currentTokenLocation().getByteOffset());
+                }
+                return true;
+            }
+            return false;
+        }
+
+        // the parser is on the value of the url or the _fromCache, the filter decides as soon as the url is known
+        private void readValueForFilter(JsonToken token) throws IOException {
+            if (K_PATH_REQUEST_URL.equals(pathValueForFilter)) {
+                url = (token == JsonToken.VALUE_STRING) ? delegate.getText() : null;
+            } else if (token != JsonToken.VALUE_NULL) {
+                fromCache = token.isScalarValue() ? delegate.getText() : "";
+            }
+            pathValueForFilter = null;
+            if (url != null) {
+                isStub = !harEntryFilter.isEntryKept(url, fromCache);
+            }
+        }
+
+        // the path from the entry of the current field of this object context, null if the field is in an array
+        private String getPathInEntry(JsonStreamContext context) {
+            if (context == entryContext) {
+                return context.getCurrentName();
+            }
+            JsonStreamContext parent = context.getParent();
+            if (parent == null || !parent.inObject()) {
+                return null;
+            }
+            String pathParent = getPathInEntry(parent);
+            return (pathParent == null) ? null : pathParent + "/" + context.getCurrentName();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.stream;
+
+import io.github.vdaburon.jmeter.har.Utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Sidecar binary index of a HAR file, saved next to the HAR (file.har.idx).
+ * The index contains the log without the entries (pages, creator, _transactions ...) in json and for each entry : the byte range in the HAR file,
+ * pageref, startedDateTime in epoch millis, method, url, status and mime type.
+ * The next conversions filter and group the entries with the index and read in the HAR only the entries kept.
+ * The index is valid only for the same HAR file size, last modified time and SHA-256 of a sample of the file (Utils.sha256HexOfFileSample),
+ * checking the index reads about 200 KB of the HAR whatever its size.
+ */
+public class HarIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(HarIndex.class.getName());
+
+    public static final String K_INDEX_EXTENSION = ".idx";
+    private static final int K_MAGIC = 0x48415249; // HARI
+    private static final int K_FORMAT_VERSION = 3; // 2 : SHA-256 of a sample of the HAR, 3 : HarIndexEntry.K_NO_STARTED_DATE_TIME for no startedDateTime
+
+    private long harSize;
+    private long harLastModified;
+    private String harSampleSha256;
+    private byte[] logHeaderJson; // the log without the entries, UTF-8 json
+    private List<HarIndexEntry> listIndexEntries = new ArrayList<>();
+
+    /**
+     * @param fileHar the HAR file
+     * @return the index file next to the HAR file
+     */
+    public static File getIndexFile(File fileHar) {
+        return new File(fileHar.getPath() + K_INDEX_EXTENSION);
+    }
+
+    /**
+     * Is this index created from this HAR file ? Compare the size, the last modified time and the SHA-256 of a sample of the file
+     * @param fileHar the HAR file
+     * @return true if the index can be used for this HAR file
+     * @throws IOException trouble when reading the sample of the HAR file
+     */
+    public boolean isValidFor(File fileHar) throws IOException {
+        if (fileHar.length() != harSize || fileHar.lastModified() != harLastModified) {
+            return false;
+        }
+        return Utils.sha256HexOfFileSample(fileHar).equals(harSampleSha256);
+    }
+
+    /**
+     * Set the size, last modified time and SHA-256 of a sample of the HAR file
+     * @param fileHar the HAR file indexed
+     * @throws IOException trouble when reading the sample of the HAR file
+     */
+    public void setHarFileIdentity(File fileHar) throws IOException {
+        harSize = fileHar.length();
+        harLastModified = fileHar.lastModified();
+        harSampleSha256 = Utils.sha256HexOfFileSample(fileHar);
+    }
+
+    /**
+     * Load an index file
+     * @param fileIndex the index file
+     * @return the index or null if the file doesn't exist or is not a valid index file
+     */
+    public static HarIndex load(File fileIndex) {
+        if (!fileIndex.exists()) {
+            return null;
+        }
+        HarIndex harIndex = new HarIndex();
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileIndex), 65536));
+            if (in.readInt() != K_MAGIC || in.readInt() != K_FORMAT_VERSION) {
+                LOGGER.info("Not a valid index file or old version : " + fileIndex);
+                return null;
+            }
+            harIndex.harSize = in.readLong();
+            harIndex.harLastModified = in.readLong();
+            harIndex.harSampleSha256 = readString(in);
+            harIndex.logHeaderJson = new byte[in.readInt()];
+            in.readFully(harIndex.logHeaderJson);
+
+            int nbEntries = in.readInt();
+            List<HarIndexEntry> listIndexEntries = new ArrayList<>(nbEntries);
+            for (int i = 0; i < nbEntries; i++) {
+                HarIndexEntry harIndexEntry = new HarIndexEntry();
+                harIndexEntry.setStartOffset(in.readLong());
+                harIndexEntry.setEndOffset(in.readLong());
+                harIndexEntry.setPageref(readString(in));
+                harIndexEntry.setStartedDateTime(in.readLong());
+                harIndexEntry.setMethod(readString(in));
+                harIndexEntry.setUrl(readString(in));
+                harIndexEntry.setStatus(in.readInt());
+                harIndexEntry.setMimeType(readString(in));
+                harIndexEntry.setFromCache(readString(in));
+                listIndexEntries.add(harIndexEntry);
+            }
+            harIndex.listIndexEntries = listIndexEntries;
+        } catch (IOException e) {
+            LOGGER.warning("Can't read the index file : " + fileIndex + ", exception : " + e);
+            return null;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // close silently
+                }
+            }
+        }
+        return harIndex;
+    }
+
+    /**
+     * Save the index in a temporary file in the same directory then rename it to the index file,
+     * an other conversion never loads a partial index (interrupted run or two runs on the same HAR)
+     * @param fileIndex the index file to write
+     * @throws IOException trouble when writing the file
+     */
+    public void save(File fileIndex) throws IOException {
+        File fileIndexDir = fileIndex.getAbsoluteFile().getParentFile();
+        File fileTemp = File.createTempFile(fileIndex.getName(), ".tmp", fileIndexDir);
+        boolean isSaved = false;
+        try {
+            write(fileTemp);
+            try {
+                Files.move(fileTemp.toPath(), fileIndex.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(fileTemp.toPath(), fileIndex.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            isSaved = true;
+        } finally {
+            if (!isSaved) {
+                Files.deleteIfExists(fileTemp.toPath());
+            }
+        }
+    }
+
+    private void write(File fileOut) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileOut), 65536));
+        try {
+            out.writeInt(K_MAGIC);
+            out.writeInt(K_FORMAT_VERSION);
+            out.writeLong(harSize);
+            out.writeLong(harLastModified);
+            writeString(out, harSampleSha256);
+            out.writeInt(logHeaderJson.length);
+            out.write(logHeaderJson);
+
+            out.writeInt(listIndexEntries.size());
+            for (int i = 0; i < listIndexEntries.size(); i++) {
+                HarIndexEntry harIndexEntry = listIndexEntries.get(i);
+                out.writeLong(harIndexEntry.getStartOffset());
+                out.writeLong(harIndexEntry.getEndOffset());
+                writeString(out, harIndexEntry.getPageref());
+                out.writeLong(harIndexEntry.getStartedDateTime());
+                writeString(out, harIndexEntry.getMethod());
+                writeString(out, harIndexEntry.getUrl());
+                out.writeInt(harIndexEntry.getStatus());
+                writeString(out, harIndexEntry.getMimeType());
+                writeString(out, harIndexEntry.getFromCache());
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    // a String is saved with the length of the UTF-8 bytes (-1 for null) then the bytes, no limit of 64 KB like writeUTF (data: url could be long)
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public byte[] getLogHeaderJson() {
+        return logHeaderJson;
+    }
+    public void setLogHeaderJson(byte[] logHeaderJson) {
+        this.logHeaderJson = logHeaderJson;
+    }
+
+    public List<HarIndexEntry> getListIndexEntries() {
+        return listIndexEntries;
+    }
+    public void setListIndexEntries(List<HarIndexEntry> listIndexEntries) {
+        this.listIndexEntries = listIndexEntries;
+    }
+
+    public long getHarSize() {
+        return harSize;
+    }
+
+    public long getHarLastModified() {
+        return harLastModified;
+    }
+
+    public String getHarSampleSha256() {
+        return harSampleSha256;
+    }
+}
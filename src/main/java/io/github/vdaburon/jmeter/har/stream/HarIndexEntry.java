@@ -0,0 +1,166 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.stream;
+
+import de.sstoehr.harreader.model.HarContent;
+import de.sstoehr.harreader.model.HarEntry;
+import de.sstoehr.harreader.model.HarRequest;
+import de.sstoehr.harreader.model.HarResponse;
+
+import java.util.Date;
+
+/**
+ * One entry in the HarIndex : the byte range of the entry object in the HAR file and the fields used to filter and group the entries.
+ */
+public class HarIndexEntry {
+    public static final long K_NO_STARTED_DATE_TIME = Long.MIN_VALUE; // the entry has no startedDateTime
+
+    private long startOffset; // position of the '{'
+    private long endOffset; // position after the '}'
+    private String pageref;
+    private long startedDateTime; // epoch millis or K_NO_STARTED_DATE_TIME
+    private String method;
+    private String url;
+    private int status;
+    private String mimeType;
+    private String fromCache;
+
+    public HarIndexEntry() {
+    }
+
+    public HarIndexEntry(HarEntry harEntry, long startOffset, long endOffset) {
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.pageref = harEntry.getPageref();
+        this.startedDateTime = (harEntry.getStartedDateTime() != null) ? harEntry.getStartedDateTime().getTime() : K_NO_STARTED_DATE_TIME;
+        this.method = harEntry.getRequest().getRawMethod();
+        this.url = harEntry.getRequest().getUrl();
+        this.status = harEntry.getResponse().getRawStatus();
+        this.mimeType = harEntry.getResponse().getContent().getMimeType();
+        Object oFromCache = harEntry.getAdditional().get(HarEntryFilter.K_FROM_CACHE);
+        this.fromCache = (oFromCache != null) ? oFromCache.toString() : null;
+    }
+
+    /**
+     * Create a light HarEntry with only the indexed fields, used for the entries not kept by the filter.
+     * The startedDateTime is null like in the entry when the entry has no startedDateTime.
+     * @return the HarEntry stub
+     */
+    public HarEntry createHarEntryStub() {
+        HarEntry harEntry = new HarEntry();
+        harEntry.setPageref(pageref);
+        if (startedDateTime != K_NO_STARTED_DATE_TIME) {
+            harEntry.setStartedDateTime(new Date(startedDateTime));
+        }
+
+        HarRequest harRequest = new HarRequest();
+        harRequest.setRawMethod(method);
+        harRequest.setUrl(url);
+        harEntry.setRequest(harRequest);
+
+        HarResponse harResponse = new HarResponse();
+        harResponse.setStatus(status);
+        HarContent harContent = new HarContent();
+        harContent.setMimeType(mimeType);
+        harResponse.setContent(harContent);
+        harEntry.setResponse(harResponse);
+
+        if (fromCache != null) {
+            harEntry.setAdditionalField(HarEntryFilter.K_FROM_CACHE, fromCache);
+        }
+        return harEntry;
+    }
+
+    public long getStartOffset() {
+        return startOffset;
+    }
+    public void setStartOffset(long startOffset) {
+        this.startOffset = startOffset;
+    }
+
+    public long getEndOffset() {
+        return endOffset;
+    }
+    public void setEndOffset(long endOffset) {
+        this.endOffset = endOffset;
+    }
+
+    public String getPageref() {
+        return pageref;
+    }
+    public void setPageref(String pageref) {
+        this.pageref = pageref;
+    }
+
+    public long getStartedDateTime() {
+        return startedDateTime;
+    }
+    public void setStartedDateTime(long startedDateTime) {
+        this.startedDateTime = startedDateTime;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    public String getFromCache() {
+        return fromCache;
+    }
+    public void setFromCache(String fromCache) {
+        this.fromCache = fromCache;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("HarIndexEntry{");
+        sb.append("startOffset=").append(startOffset);
+        sb.append(", endOffset=").append(endOffset);
+        sb.append(", pageref='").append(pageref).append('\'');
+        sb.append(", startedDateTime=").append(startedDateTime);
+        sb.append(", method='").append(method).append('\'');
+        sb.append(", url='").append(url).append('\'');
+        sb.append(", status=").append(status);
+        sb.append(", mimeType='").append(mimeType).append('\'');
+        sb.append(", fromCache='").append(fromCache).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+}
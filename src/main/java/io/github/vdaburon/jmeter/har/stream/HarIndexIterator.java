@@ -0,0 +1,103 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.stream;
+
+import de.sstoehr.harreader.model.HarEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator on the entries of a HAR file with its HarIndex, only the entries kept by the filter are read in the HAR file (byte range of the entry).
+ * The other entries are light stubs created from the index.
+ * An IOException when reading the next entry is thrown as an UncheckedIOException.
+ * close() releases the mapped HAR file, the lazy response bodies of the entries returned must be read before.
+ */
+public class HarIndexIterator implements Iterator<HarEntry>, Closeable {
+
+    private final List<HarIndexEntry> listIndexEntries;
+    private final HarEntryFilter harEntryFilter;
+    private final MappedHarFile mappedHarFile; // released by close()
+    private boolean isMappedHarFileKept = false;
+    private final HarEntryReader harEntryReader;
+    private int numEntry = 0;
+    private int nbEntriesRead = 0;
+
+    /**
+     * @param harIndex the index of the HAR file
+     * @param harEntryFilter the filter, null to read all entries
+     * @param mappedHarFile the HAR file mapped in memory
+     * @param harEntryReader the reader of one entry (paths to skip, lazy response text)
+     */
+    protected HarIndexIterator(HarIndex harIndex, HarEntryFilter harEntryFilter, MappedHarFile mappedHarFile, HarEntryReader harEntryReader) {
+        this.listIndexEntries = harIndex.getListIndexEntries();
+        this.harEntryFilter = harEntryFilter;
+        this.mappedHarFile = mappedHarFile;
+        this.harEntryReader = harEntryReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return numEntry < listIndexEntries.size();
+    }
+
+    @Override
+    public HarEntry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more entries, number of entries=" + listIndexEntries.size());
+        }
+        HarIndexEntry harIndexEntry = listIndexEntries.get(numEntry);
+        numEntry++;
+
+        if (harEntryFilter != null && !harEntryFilter.isEntryKept(harIndexEntry.getUrl(), harIndexEntry.getFromCache())) {
+            return harIndexEntry.createHarEntryStub();
+        }
+
+        try {
+            HarEntry harEntry = harEntryReader.readEntry(mappedHarFile, harIndexEntry.getStartOffset(), harIndexEntry.getEndOffset());
+            nbEntriesRead++;
+            return harEntry;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The mapped HAR file is not released by close(), the lazy response bodies of the entries returned are read after the close (released by the garbage collector)
+     */
+    protected void keepMappedHarFileOpen() {
+        isMappedHarFileKept = true;
+    }
+
+    @Override
+    public void close() {
+        if (mappedHarFile != null && !isMappedHarFileKept) {
+            mappedHarFile.close();
+        }
+    }
+
+    /**
+     * @return the number of entries read in the HAR file (the others are stubs)
+     */
+    public int getNbEntriesRead() {
+        return nbEntriesRead;
+    }
+}
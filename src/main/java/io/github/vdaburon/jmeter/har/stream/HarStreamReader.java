@@ -0,0 +1,421 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.sstoehr.harreader.HarReaderException;
+import de.sstoehr.harreader.HarReaderMode;
+import de.sstoehr.harreader.jackson.DefaultMapperFactory;
+import de.sstoehr.harreader.model.Har;
+import de.sstoehr.harreader.model.HarEntry;
+import de.sstoehr.harreader.model.HarLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Read a HAR file with the Jackson streaming api and the har-reader model.
+ * The log.entries array is read one entry at a time with a HarEntryIterator, so the memory grows with one entry and not with the file size.
+ */
+public class HarStreamReader {
+
+    private static final Logger LOGGER = Logger.getLogger(HarStreamReader.class.getName());
+
+    public static final String K_LOG = "log";
+    public static final String K_ENTRIES = "entries";
+
+    public static final String K_PATH_RESPONSE_CONTENT_TEXT = "response/content/text";
+    public static final String K_PATH_INITIATOR = "_initiator";
+
+    private final File fileHar;
+    private final ObjectMapper mapper;
+    private final List<String> listPathToSkip = new ArrayList<>();
+    private boolean isLazyResponseText = false;
+    private HarEntryFilter harEntryFilter = null;
+    private HarEntryFieldReader entryFieldReader = null;
+
+    public HarStreamReader(String fileHar) {
+        this(new File(fileHar));
+    }
+
+    public HarStreamReader(File fileHar) {
+        this.fileHar = fileHar;
+        this.mapper = new DefaultMapperFactory().instance(HarReaderMode.STRICT); // same mapper configuration as the HarReader
+    }
+
+    public File getFileHar() {
+        return fileHar;
+    }
+
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * JMX only parse mode, the JMeter script never uses the response body (content.text) nor the _initiator (chrome call stacks).
+     * These values are skipped at the token level, no String is created for them. Don't use this mode for the Record.xml.
+     * @param isSkip true to skip the response content text and the _initiator of each entry
+     * @return this reader
+     */
+    public HarStreamReader setJmxOnly(boolean isSkip) {
+        listPathToSkip.clear();
+        if (isSkip) {
+            listPathToSkip.add(K_PATH_RESPONSE_CONTENT_TEXT);
+            listPathToSkip.add(K_PATH_INITIATOR);
+        }
+        return this;
+    }
+
+    /**
+     * Add a path in the entry to skip at the token level, e.g. "response/content/text"
+     * @param pathInEntry the field names from the entry separated by /
+     * @return this reader
+     */
+    public HarStreamReader addPathToSkip(String pathInEntry) {
+        if (!listPathToSkip.contains(pathInEntry)) {
+            listPathToSkip.add(pathInEntry);
+        }
+        return this;
+    }
+
+    public List<String> getListPathToSkip() {
+        return listPathToSkip;
+    }
+
+    /**
+     * Lazy response body mode for the Record.xml, the response content text is not read but kept as an offset in the memory-mapped HAR file.
+     * The HarContent text is null and a LazyResponseBody is in the additional fields of the HarContent (LazyResponseBody.K_ADDITIONAL_FIELD).
+     * @param isLazy true to create a LazyResponseBody for each response content text
+     * @return this reader
+     */
+    public HarStreamReader setLazyResponseText(boolean isLazy) {
+        this.isLazyResponseText = isLazy;
+        return this;
+    }
+
+    public boolean isLazyResponseText() {
+        return isLazyResponseText;
+    }
+
+    /**
+     * Filter pushdown, the url include/exclude, _fromCache and data: url are evaluated on the url and _fromCache while reading an entry (one pass).
+     * An entry not kept is a light stub (pageref, startedDateTime, method, url, status, mime type, _fromCache) without headers, postData nor body.
+     * @param harEntryFilter the filter of the converter (HarEntryFilter.create), null to read all entries
+     * @return this reader
+     */
+    public HarStreamReader setHarEntryFilter(HarEntryFilter harEntryFilter) {
+        this.harEntryFilter = harEntryFilter;
+        return this;
+    }
+
+    /**
+     * Read a field of each entry with the parser in the same pass as the entries, e.g. a WebSocketMessagesReader for the _webSocketMessages.
+     * The value read is in the additional fields of the HarEntry. Only the complete entries are read (not the stubs of the filter).
+     * @param entryFieldReader the reader of the field, null to read the field in the HarEntry
+     * @return this reader
+     */
+    public HarStreamReader setEntryFieldReader(HarEntryFieldReader entryFieldReader) {
+        this.entryFieldReader = entryFieldReader;
+        return this;
+    }
+
+    /**
+     * Open a new iterator on the log.entries of the har file, the caller must close the iterator (try-with-resources), the mapped HAR file is released by the close
+     * @return the iterator positioned on the first entry
+     * @throws HarReaderException trouble when reading HAR file
+     */
+    public HarEntryIterator iterator() throws HarReaderException {
+        JsonParser parser = null;
+        MappedHarFile mappedHarFile = null;
+        try {
+            if (isLazyResponseText) {
+                mappedHarFile = new MappedHarFile(fileHar);
+            }
+            parser = mapper.getFactory().createParser(fileHar);
+            moveToLog(parser);
+            HarEntryIterator harEntryIterator = new HarEntryIterator(parser, mapper, listPathToSkip, mappedHarFile);
+            harEntryIterator.setHarEntryFilter(harEntryFilter);
+            harEntryIterator.setEntryFieldReader(entryFieldReader);
+            return harEntryIterator;
+        } catch (IOException e) {
+            closeQuietly(parser);
+            if (mappedHarFile != null) {
+                mappedHarFile.close();
+            }
+            throw new HarReaderException(e);
+        }
+    }
+
+    /**
+     * Read the log without the entries (version, creator, browser, pages and additional fields like _transactions), the entries are skipped without creating objects
+     * @return the HarLog with an empty list of entries
+     * @throws HarReaderException trouble when reading HAR file
+     */
+    public HarLog readHarLogHeader() throws HarReaderException {
+        try (HarEntryIterator harEntryIterator = iterator()) {
+            harEntryIterator.skipEntries();
+            return harEntryIterator.getHarLog();
+        } catch (IOException | UncheckedIOException e) {
+            throw new HarReaderException(e);
+        }
+    }
+
+    /**
+     * Read only one field of the log, e.g. "_transactions", the entries and the other fields are skipped at the token level (no object, no String created).
+     * The read stops at the field, so a field before the entries is read without scanning the entries.
+     * @param fieldName the name of the field in the log
+     * @return the value of the field as a json tree or null if the log has no field with this name
+     * @throws HarReaderException trouble when reading HAR file
+     */
+    public JsonNode readLogField(String fieldName) throws HarReaderException {
+        JsonParser parser = null;
+        try {
+            parser = mapper.getFactory().createParser(fileHar);
+            moveToLog(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if (fieldName.equals(name)) {
+                    return mapper.readTree(parser);
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            throw new HarReaderException(e);
+        } finally {
+            closeQuietly(parser);
+        }
+    }
+
+    /**
+     * Read all the har file in one pass, same result as HarReader.readFromFile(file).
+     * With the lazy response text, the mapped HAR file is released by the garbage collector when the Har is no more used.
+     * @return the Har with all entries
+     * @throws HarReaderException trouble when reading HAR file
+     */
+    public Har readHar() throws HarReaderException {
+        List<HarEntry> listEntries = new ArrayList<>();
+        HarLog harLog;
+        try (HarEntryIterator harEntryIterator = iterator()) {
+            if (isLazyResponseText) {
+                harEntryIterator.keepMappedHarFileOpen(); // the lazy response bodies are read after this method
+            }
+            while (harEntryIterator.hasNext()) {
+                listEntries.add(harEntryIterator.next());
+            }
+            harLog = harEntryIterator.getHarLog();
+        } catch (UncheckedIOException e) {
+            throw new HarReaderException(e.getCause());
+        }
+        LOGGER.fine("Number of entries read=" + listEntries.size());
+
+        harLog.setEntries(listEntries);
+        Har har = new Har();
+        har.setLog(harLog);
+        return har;
+    }
+
+    /**
+     * Load the index file if it is valid for this HAR file else create the index (one pass on the HAR without the response bodies) and save it
+     * @param fileIndex the index file, usually HarIndex.getIndexFile(fileHar)
+     * @return the index or null if the HAR can't be indexed (not an UTF-8 file)
+     * @throws HarReaderException trouble when reading HAR file
+     */
+    public HarIndex readOrCreateIndex(File fileIndex) throws HarReaderException {
+        HarIndex harIndex = HarIndex.load(fileIndex);
+        try {
+            if (harIndex != null && harIndex.isValidFor(fileHar)) {
+                LOGGER.info("Use the index file : " + fileIndex + ", number of entries : " + harIndex.getListIndexEntries().size());
+                return harIndex;
+            }
+        } catch (IOException e) {
+            throw new HarReaderException(e);
+        }
+
+        LOGGER.info("Create the index file : " + fileIndex);
+        harIndex = createIndex();
+        if (harIndex != null) {
+            try {
+                harIndex.save(fileIndex);
+            } catch (IOException e) {
+                LOGGER.warning("Can't save the index file : " + fileIndex + ", exception : " + e);
+            }
+        }
+        return harIndex;
+    }
+
+    /**
+     * Create the index of the HAR file, the response bodies and _initiator are skipped
+     * @return the index or null if the HAR can't be indexed (not an UTF-8 file, no byte offset)
+     * @throws HarReaderException trouble when reading HAR file
+     */
+    public HarIndex createIndex() throws HarReaderException {
+        List<String> listPathToSkipForIndex = new ArrayList<>(listPathToSkip);
+        listPathToSkipForIndex.add(K_PATH_RESPONSE_CONTENT_TEXT);
+        listPathToSkipForIndex.add(K_PATH_INITIATOR);
+
+        HarIndex harIndex = new HarIndex();
+        JsonParser parser = null;
+        HarEntryIterator harEntryIterator = null;
+        try {
+            parser = mapper.getFactory().createParser(fileHar);
+            moveToLog(parser);
+            harEntryIterator = new HarEntryIterator(parser, mapper, listPathToSkipForIndex, null);
+            List<HarIndexEntry> listIndexEntries = new ArrayList<>();
+            while (harEntryIterator.hasNext()) {
+                HarEntry harEntry = harEntryIterator.next();
+                if (harEntryIterator.getEntryStartOffset() < 0) {
+                    LOGGER.warning("No byte offset for the entries (the HAR file is not in UTF-8), no index");
+                    return null;
+                }
+                listIndexEntries.add(new HarIndexEntry(harEntry, harEntryIterator.getEntryStartOffset(), harEntryIterator.getEntryEndOffset()));
+            }
+            harIndex.setListIndexEntries(listIndexEntries);
+            harIndex.setLogHeaderJson(mapper.writeValueAsBytes(harEntryIterator.getLogHeader()));
+            harIndex.setHarFileIdentity(fileHar);
+        } catch (IOException | UncheckedIOException e) {
+            throw new HarReaderException(e);
+        } finally {
+            if (harEntryIterator != null) {
+                harEntryIterator.close();
+            }
+            closeQuietly(parser);
+        }
+        return harIndex;
+    }
+
+    /**
+     * Open an iterator on the entries with the index, only the entries kept by the filter are read in the HAR file, the others are stubs.
+     * The caller must close the iterator (try-with-resources), the mapped HAR file is released by the close
+     * @param harIndex the index valid for this HAR file
+     * @param harEntryFilter the filter, null to read all entries
+     * @return the iterator on all entries (read or stubs)
+     * @throws HarReaderException trouble when mapping the HAR file
+     */
+    public HarIndexIterator iterator(HarIndex harIndex, HarEntryFilter harEntryFilter) throws HarReaderException {
+        try {
+            MappedHarFile mappedHarFile = new MappedHarFile(fileHar);
+            HarEntryReader harEntryReader = new HarEntryReader(mapper, listPathToSkip, isLazyResponseText ? mappedHarFile : null);
+            harEntryReader.setEntryFieldReader(entryFieldReader);
+            return new HarIndexIterator(harIndex, harEntryFilter, mappedHarFile, harEntryReader);
+        } catch (IOException e) {
+            throw new HarReaderException(e);
+        }
+    }
+
+    /**
+     * @param harIndex the index valid for this HAR file
+     * @return the log without the entries from the index, the HAR file is not read
+     * @throws HarReaderException trouble when reading the json in the index
+     */
+    public HarLog readHarLogHeader(HarIndex harIndex) throws HarReaderException {
+        try {
+            return mapper.readValue(harIndex.getLogHeaderJson(), HarLog.class);
+        } catch (IOException e) {
+            throw new HarReaderException(e);
+        }
+    }
+
+    /**
+     * Read the HAR with the index, only the entries kept by the filter are read in the HAR file, the others are stubs.
+     * With the lazy response text, the mapped HAR file is released by the garbage collector when the Har is no more used.
+     * @param harIndex the index valid for this HAR file
+     * @param harEntryFilter the filter, null to read all entries
+     * @return the Har with all entries (read or stubs)
+     * @throws HarReaderException trouble when reading HAR file
+     */
+    public Har readHar(HarIndex harIndex, HarEntryFilter harEntryFilter) throws HarReaderException {
+        List<HarEntry> listEntries = new ArrayList<>(harIndex.getListIndexEntries().size());
+        try (HarIndexIterator harIndexIterator = iterator(harIndex, harEntryFilter)) {
+            if (isLazyResponseText) {
+                harIndexIterator.keepMappedHarFileOpen(); // the lazy response bodies are read after this method
+            }
+            while (harIndexIterator.hasNext()) {
+                listEntries.add(harIndexIterator.next());
+            }
+            LOGGER.info("Number of entries read with the index : " + harIndexIterator.getNbEntriesRead() + " / " + listEntries.size());
+        } catch (UncheckedIOException e) {
+            throw new HarReaderException(e.getCause());
+        }
+
+        HarLog harLog = readHarLogHeader(harIndex);
+        harLog.setEntries(listEntries);
+        Har har = new Har();
+        har.setLog(harLog);
+        return har;
+    }
+
+    /**
+     * The HAR with its entries read on demand in the HAR file (a HarEntryList), only the index and the log without the entries are in memory.
+     * The caller closes the HarEntryList (har.getLog().getEntries()) to release the mapped HAR file.
+     * @param harIndex the index valid for this HAR file
+     * @param harEntryFilter the filter, null to read all entries
+     * @return the Har with a HarEntryList
+     * @throws HarReaderException trouble when mapping the HAR file or reading the json in the index
+     */
+    public Har readHarOnDemand(HarIndex harIndex, HarEntryFilter harEntryFilter) throws HarReaderException {
+        HarLog harLog = readHarLogHeader(harIndex);
+        try {
+            MappedHarFile mappedHarFile = new MappedHarFile(fileHar);
+            harLog.setEntries(new HarEntryList(harIndex, harEntryFilter, mappedHarFile, mapper, listPathToSkip, isLazyResponseText, entryFieldReader));
+        } catch (IOException e) {
+            throw new HarReaderException(e);
+        }
+        Har har = new Har();
+        har.setLog(harLog);
+        return har;
+    }
+
+    /**
+     * Position the parser on the START_OBJECT of the "log" field, the other root fields are skipped
+     * @param parser the parser at the beginning of the file
+     * @throws IOException the file is not a json object or no "log" field
+     */
+    protected static void moveToLog(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("The HAR file must begin with a json object, current location " + parser.currentLocation());
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (K_LOG.equals(fieldName) && token == JsonToken.START_OBJECT) {
+                return;
+            }
+            parser.skipChildren();
+        }
+        throw new IOException("No \"" + K_LOG + "\" object in the HAR file");
+    }
+
+    protected static void closeQuietly(JsonParser parser) {
+        if (parser != null) {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                // close silently
+            }
+        }
+    }
+}
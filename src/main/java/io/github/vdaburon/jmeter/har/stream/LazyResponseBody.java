@@ -0,0 +1,285 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The response content text of an entry kept as an offset in the memory-mapped HAR file, the text is decoded only when it is written.
+ * The LazyResponseBody is saved in the additional fields of the HarContent with the name K_ADDITIONAL_FIELD, the HarContent text is null.
+ */
+public class LazyResponseBody {
+
+    public static final String K_ADDITIONAL_FIELD = "_lazyText";
+    public static final String K_ENCODING_BASE64 = "base64";
+
+    private final MappedHarFile mappedHarFile;
+    private final long offset; // position of the opening quote of the json string
+    private long length = -1; // number of bytes between the quotes (json escaped), -1 not yet known
+    private String encoding; // the content.encoding, "base64" or null
+
+    public LazyResponseBody(MappedHarFile mappedHarFile, long offset) {
+        this.mappedHarFile = mappedHarFile;
+        this.offset = offset;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the number of bytes of the json string in the HAR file (without the quotes), the string is scanned the first time
+     */
+    public long getLength() {
+        if (length < 0) {
+            long position = mappedHarFile.indexOfQuoteOrBackslash(offset + 1);
+            while (position >= 0 && mappedHarFile.get(position) == '\\') {
+                position = mappedHarFile.indexOfQuoteOrBackslash(position + 2); // the escaped character is skipped
+            }
+            if (position < 0) {
+                throw new UncheckedIOException(new IOException("No end of the json string at position " + offset));
+            }
+            length = position - offset - 1;
+        }
+        return length;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
+    public boolean isBase64() {
+        return K_ENCODING_BASE64.equalsIgnoreCase(encoding);
+    }
+
+    /**
+     * @return a stream on the json string value unescaped (UTF-8 bytes), same content as HarContent.getText()
+     */
+    public InputStream openTextStream() {
+        return new JsonStringInputStream();
+    }
+
+    /**
+     * @return a stream on the body, base64 decoded if the encoding is base64 else the text in UTF-8
+     */
+    public InputStream openDecodedStream() {
+        InputStream in = openTextStream();
+        if (isBase64()) {
+            in = Base64.getDecoder().wrap(in);
+        }
+        return in;
+    }
+
+    /**
+     * Write the body decoded (base64 decoded if the encoding is base64) to the output stream
+     * @param out the output stream, not closed
+     * @return the number of bytes written
+     * @throws IOException trouble when reading the body or writing to the output stream
+     */
+    public long writeTo(OutputStream out) throws IOException {
+        InputStream in = openDecodedStream();
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int nbRead;
+        while ((nbRead = in.read(buffer)) != -1) {
+            out.write(buffer, 0, nbRead);
+            total += nbRead;
+        }
+        return total;
+    }
+
+    /**
+     * @return the text as HarContent.getText() would return it (no base64 decoding)
+     */
+    public String readText() {
+        return readAsString(openTextStream(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param charset the charset of the decoded bytes
+     * @return the body decoded (base64 decoded if the encoding is base64) in a String
+     */
+    public String readDecodedAsString(Charset charset) {
+        return readAsString(openDecodedStream(), charset);
+    }
+
+    private static String readAsString(InputStream in, Charset charset) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int nbRead;
+        try {
+            while ((nbRead = in.read(buffer)) != -1) {
+                baos.write(buffer, 0, nbRead);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new String(baos.toByteArray(), charset);
+    }
+
+    /**
+     * Read the json string from the mapped file and unescape the json escapes (\" \\ \/ \b \f \n \r \t \\uXXXX), the result is in UTF-8
+     */
+    private class JsonStringInputStream extends InputStream {
+        private long position = offset + 1;
+        private long positionSpecial = -1; // position of the next quote or backslash, the bytes before are copied without unescaping
+        private boolean isEnd = false;
+        private final byte[] pending = new byte[4]; // UTF-8 bytes of an escaped unicode character
+        private int pendingIndex = 0;
+        private int pendingLength = 0;
+
+        @Override
+        public int read() {
+            if (pendingIndex < pendingLength) {
+                return pending[pendingIndex++] & 0xFF;
+            }
+            if (isEnd) {
+                return -1;
+            }
+            byte b = mappedHarFile.get(position++);
+            if (b == '"') {
+                isEnd = true;
+                if (length < 0) {
+                    length = position - offset - 2;
+                }
+                return -1;
+            }
+            if (b != '\\') {
+                return b & 0xFF;
+            }
+
+            byte escaped = mappedHarFile.get(position++);
+            switch (escaped) {
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'u':
+                    int codePoint = readHex4();
+                    if (Character.isHighSurrogate((char) codePoint) && mappedHarFile.get(position) == '\\' && mappedHarFile.get(position + 1) == 'u') {
+                        long positionSave = position;
+                        position += 2;
+                        int low = readHex4();
+                        if (Character.isLowSurrogate((char) low)) {
+                            codePoint = Character.toCodePoint((char) codePoint, (char) low);
+                        } else {
+                            position = positionSave;
+                        }
+                    }
+                    if (Character.isSurrogate((char) codePoint) && codePoint <= 0xFFFF) {
+                        codePoint = '?'; // lone surrogate, same replacement as String.getBytes(UTF-8)
+                    }
+                    setPendingUtf8(codePoint);
+                    return pending[pendingIndex++] & 0xFF;
+                default:
+                    // \" \\ \/
+                    return escaped & 0xFF;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int nb = 0;
+            while (nb < len) {
+                if (pendingIndex < pendingLength) {
+                    b[off + nb] = pending[pendingIndex++];
+                    nb++;
+                    continue;
+                }
+                if (isEnd) {
+                    break;
+                }
+                if (positionSpecial < position) {
+                    positionSpecial = mappedHarFile.indexOfQuoteOrBackslash(position);
+                    if (positionSpecial < 0) {
+                        throw new UncheckedIOException(new IOException("No end of the json string at position " + offset));
+                    }
+                }
+                if (position < positionSpecial) {
+                    // the bytes until the quote or the backslash are not escaped, one bulk copy
+                    int nbCopy = (int) Math.min(len - nb, positionSpecial - position);
+                    mappedHarFile.get(position, b, off + nb, nbCopy);
+                    position += nbCopy;
+                    nb += nbCopy;
+                    continue;
+                }
+                int c = read(); // the end quote or an escape
+                if (c == -1) {
+                    break;
+                }
+                b[off + nb] = (byte) c;
+                nb++;
+            }
+            return (nb == 0) ? -1 : nb;
+        }
+
+        private int readHex4() {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit((char) mappedHarFile.get(position++), 16);
+                if (digit < 0) {
+                    throw new UncheckedIOException(new IOException("Invalid \\u escape in the json string at position " + (position - 1)));
+                }
+                value = (value << 4) + digit;
+            }
+            return value;
+        }
+
+        private void setPendingUtf8(int codePoint) {
+            pendingIndex = 0;
+            if (codePoint < 0x80) {
+                pending[0] = (byte) codePoint;
+                pendingLength = 1;
+            } else if (codePoint < 0x800) {
+                pending[0] = (byte) (0xC0 | (codePoint >> 6));
+                pending[1] = (byte) (0x80 | (codePoint & 0x3F));
+                pendingLength = 2;
+            } else if (codePoint < 0x10000) {
+                pending[0] = (byte) (0xE0 | (codePoint >> 12));
+                pending[1] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                pending[2] = (byte) (0x80 | (codePoint & 0x3F));
+                pendingLength = 3;
+            } else {
+                pending[0] = (byte) (0xF0 | (codePoint >> 18));
+                pending[1] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                pending[2] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                pending[3] = (byte) (0x80 | (codePoint & 0x3F));
+                pendingLength = 4;
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.stream;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.logging.Logger;
+
+/**
+ * Read only memory-mapped view of a HAR file, the file is mapped in segments of 1 GB so a file larger than 2 GB can be read.
+ * The mapping stays valid after the file channel is closed, close() releases the segments (unmap) without waiting for the garbage collector,
+ * the LazyResponseBody created on this file must be read before the close.
+ */
+public class MappedHarFile implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(MappedHarFile.class.getName());
+
+    private static final int K_SEGMENT_SHIFT = 30;
+    public static final int K_SEGMENT_SIZE = 1 << K_SEGMENT_SHIFT; // 1 GB
+    private static final int K_SEGMENT_MASK = K_SEGMENT_SIZE - 1;
+
+    private final File file;
+    private final long size;
+    private MappedByteBuffer[] segments; // null when closed
+
+    public MappedHarFile(File file) throws IOException {
+        this.file = file;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            size = channel.size();
+            int nbSegments = (int) ((size + K_SEGMENT_SIZE - 1) / K_SEGMENT_SIZE);
+            segments = new MappedByteBuffer[nbSegments];
+            for (int i = 0; i < nbSegments; i++) {
+                long position = (long) i * K_SEGMENT_SIZE;
+                long length = Math.min(K_SEGMENT_SIZE, size - position);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @param start the first position in the file
+     * @param end the position after the last byte
+     * @return a stream on the bytes between start and end
+     */
+    public InputStream openStream(long start, long end) {
+        if (segments == null) {
+            throw new IllegalStateException("The mapped file is closed : " + file);
+        }
+        return new MappedInputStream(start, end);
+    }
+
+    /**
+     * @param position the absolute position in the file
+     * @return the byte at this position
+     */
+    public byte get(long position) {
+        return segments[(int) (position >>> K_SEGMENT_SHIFT)].get((int) (position & K_SEGMENT_MASK));
+    }
+
+    /**
+     * Copy the bytes from the file, one bulk copy by segment
+     * @param position the absolute position of the first byte
+     * @param dst the destination array
+     * @param off the first index in dst
+     * @param len the number of bytes to copy, position + len must be lower or equal to the size
+     */
+    public void get(long position, byte[] dst, int off, int len) {
+        int nbCopied = 0;
+        while (nbCopied < len) {
+            MappedByteBuffer segment = segments[(int) (position >>> K_SEGMENT_SHIFT)];
+            int index = (int) (position & K_SEGMENT_MASK);
+            int nbInSegment = Math.min(len - nbCopied, segment.limit() - index);
+            ByteBuffer view = segment.duplicate();
+            ((Buffer) view).position(index); // Buffer cast, runs on a java 8 runtime
+            view.get(dst, off + nbCopied, nbInSegment);
+            nbCopied += nbInSegment;
+            position += nbInSegment;
+        }
+    }
+
+    /**
+     * Find the next quote or backslash (the end or an escape of a json string), the bytes are scanned in the segment without computing the segment for each byte
+     * @param position the absolute position to start the search
+     * @return the position of the first '"' or '\' at or after position, -1 if not found before the end of the file
+     */
+    public long indexOfQuoteOrBackslash(long position) {
+        int numSegment = (int) (position >>> K_SEGMENT_SHIFT);
+        int index = (int) (position & K_SEGMENT_MASK);
+        while (numSegment < segments.length) {
+            MappedByteBuffer segment = segments[numSegment];
+            int limit = segment.limit();
+            for (int i = index; i < limit; i++) {
+                byte b = segment.get(i);
+                if (b == '"' || b == '\\') {
+                    return ((long) numSegment << K_SEGMENT_SHIFT) + i;
+                }
+            }
+            numSegment++;
+            index = 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Release the segments, the next reads throw an exception
+     */
+    @Override
+    public void close() {
+        MappedByteBuffer[] segmentsToRelease = segments;
+        segments = null;
+        if (segmentsToRelease != null) {
+            for (int i = 0; i < segmentsToRelease.length; i++) {
+                unmap(segmentsToRelease[i]);
+            }
+        }
+    }
+
+    // no public api to unmap before java 19 : sun.misc.Unsafe.invokeCleaner (java 9+) or the cleaner of the DirectBuffer (java 8), else the garbage collector releases the segment
+    private static void unmap(MappedByteBuffer segment) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            try {
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), segment);
+            } catch (NoSuchMethodException e) {
+                // java 8
+                Method cleanerMethod = segment.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(segment);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.fine("Can't unmap the segment, released by the garbage collector, exception : " + e);
+        }
+    }
+
+    private class MappedInputStream extends InputStream {
+        private long position;
+        private final long end;
+
+        private MappedInputStream(long start, long end) {
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() {
+            if (position >= end) {
+                return -1;
+            }
+            return get(position++) & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            int nb = (int) Math.min(len, end - position);
+            get(position, b, off, nb);
+            position += nb;
+            return nb;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+}
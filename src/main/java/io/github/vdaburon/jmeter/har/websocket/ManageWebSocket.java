@@ -16,18 +16,21 @@
 
 package io.github.vdaburon.jmeter.har.websocket;
 
-import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.JsonPath;
+import org.apache.commons.lang3.StringUtils;
 
+import de.sstoehr.harreader.HarReaderException;
+import de.sstoehr.harreader.model.Har;
+import de.sstoehr.harreader.model.HarEntry;
+import de.sstoehr.harreader.model.HarRequest;
 import io.github.vdaburon.jmeter.har.Utils;
+import io.github.vdaburon.jmeter.har.stream.HarEntryIterator;
+import io.github.vdaburon.jmeter.har.stream.HarEntryList;
+import io.github.vdaburon.jmeter.har.stream.HarStreamReader;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
@@ -39,12 +42,7 @@ public class ManageWebSocket {
     private static final Logger LOGGER = Logger.getLogger(ManageWebSocket.class.getName());
 
     public static boolean isHarContainsWebSocketMessage(String harIn) {
-        boolean isContainsWebSocketMessage = false;
-        WebSocketRequest webSocketRequest = getWebSocketRequest(harIn);
-        if (webSocketRequest != null && webSocketRequest.getListWebSocketMessages() != null && webSocketRequest.getListWebSocketMessages().size() > 0) {
-            isContainsWebSocketMessage = true;
-        }
-        return isContainsWebSocketMessage;
+        return isHarContainsWebSocketMessage(getListWebSocketRequest(harIn));
     }
 
     public static boolean isHarContainsWebSocketMessage(WebSocketRequest webSocketRequest) {
@@ -55,72 +53,162 @@ public class ManageWebSocket {
         return isContainsWebSocketMessage;
     }
 
-    public static WebSocketRequest getWebSocketRequest(String harIn) {
-        WebSocketRequest webSocketRequest = null;
-
-        File fileHarIn = new File(harIn);
-        FileInputStream fis = null;
-        try {
-            fis = new FileInputStream(fileHarIn);
-        } catch (FileNotFoundException e) {
-            LOGGER.warning("WARNING :" + e);
-            return webSocketRequest;
+    /**
+     * @param listWebSocketRequest the websocket connections
+     * @return true if at least one connection contains a message
+     */
+    public static boolean isHarContainsWebSocketMessage(List<WebSocketRequest> listWebSocketRequest) {
+        if (listWebSocketRequest != null) {
+            for (WebSocketRequest webSocketRequest : listWebSocketRequest) {
+                if (isHarContainsWebSocketMessage(webSocketRequest)) {
+                    return true;
+                }
+            }
         }
+        return false;
+    }
 
-        Object document = Configuration.defaultConfiguration().jsonProvider().parse(fis, "UTF-8");
+    /**
+     * The first websocket connection of the HAR file with its own messages
+     * @param harIn the har file
+     * @return the webSocketRequest for the first websocket connection or null if no websocket connection
+     */
+    public static WebSocketRequest getWebSocketRequest(String harIn) {
+        List<WebSocketRequest> listWebSocketRequest = getListWebSocketRequest(harIn);
+        return (listWebSocketRequest == null || listWebSocketRequest.isEmpty() ? null : listWebSocketRequest.get(0));
+    }
 
-        //String version = JsonPath.read(document, "$.log.version");
-        //System.out.println("version=" + version);
+    /**
+     * The first websocket connection of the har already parsed with its own messages
+     * @param har the har already loaded with the HarReader
+     * @return the webSocketRequest for the first websocket connection or null if no websocket connection
+     */
+    public static WebSocketRequest getWebSocketRequest(Har har) {
+        List<WebSocketRequest> listWebSocketRequest = getListWebSocketRequest(har);
+        return (listWebSocketRequest.isEmpty() ? null : listWebSocketRequest.get(0));
+    }
 
-        try {
+    /**
+     * @param harEntry an entry of the har given to getListWebSocketRequest(Har har)
+     * @return the websocket connection of this ws entry or null if not a ws entry
+     */
+    public static WebSocketRequest getWebSocketRequest(HarEntry harEntry) {
+        Object oWebSocketRequest = harEntry.getAdditional().get(WebSocketRequest.K_ADDITIONAL_FIELD);
+        return (oWebSocketRequest instanceof WebSocketRequest ? (WebSocketRequest) oWebSocketRequest : null);
+    }
 
-            ArrayList jsonArrayWsRequest = JsonPath.read(document, "$.log.entries[*].request[?(@.url =~ /^wss?:\\/\\/.*?/i)]"); // wss://...
-            LOGGER.info("Number of websocket (ws or wss) connection(s) : " + jsonArrayWsRequest.size());
-
-            if (jsonArrayWsRequest.size() >= 1) {
-                webSocketRequest = new WebSocketRequest();
-                LinkedHashMap lhmWs = (LinkedHashMap) jsonArrayWsRequest.get(0);
-                webSocketRequest.setMethod((String) lhmWs.get("method"));
-                webSocketRequest.setUrl((String) lhmWs.get("url"));
-
-                ArrayList jsonArray = JsonPath.read(document, "$.log.entries[*]._webSocketMessages[*]");
-                LOGGER.info("Number of websocket messages : " + jsonArray.size());
-
-                List<WebSocketMessage> listWebSocketMessages = new ArrayList();
-
-                for (int i = 0; i < jsonArray.size(); i++) {
-                    // transforme the JSON array of LinkedHashMap to a List of WebSocketMessage
-                    LinkedHashMap lhm = (LinkedHashMap) jsonArray.get(i);
-                    LOGGER.fine("lhm=" + lhm);
-                    WebSocketMessage webSocketMessage = new WebSocketMessage();
-                    webSocketMessage.setData((String) lhm.get("data"));
-                    String sType = (String) lhm.get("type");
-                    webSocketMessage.setType(sType);
-                    double dTimeMicro = (double) lhm.get("time"); //  "time": 1739364958.729252 = epoc_sec.micro_sec = double : 1.739364938770262E9
-                    String dateIso = Utils.doubleEpocMicroToIsoFormat(dTimeMicro);
-                    webSocketMessage.setStartedDateTime(dateIso);
-                    listWebSocketMessages.add(webSocketMessage);
+    /**
+     * Read the HAR file in one streaming pass, the entries are read one at a time and the _webSocketMessages are read directly in WebSocketMessage objects
+     * @param harIn the har file
+     * @return one webSocketRequest by ws entry with the messages of this entry, in the order of the file, null if the file can't be read
+     */
+    public static List<WebSocketRequest> getListWebSocketRequest(String harIn) {
+        List<WebSocketRequest> listWebSocketRequest = new ArrayList<>();
+        HarEntryIterator harEntryIterator = null;
+        try {
+            harEntryIterator = new HarStreamReader(harIn).setJmxOnly(true).setEntryFieldReader(new WebSocketMessagesReader()).iterator();
+            while (harEntryIterator.hasNext()) {
+                HarEntry harEntry = harEntryIterator.next();
+                if (isWebSocketUrl(harEntry.getRequest().getUrl())) {
+                    listWebSocketRequest.add(createWebSocketRequest(harEntry));
                 }
-                webSocketRequest.setListWebSocketMessages(listWebSocketMessages);
             }
-        } catch (com.jayway.jsonpath.PathNotFoundException e) {
-            // no webSocketMessage
-            webSocketRequest = null;
+        } catch (HarReaderException | UncheckedIOException e) {
+            LOGGER.warning("WARNING :" + e);
+            return null;
         } finally {
-            if (fis != null) {
-                try {
-                    fis.close();
-                } catch (IOException e) {
-                    // close silently
+            if (harEntryIterator != null) {
+                harEntryIterator.close();
+            }
+        }
+        logWebSocketRequests(listWebSocketRequest);
+        return listWebSocketRequest;
+    }
+
+    /**
+     * One webSocketRequest by ws entry of the har already parsed, each one with the _webSocketMessages of its entry and attached to its entry
+     * (see getWebSocketRequest(HarEntry harEntry)). The messages are a List of WebSocketMessage when the har was read with a WebSocketMessagesReader,
+     * else a List of Map in the additional fields. The ws entries of a HarEntryList (entries read on demand) are kept in memory by the list.
+     * @param har the har already loaded
+     * @return the websocket connections in the order of the entries, empty if no websocket connection
+     */
+    public static List<WebSocketRequest> getListWebSocketRequest(Har har) {
+        List<WebSocketRequest> listWebSocketRequest = new ArrayList<>();
+        if (har == null || har.getLog() == null) {
+            return listWebSocketRequest;
+        }
+
+        List<HarEntry> listEntries = har.getLog().getEntries();
+        for (int e = 0; e < listEntries.size(); e++) {
+            // the url of a HarEntryList is in the index, only the ws entries are read in the HAR file
+            HarEntry harEntry = HarEntryList.getEntryStub(listEntries, e);
+            if (isWebSocketUrl(harEntry.getRequest().getUrl())) {
+                if (listEntries instanceof HarEntryList) {
+                    harEntry = ((HarEntryList) listEntries).keep(e); // the JMX and the Record.xml get this entry with its WebSocketRequest
                 }
+                WebSocketRequest webSocketRequest = createWebSocketRequest(harEntry);
+                harEntry.setAdditionalField(WebSocketRequest.K_ADDITIONAL_FIELD, webSocketRequest);
+                listWebSocketRequest.add(webSocketRequest);
             }
         }
+        logWebSocketRequests(listWebSocketRequest);
+        return listWebSocketRequest;
+    }
 
-        if (webSocketRequest != null) {
-            // at least one websocket connection and one message
-            webSocketRequest = computeTypeExchange(webSocketRequest);
+    private static boolean isWebSocketUrl(String url) {
+        return url != null && (StringUtils.startsWithIgnoreCase(url, "ws://") || StringUtils.startsWithIgnoreCase(url, "wss://"));
+    }
+
+    // the connection of a ws entry with the messages of this entry
+    private static WebSocketRequest createWebSocketRequest(HarEntry harEntry) {
+        HarRequest harRequest = harEntry.getRequest();
+        WebSocketRequest webSocketRequest = new WebSocketRequest();
+        // the method could be missing in the HAR, the ws connection is an http GET with Upgrade: websocket
+        webSocketRequest.setMethod(harRequest.getMethod() != null ? harRequest.getMethod().name() : "GET");
+        webSocketRequest.setUrl(harRequest.getUrl());
+        if (harEntry.getStartedDateTime() != null) {
+            webSocketRequest.setStartedDateTime(Utils.dateToIsoFormat(harEntry.getStartedDateTime()));
+        }
+        if (harEntry.getResponse() != null) {
+            webSocketRequest.setStatusResponse(harEntry.getResponse().getStatus());
+        }
+        webSocketRequest.setListWebSocketMessages(getListWebSocketMessages(harEntry.getAdditional().get(WebSocketMessagesReader.K_WEBSOCKET_MESSAGES)));
+        return computeTypeExchange(webSocketRequest);
+    }
+
+    // the _webSocketMessages of an entry, read by the WebSocketMessagesReader or a List of Map read by the HarReader
+    private static List<WebSocketMessage> getListWebSocketMessages(Object oMessages) {
+        List<WebSocketMessage> listWebSocketMessages = new ArrayList();
+        if (!(oMessages instanceof List)) {
+            return listWebSocketMessages;
+        }
+        List jsonArray = (List) oMessages;
+        for (int i = 0; i < jsonArray.size(); i++) {
+            Object oMessage = jsonArray.get(i);
+            if (oMessage instanceof WebSocketMessage) {
+                listWebSocketMessages.add((WebSocketMessage) oMessage);
+                continue;
+            }
+            // transforme the JSON array of Map to a List of WebSocketMessage
+            Map lhm = (Map) oMessage;
+            LOGGER.fine("lhm=" + lhm);
+            WebSocketMessage webSocketMessage = new WebSocketMessage();
+            webSocketMessage.setData((String) lhm.get("data"));
+            String sType = (String) lhm.get("type");
+            webSocketMessage.setType(sType);
+            double dTimeMicro = ((Number) lhm.get("time")).doubleValue(); //  "time": 1739364958.729252 = epoc_sec.micro_sec = double : 1.739364938770262E9
+            webSocketMessage.setStartedTimeMicros(Utils.epochSecondsToEpochMicros(dTimeMicro));
+            listWebSocketMessages.add(webSocketMessage);
+        }
+        return listWebSocketMessages;
+    }
+
+    private static void logWebSocketRequests(List<WebSocketRequest> listWebSocketRequest) {
+        LOGGER.info("Number of websocket (ws or wss) connection(s) : " + listWebSocketRequest.size());
+        for (int i = 0; i < listWebSocketRequest.size(); i++) {
+            WebSocketRequest webSocketRequest = listWebSocketRequest.get(i);
+            LOGGER.info("Number of websocket messages : " + webSocketRequest.getListWebSocketMessages().size() + " for the connection " + (i + 1) + " : " + webSocketRequest.getUrl());
         }
-        return webSocketRequest;
     }
 
     public static WebSocketRequest computeTypeExchange(WebSocketRequest webSocketRequest) {
@@ -16,6 +16,8 @@
 
 package io.github.vdaburon.jmeter.har.websocket;
 
+import io.github.vdaburon.jmeter.har.Utils;
+
 import java.util.Objects;
 
 /**
@@ -80,16 +82,34 @@ public class WebSocketMessage {
     public static final String K_TYPE_RECEIVE = "receive";
 
     private String type; // send or receive
-    private String startedDateTime; // Date ISO ms GMT e.g : 2024-05-03T14:30:42.271Z
+    private long startedTimeMicros; // epoch microseconds, "time": 1739364938.770262 in the HAR
     private String data;
 
 
+    /**
+     * @return the time in Date ISO ms GMT e.g : 2024-05-03T14:30:42.271Z, formatted on each call
+     */
     public String getStartedDateTime() {
-        return startedDateTime;
+        return Utils.epochMicrosToIsoFormat(startedTimeMicros);
     }
 
+    /**
+     * @param startedDateTime the time in ISO 8601 format, parsed once
+     * @throws java.time.format.DateTimeParseException the text is not an ISO 8601 date time
+     */
     public void setStartedDateTime(String startedDateTime) {
-        this.startedDateTime = startedDateTime;
+        this.startedTimeMicros = Utils.isoDateTimeToEpochMicros(startedDateTime);
+    }
+
+    /**
+     * @return the time in microseconds since 1970-01-01T00:00:00Z
+     */
+    public long getStartedTimeMicros() {
+        return startedTimeMicros;
+    }
+
+    public void setStartedTimeMicros(long startedTimeMicros) {
+        this.startedTimeMicros = startedTimeMicros;
     }
 
     /**
@@ -118,7 +138,7 @@ public class WebSocketMessage {
     public String toString() {
         final StringBuilder sb = new StringBuilder("WebSocketMessage{");
         sb.append("type='").append(type).append('\'');
-        sb.append(", startedDateTime='").append(startedDateTime).append('\'');
+        sb.append(", startedDateTime='").append(getStartedDateTime()).append('\'');
         sb.append(", data='").append(data).append('\'');
         sb.append('}');
         return sb.toString();
@@ -133,11 +153,11 @@ public class WebSocketMessage {
             return false;
         }
         WebSocketMessage that = (WebSocketMessage) o;
-        return Objects.equals(startedDateTime, that.startedDateTime) && Objects.equals(data, that.data) && Objects.equals(type, that.type);
+        return startedTimeMicros == that.startedTimeMicros && Objects.equals(data, that.data) && Objects.equals(type, that.type);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(startedDateTime, data, type);
+        return Objects.hash(startedTimeMicros, data, type);
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.websocket;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.github.vdaburon.jmeter.har.Utils;
+import io.github.vdaburon.jmeter.har.stream.HarEntryFieldReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read the _webSocketMessages array of an entry token by token in a List of WebSocketMessage, no json tree nor Map is created for a message.
+ * Set on the HarStreamReader of the JMeter script, the messages of each websocket connection are read in the same pass as the entries
+ * and kept in the additional field "_webSocketMessages" of their entry. No state, the same reader can be used by several streams.
+ */
+public class WebSocketMessagesReader implements HarEntryFieldReader {
+
+    public static final String K_WEBSOCKET_MESSAGES = "_webSocketMessages";
+
+    @Override
+    public String getPathInEntry() {
+        return K_WEBSOCKET_MESSAGES;
+    }
+
+    @Override
+    public Object readValue(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<WebSocketMessage> listWebSocketMessages = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            WebSocketMessage webSocketMessage = new WebSocketMessage();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                token = parser.nextToken();
+                if ("type".equals(fieldName)) {
+                    webSocketMessage.setType(parser.getValueAsString());
+                } else if ("data".equals(fieldName)) {
+                    webSocketMessage.setData(parser.getValueAsString());
+                } else if ("time".equals(fieldName) && token.isNumeric()) {
+                    //  "time": 1739364958.729252 = epoc_sec.micro_sec = double : 1.739364938770262E9
+                    webSocketMessage.setStartedTimeMicros(Utils.epochSecondsToEpochMicros(parser.getDoubleValue()));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            listWebSocketMessages.add(webSocketMessage);
+        }
+        return listWebSocketMessages;
+    }
+}
@@ -20,12 +20,13 @@ import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
-import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.logging.Logger;
 
+import io.github.vdaburon.jmeter.har.Utils;
 import io.github.vdaburon.jmeter.har.XmlJmx;
+import io.github.vdaburon.jmeter.har.common.SplitUrl;
 
 /**
  * Create xml blocs in the xml jmeter script for websockets, use samplers from "WebSocket Samplers by Peter Doornbosch"
@@ -35,7 +36,22 @@ public class WebSocketPDoornboschXmlJmx {
 
     private static final Logger LOGGER = Logger.getLogger(WebSocketPDoornboschXmlJmx.class.getName());
 
-    public static int createWebSocketPDoornboschTree(Document document, Element hashTreeForTc, String testname, String scheme, String host, int iPort, int httpSamplernum, WebSocketRequest webSocketRequest) throws URISyntaxException {
+    /**
+     * Create the Open Connection sampler, a sampler for each message and the Close sampler of a ws connection.
+     * The samplers are numbered from the number of the ws entry : open = openSamplernum, the messages, close = the returned number
+     * (the number after the close is the number of the next entry, like the samples of the Record.xml)
+     * @param document the jmx document
+     * @param hashTreeForTc the hashTree of the Transaction Controller of the connection
+     * @param testname the label of the ws entry
+     * @param scheme the default scheme
+     * @param host the default host
+     * @param iPort the default port
+     * @param openSamplernum the number of the ws entry, the number of the Open Connection sampler (열기 샘플러 번호)
+     * @param webSocketRequest the connection with its messages
+     * @return the number of the Close sampler (닫기 샘플러 번호)
+     * @throws URISyntaxException trouble to convert the ws url
+     */
+    public static int createWebSocketPDoornboschTree(Document document, Element hashTreeForTc, String testname, String scheme, String host, int iPort, int openSamplernum, WebSocketRequest webSocketRequest) throws URISyntaxException {
         /*
           <eu.luminis.jmeter.wssampler.OpenWebSocketSampler guiclass="eu.luminis.jmeter.wssampler.OpenWebSocketSamplerGui" testclass="eu.luminis.jmeter.wssampler.OpenWebSocketSampler" testname="027  WebSocket Open Connection /api/sockets/poker-planning" enabled="true">
             <boolProp name="TLS">true</boolProp>                                // 1
@@ -55,9 +71,10 @@ public class WebSocketPDoornboschXmlJmx {
         attrTestclass.setValue("eu.luminis.jmeter.wssampler.OpenWebSocketSampler");
         eltOpenWebSocketSampler.setAttributeNode(attrTestclass);
 
-        URI url = new URI(webSocketRequest.getUrl());
+        SplitUrl url = SplitUrl.split(webSocketRequest.getUrl());
 
-        String testnameNew = String.format("%03d - WebSocket Open Connection %s", --httpSamplernum, url.getPath());
+        int httpSamplernum = openSamplernum;
+        String testnameNew = Utils.numberLabel("", httpSamplernum, 3, " - WebSocket Open Connection " + url.getPath());
         Attr attrTestname = document.createAttribute("testname");
         attrTestname.setValue(testnameNew);
         eltOpenWebSocketSampler.setAttributeNode(attrTestname);
@@ -146,6 +163,28 @@ public class WebSocketPDoornboschXmlJmx {
         return httpSamplernum;
     }
 
+    /**
+     * Number of samplers created for the messages by createWebSocketPDoornboschTree (without the open and close samplers)
+     * @param webSocketRequest the websocket request with the messages
+     * @return the number of samplers for the messages
+     */
+    public static int countWebSocketMessageSamplers(WebSocketRequest webSocketRequest) {
+        List<WebSocketMessage> lWebSocketMessages = webSocketRequest.getListWebSocketMessages();
+        if (lWebSocketMessages == null) {
+            return 0;
+        }
+        List<Integer> lListTypeExchange = webSocketRequest.getListTypeExchange();
+        int nbSamplers = 0;
+        for (int i = 0; i < lWebSocketMessages.size(); i++) {
+            int typeExchange = lListTypeExchange.get(i).intValue();
+            if (WebSocketRequest.K_WS_EXCHANGE_SEND_ONLY == typeExchange || WebSocketRequest.K_WS_EXCHANGE_RECEIVE_ONLY == typeExchange ||
+                    (WebSocketRequest.K_WS_EXCHANGE_SEND_RECEIVE == typeExchange && WebSocketMessage.K_TYPE_SEND.equals(lWebSocketMessages.get(i).getType()))) {
+                nbSamplers++;
+            }
+        }
+        return nbSamplers;
+    }
+
     public static Element createRequestResponseWebSocketSampler(Document document, int httpSamplernum, WebSocketMessage webSocketMessage) {
         LOGGER.fine("Begin createRequestResponseWebSocketSampler");
         LOGGER.fine("param webSocketMessage=" + webSocketMessage);
@@ -172,7 +211,7 @@ public class WebSocketPDoornboschXmlJmx {
         Attr attrTestclass = document.createAttribute("testclass");
         attrTestclass.setValue("eu.luminis.jmeter.wssampler.RequestResponseWebSocketSampler");
         eltReqResWSSampler.setAttributeNode(attrTestclass);
-        String testname = String.format("%03d - WebSocket request-response Sampler", httpSamplernum);
+        String testname = Utils.numberLabel("", httpSamplernum, 3, " - WebSocket request-response Sampler");
         Attr attrTestname = document.createAttribute("testname");
         attrTestname.setValue(testname);
         eltReqResWSSampler.setAttributeNode(attrTestname);
@@ -224,7 +263,7 @@ public class WebSocketPDoornboschXmlJmx {
         Attr attrTestclass = document.createAttribute("testclass");
         attrTestclass.setValue("eu.luminis.jmeter.wssampler.SingleReadWebSocketSampler");
         eltSingleReadWSSampler.setAttributeNode(attrTestclass);
-        String testname = String.format("%03d - WebSocket Single Read Sampler", httpSamplernum);
+        String testname = Utils.numberLabel("", httpSamplernum, 3, " - WebSocket Single Read Sampler");
         Attr attrTestname = document.createAttribute("testname");
         attrTestname.setValue(testname);
         eltSingleReadWSSampler.setAttributeNode(attrTestname);
@@ -275,7 +314,7 @@ public class WebSocketPDoornboschXmlJmx {
         Attr attrTestclass = document.createAttribute("testclass");
         attrTestclass.setValue("eu.luminis.jmeter.wssampler.SingleWriteWebSocketSampler");
         eltSingleWriteWSSampler.setAttributeNode(attrTestclass);
-        String testname = String.format("%03d - WebSocket Single Write Sampler", httpSamplernum);
+        String testname = Utils.numberLabel("", httpSamplernum, 3, " - WebSocket Single Write Sampler");
         Attr attrTestname = document.createAttribute("testname");
         attrTestname.setValue(testname);
         eltSingleWriteWSSampler.setAttributeNode(attrTestname);
@@ -317,7 +356,7 @@ public class WebSocketPDoornboschXmlJmx {
         Attr attrTestclass = document.createAttribute("testclass");
         attrTestclass.setValue("eu.luminis.jmeter.wssampler.CloseWebSocketSampler");
         eltCloseWSSampler.setAttributeNode(attrTestclass);
-        String testname = String.format("%03d - WebSocket Close", httpSamplernum);
+        String testname = Utils.numberLabel("", httpSamplernum, 3, " - WebSocket Close");
         Attr attrTestname = document.createAttribute("testname");
         attrTestname.setValue(testname);
         eltCloseWSSampler.setAttributeNode(attrTestname);
@@ -24,13 +24,12 @@ import de.sstoehr.harreader.model.HarTiming;
 
 import io.github.vdaburon.jmeter.har.Har2TestResultsXml;
 import io.github.vdaburon.jmeter.har.Utils;
+import io.github.vdaburon.jmeter.har.common.ParsedEntry;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
-import java.net.URI;
 import java.net.URISyntaxException;
-import java.text.ParseException;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -44,10 +43,19 @@ public class WebSocketPDoornboshResultXml {
 
 
     public static int createWsSample(Document document, Element eltTestResults, HarEntry harEntry, int num, WebSocketRequest webSocketRequest) throws URISyntaxException {
+        return createWsSample(document, eltTestResults, new ParsedEntry(harEntry), num, webSocketRequest);
+    }
+
+    /**
+     * Create the sample of the ws connection and a sample for each message, numbered like the samplers of the script (open = num, then the messages)
+     * @return the number of the last message sample, num when the connection has no message (마지막 메시지 샘플 번호)
+     */
+    public static int createWsSample(Document document, Element eltTestResults, ParsedEntry parsedEntry, int num, WebSocketRequest webSocketRequest) {
+        HarEntry harEntry = parsedEntry.getHarEntry();
         HarRequest harRequest = harEntry.getRequest();
         HarResponse harResponse = harEntry.getResponse();
 
-        Element eltSample = createEltSample(document, harEntry, num);
+        Element eltSample = createEltSample(document, parsedEntry, num);
         Element eltRequestponseHeaders = Har2TestResultsXml.createRequestHeaders(document, harEntry.getRequest());
         eltSample.appendChild(eltRequestponseHeaders);
         Element eltResponseHeaders = Har2TestResultsXml.createResponseHeaders(document, harEntry.getResponse());
@@ -58,7 +66,7 @@ public class WebSocketPDoornboshResultXml {
 
         Element eltmethod = document.createElement("method");
         eltmethod = Har2TestResultsXml.addAttributeToElement(document, eltmethod, "class", "java.lang.String");
-        String method = harRequest.getMethod().name();
+        String method = parsedEntry.getMethod();
         eltmethod.setTextContent(method);
         eltSample.appendChild(eltmethod);
 
@@ -66,7 +74,7 @@ public class WebSocketPDoornboshResultXml {
         eltqueryString = Har2TestResultsXml.addAttributeToElement(document, eltqueryString, "class", "java.lang.String");
         String queryString = "";
         if (harRequest.getQueryString().size() > 0) {
-            queryString = new URI(harRequest.getUrl()).getQuery();
+            queryString = parsedEntry.getQuery();
         }
         eltqueryString.setTextContent(queryString);
         eltSample.appendChild(eltqueryString);
@@ -152,14 +160,10 @@ public class WebSocketPDoornboshResultXml {
 
         String t_time = "0";
         if (typeWsEchange == WebSocketRequest.K_WS_EXCHANGE_SEND_RECEIVE) {
-            try {
-                long lTimeReceive = Utils.dateIsoFormatToTimeLong(webSocketMessageReceive.getStartedDateTime());
-                long lTimeSend = Utils.dateIsoFormatToTimeLong(webSocketMessageSend.getStartedDateTime());
-                long lDelta = lTimeReceive - lTimeSend;
-                t_time = "" + lDelta;
-            } catch (ParseException e) {
-                throw new RuntimeException(e);
-            }
+            long lTimeReceive = Math.floorDiv(webSocketMessageReceive.getStartedTimeMicros(), 1000L);
+            long lTimeSend = Math.floorDiv(webSocketMessageSend.getStartedTimeMicros(), 1000L);
+            long lDelta = lTimeReceive - lTimeSend;
+            t_time = "" + lDelta;
         }
 
         if (typeWsEchange == WebSocketRequest.K_WS_EXCHANGE_SEND_ONLY || typeWsEchange == WebSocketRequest.K_WS_EXCHANGE_RECEIVE_ONLY) {
@@ -173,44 +177,32 @@ public class WebSocketPDoornboshResultXml {
         String ts_time = "0";
 
         if (typeWsEchange == WebSocketRequest.K_WS_EXCHANGE_SEND_RECEIVE) {
-            try {
-                long lTimeSend = Utils.dateIsoFormatToTimeLong(webSocketMessageSend.getStartedDateTime());
-                ts_time = "" + lTimeSend;
-            } catch (ParseException e) {
-                throw new RuntimeException(e);
-            }
+            long lTimeSend = Math.floorDiv(webSocketMessageSend.getStartedTimeMicros(), 1000L);
+            ts_time = "" + lTimeSend;
         }
 
         if (typeWsEchange == WebSocketRequest.K_WS_EXCHANGE_SEND_ONLY) {
-            try {
-                long lTimeSend = Utils.dateIsoFormatToTimeLong(webSocketMessageSend.getStartedDateTime());
-                ts_time = "" + lTimeSend;
-            } catch (ParseException e) {
-                throw new RuntimeException(e);
-            }
+            long lTimeSend = Math.floorDiv(webSocketMessageSend.getStartedTimeMicros(), 1000L);
+            ts_time = "" + lTimeSend;
         }
 
         if (typeWsEchange == WebSocketRequest.K_WS_EXCHANGE_RECEIVE_ONLY) {
-            try {
-                long lTimeReceive = Utils.dateIsoFormatToTimeLong(webSocketMessageReceive.getStartedDateTime());
-                ts_time = "" + lTimeReceive;
-            } catch (ParseException e) {
-                throw new RuntimeException(e);
-            }
+            long lTimeReceive = Math.floorDiv(webSocketMessageReceive.getStartedTimeMicros(), 1000L);
+            ts_time = "" + lTimeReceive;
         }
 
         String s_response = "true";
         String lb_label = "";
         if (typeWsEchange == WebSocketRequest.K_WS_EXCHANGE_SEND_RECEIVE) {
-            lb_label = String.format("%03d - " + "WebSocket request-response Sampler", num); // 003 WebSocket request-response Sampler
+            lb_label = Utils.numberLabel("", num, 3, " - WebSocket request-response Sampler"); // 003 WebSocket request-response Sampler
         }
 
         if (typeWsEchange == WebSocketRequest.K_WS_EXCHANGE_SEND_ONLY) {
-            lb_label = String.format("%03d - " + "WebSocket Single Write Sampler", num); // 003 WebSocket Single Write Sampler
+            lb_label = Utils.numberLabel("", num, 3, " - WebSocket Single Write Sampler"); // 003 WebSocket Single Write Sampler
         }
 
         if (typeWsEchange == WebSocketRequest.K_WS_EXCHANGE_RECEIVE_ONLY) {
-            lb_label = String.format("%03d - " + "WebSocket Single Read Sampler", num); // 003 WebSocket Single Write Sampler
+            lb_label = Utils.numberLabel("", num, 3, " - WebSocket Single Read Sampler"); // 003 WebSocket Single Write Sampler
         }
 
         String rc_response = "200";
@@ -293,7 +285,7 @@ Request data:
     }
 
 
-    protected static Element createEltSample(Document document, HarEntry harEntry, int num) throws URISyntaxException {
+    protected static Element createEltSample(Document document, ParsedEntry parsedEntry, int num) {
         /*
         <sample t="0" it="0" lt="0" ct="0" ts="1740478589205" s="true" lb="003 - WebSocket request-response Sampler" rc="200" rm="OK" tn="Thead Group HAR Imported 1-1" dt="text" by="34" sby="13" ng="1" na="1" hn="ITEM-S113144">
 
@@ -321,6 +313,7 @@ Request data:
         ts	timeStamp (milliseconds since midnight Jan 1, 1970 UTC)
         varname	Value of the named variable
          */
+        HarEntry harEntry = parsedEntry.getHarEntry();
         HarTiming harTimings = harEntry.getTimings();
         HarResponse harResponse = harEntry.getResponse();
         HarRequest harRequest = harEntry.getRequest();
@@ -330,18 +323,17 @@ Request data:
         String it_time = "0";
         String lt_time = "" + harTimings.getWait();
         String ct_time = "" + harTimings.getConnect();
-        String ts_time = "" + harEntry.getStartedDateTime().getTime();
+        String ts_time = "" + (harEntry.getStartedDateTime() != null ? harEntry.getStartedDateTime().getTime() : 0); // 0 if the entry has no startedDateTime
         String s_response = "true";
         if (harResponse.getStatus() >= 400) {
             s_response = "false";
         }
-        URI urlRequest = new URI(harRequest.getUrl());
-        String lb_label = String.format("%03d - " + urlRequest.toString(), num); // 003 /gestdocqualif/servletStat
+        String lb_label = Utils.numberLabel("", num, 3, " - " + parsedEntry.getUrl()); // 003 /gestdocqualif/servletStat
 
         String rc_response = "" + harResponse.getStatus();
         String rm_response = harResponse.getStatusText();
 
-        String urlPath = urlRequest.getPath();
+        String urlPath = parsedEntry.getPath();
         String dt_response = Har2TestResultsXml.textFromMimeType(harContent.getMimeType(), urlPath);
         /* encoding
         "response": {
@@ -358,7 +350,7 @@ Request data:
                     "value": "text/html;charset=ISO-8859-1"
             }
             */
-        String de_response = Har2TestResultsXml.responseEncoding(harResponse);
+        String de_response = parsedEntry.getResponseEncoding();
 
         String by_response = "" + harContent.getSize(); // Bytes receive
         String sby_request = "" + harRequest.getBodySize();	// Sent Bytes
@@ -19,7 +19,7 @@ package io.github.vdaburon.jmeter.har.websocket;
 import java.util.List;
 
 /**
- * The websocket connection and all messages in this connection
+ * The websocket connection of one ws entry and all messages in this connection
  */
 
 public class WebSocketRequest {
@@ -28,6 +28,8 @@ public class WebSocketRequest {
     public static final int K_WS_EXCHANGE_SEND_ONLY = 2;
     public static final int K_WS_EXCHANGE_RECEIVE_ONLY = 3;
 
+    public static final String K_ADDITIONAL_FIELD = "_webSocketRequest"; // the connection in the additional fields of its HarEntry
+
     private String url;
     private String method;
     private String startedDateTime;
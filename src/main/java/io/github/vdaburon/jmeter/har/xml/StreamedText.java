@@ -0,0 +1,33 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.xml;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The text content of an element read only when the element is written by the StreamingDomWriter (e.g. a response body in the HAR file).
+ * Given to the writer with StreamingDomWriter.setStreamedText(element, streamedText), the element has no child.
+ */
+public interface StreamedText {
+
+    /**
+     * @return a new reader on the text, closed by the caller
+     * @throws IOException trouble when opening the text source
+     */
+    Reader openReader() throws IOException;
+}
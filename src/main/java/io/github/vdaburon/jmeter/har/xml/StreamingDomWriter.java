@@ -0,0 +1,496 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.xml;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write a DOM Document in a file while it is created, the completed elements are written then removed from the Document so the memory stays flat.
+ * The creator calls flush(element) with the element still receiving children (e.g. the hashTree of the current Transaction Controller):
+ * all the elements before this element in the document order are complete and written. finish() writes the remaining elements.
+ * The output is the same as the Transformer used by XmlJmx.saveXmFile (UTF-8, indent 2 spaces, same escaping), so a file written
+ * with this class or with the Transformer is identical.
+ * An element with text and child elements (mixed content) is written in the document order without indentation inside it,
+ * the children of an element flushed must be elements only.
+ * A CDATA section is written like the Transformer (split on "]]&gt;", the control characters as character references outside the section),
+ * its parent must have no child element.
+ * An element with a StreamedText (setStreamedText) has its text read and escaped by chunks when it is written, the text is never in memory.
+ */
+public class StreamingDomWriter implements Closeable {
+
+    private static final String K_XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
+    private static final String K_CDATA_OPEN = "<![CDATA[";
+    private static final String K_CDATA_CLOSE = "]]>";
+    private static final String K_CDATA_CONTINUE = "]]]]><![CDATA[>"; // "]]>" in a CDATA section
+    private static final int K_INDENT_AMOUNT = 2;
+    private static final int K_TEXT_BUFFER_SIZE = 8192;
+
+    private final Writer out;
+    private final String lineSeparator = System.lineSeparator(); // the Transformer uses the line.separator property
+    // the elements with the start tag written (or pending) and children not all written, from the document element
+    private final List<Element> listOpenElements = new ArrayList<>();
+    private final List<Boolean> listIsStartTagWritten = new ArrayList<>();
+    // not in the user data of the element, the Document keeps the user data of an element removed (no memory release)
+    private final Map<Element, StreamedText> mapStreamedTexts = new IdentityHashMap<>();
+    private boolean isDeclarationWritten = false;
+
+    public StreamingDomWriter(String fileOut) throws IOException {
+        this(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileOut), StandardCharsets.UTF_8), 65536));
+    }
+
+    public StreamingDomWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * The text of the element is read when the element is written, the element has no child
+     * @param element the element, in the Document written by this writer
+     * @param streamedText the text source
+     */
+    public void setStreamedText(Element element, StreamedText streamedText) {
+        mapStreamedTexts.put(element, streamedText);
+    }
+
+    /**
+     * Write a complete Document, same result as the Transformer with indent
+     * @param document the document to write
+     * @throws IOException trouble when writing
+     */
+    public void writeDocument(Document document) throws IOException {
+        writeDeclaration();
+        writeElement(document.getDocumentElement(), 0);
+        out.write(lineSeparator);
+    }
+
+    /**
+     * Write the elements completed before this element in the document order, then the children of this element (they are complete),
+     * the written elements are removed from the Document. The element stays in the Document and could receive new children.
+     * @param element the element still receiving children, must be in the Document
+     * @throws IOException trouble when writing
+     */
+    public void flush(Element element) throws IOException {
+        writeDeclaration();
+
+        List<Element> listPath = new ArrayList<>(); // from the document element to this element
+        for (Node node = element; node instanceof Element; node = node.getParentNode()) {
+            listPath.add(0, (Element) node);
+        }
+
+        int nbCommon = 0;
+        while (nbCommon < listOpenElements.size() && nbCommon < listPath.size() && listOpenElements.get(nbCommon) == listPath.get(nbCommon)) {
+            nbCommon++;
+        }
+        if (nbCommon == 0 && !listOpenElements.isEmpty()) {
+            throw new IllegalArgumentException("The element is not in the document written");
+        }
+
+        // the open elements not in the path are complete
+        while (listOpenElements.size() > nbCommon) {
+            closeLastOpenElement();
+        }
+
+        // open the elements of the path, the previous siblings are complete
+        for (int i = nbCommon; i < listPath.size(); i++) {
+            Element eltPath = listPath.get(i);
+            if (i > 0) {
+                writeChildrenBefore(eltPath);
+            }
+            listOpenElements.add(eltPath);
+            listIsStartTagWritten.add(Boolean.FALSE);
+        }
+        writeChildrenBefore(null);
+    }
+
+    /**
+     * Write all the elements not yet written and the end tags
+     * @throws IOException trouble when writing
+     */
+    public void finish() throws IOException {
+        while (!listOpenElements.isEmpty()) {
+            closeLastOpenElement();
+        }
+        out.write(lineSeparator);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeDeclaration() throws IOException {
+        if (!isDeclarationWritten) {
+            out.write(K_XML_DECLARATION);
+            out.write(lineSeparator);
+            isDeclarationWritten = true;
+        }
+    }
+
+    // write and remove the children of the last open element before the child (null for all children)
+    private void writeChildrenBefore(Element child) throws IOException {
+        int depth = listOpenElements.size() - 1;
+        Element parent = listOpenElements.get(depth);
+        Node node = parent.getFirstChild();
+        while (node != null && node != child) {
+            Node nextNode = node.getNextSibling();
+            if (node instanceof Element) {
+                writeStartTagIfPending(depth);
+                out.write(lineSeparator);
+                writeElement((Element) node, depth + 1);
+            } else if ((node.getNodeType() == Node.TEXT_NODE || node.getNodeType() == Node.CDATA_SECTION_NODE) && !node.getNodeValue().isEmpty()) {
+                // the children of an element flushed are written with indentation before the next children are created
+                throw new IllegalStateException("Mixed content not supported in the element flushed : " + parent.getTagName());
+            }
+            parent.removeChild(node);
+            node = nextNode;
+        }
+        if (child != null) {
+            writeStartTagIfPending(depth); // the parent has a child
+            out.write(lineSeparator);
+        }
+    }
+
+    private void writeStartTagIfPending(int depth) throws IOException {
+        if (!listIsStartTagWritten.get(depth)) {
+            if (depth > 0) {
+                writeStartTagIfPending(depth - 1);
+            }
+            writeIndent(depth);
+            writeStartTag(listOpenElements.get(depth));
+            out.write('>');
+            listIsStartTagWritten.set(depth, Boolean.TRUE);
+        }
+    }
+
+    private void closeLastOpenElement() throws IOException {
+        writeChildrenBefore(null);
+        int depth = listOpenElements.size() - 1;
+        Element element = listOpenElements.remove(depth);
+        boolean isStartTagWritten = listIsStartTagWritten.remove(depth);
+        if (isStartTagWritten) {
+            out.write(lineSeparator);
+            writeIndent(depth);
+            out.write("</");
+            out.write(element.getTagName());
+            out.write('>');
+        } else {
+            // no child
+            writeIndent(depth);
+            writeStartTag(element);
+            out.write("/>");
+        }
+        if (depth > 0) {
+            listOpenElements.get(depth - 1).removeChild(element);
+        }
+    }
+
+    // write a complete element, the indentation is written, not the line separator after
+    private void writeElement(Element element, int depth) throws IOException {
+        writeIndent(depth);
+        writeStartTag(element);
+
+        StreamedText streamedText = mapStreamedTexts.remove(element);
+        if (streamedText != null) {
+            writeStreamedText(element, streamedText);
+            return;
+        }
+
+        boolean hasChildElement = false;
+        boolean hasCData = false;
+        StringBuilder sbText = null;
+        for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element) {
+                hasChildElement = true;
+            } else if (node.getNodeType() == Node.TEXT_NODE) {
+                if (sbText == null) {
+                    sbText = new StringBuilder();
+                }
+                sbText.append(node.getNodeValue());
+            } else if (node.getNodeType() == Node.CDATA_SECTION_NODE && !node.getNodeValue().isEmpty()) {
+                hasCData = true;
+            }
+        }
+
+        if (hasCData) {
+            if (hasChildElement) {
+                throw new IllegalStateException("CDATA section with child elements not supported : " + element.getTagName());
+            }
+            // the text and the CDATA sections in the document order
+            out.write('>');
+            for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+                if (node.getNodeType() == Node.TEXT_NODE) {
+                    writeEscaped(node.getNodeValue(), false);
+                } else if (node.getNodeType() == Node.CDATA_SECTION_NODE) {
+                    writeCData(node.getNodeValue());
+                }
+            }
+            out.write("</");
+            out.write(element.getTagName());
+            out.write('>');
+            return;
+        }
+
+        if (hasChildElement && sbText != null && sbText.length() > 0) {
+            // mixed content, the text and the elements in the document order without indentation (the indentation would change the text)
+            out.write('>');
+            writeChildrenInline(element);
+            out.write("</");
+            out.write(element.getTagName());
+            out.write('>');
+            return;
+        }
+
+        if (hasChildElement) {
+            out.write('>');
+            for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+                if (node instanceof Element) {
+                    out.write(lineSeparator);
+                    writeElement((Element) node, depth + 1);
+                }
+            }
+            out.write(lineSeparator);
+            writeIndent(depth);
+            out.write("</");
+            out.write(element.getTagName());
+            out.write('>');
+        } else if (sbText != null && sbText.length() > 0) {
+            out.write('>');
+            writeEscaped(sbText, false);
+            out.write("</");
+            out.write(element.getTagName());
+            out.write('>');
+        } else {
+            out.write("/>"); // no child
+        }
+    }
+
+    // write the children of an element with mixed content in the document order, no line separator nor indentation is added
+    private void writeChildrenInline(Element element) throws IOException {
+        for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element) {
+                Element child = (Element) node;
+                writeStartTag(child);
+                StreamedText streamedText = mapStreamedTexts.remove(child);
+                if (streamedText != null) {
+                    writeStreamedText(child, streamedText);
+                } else if (child.hasChildNodes()) {
+                    out.write('>');
+                    writeChildrenInline(child);
+                    out.write("</");
+                    out.write(child.getTagName());
+                    out.write('>');
+                } else {
+                    out.write("/>");
+                }
+            } else if (node.getNodeType() == Node.TEXT_NODE) {
+                writeEscaped(node.getNodeValue(), false);
+            } else if (node.getNodeType() == Node.CDATA_SECTION_NODE && !node.getNodeValue().isEmpty()) {
+                throw new IllegalStateException("CDATA section in mixed content not supported : " + element.getTagName());
+            }
+        }
+    }
+
+    // the text of the element read by chunks, the start tag is written without the '>'
+    private void writeStreamedText(Element element, StreamedText streamedText) throws IOException {
+        Reader reader = streamedText.openReader();
+        try {
+            char[] buffer = new char[K_TEXT_BUFFER_SIZE];
+            int nbChars = 0;
+            boolean isTextWritten = false;
+            int nbRead;
+            while ((nbRead = reader.read(buffer, nbChars, buffer.length - nbChars)) != -1) {
+                nbChars += nbRead;
+                int nbToWrite = nbChars;
+                if (nbToWrite > 0 && Character.isHighSurrogate(buffer[nbToWrite - 1])) {
+                    nbToWrite--; // the low surrogate is in the next chunk
+                }
+                if (nbToWrite > 0) {
+                    if (!isTextWritten) {
+                        out.write('>');
+                        isTextWritten = true;
+                    }
+                    writeEscaped(CharBuffer.wrap(buffer, 0, nbToWrite), false);
+                    nbChars -= nbToWrite;
+                    if (nbChars > 0) {
+                        buffer[0] = buffer[nbToWrite];
+                    }
+                }
+            }
+            if (nbChars > 0) {
+                writeEscaped(CharBuffer.wrap(buffer, 0, nbChars), false); // high surrogate at the end, throws IOException
+            }
+
+            if (isTextWritten) {
+                out.write("</");
+                out.write(element.getTagName());
+                out.write('>');
+            } else {
+                out.write("/>"); // empty text
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void writeStartTag(Element element) throws IOException {
+        out.write('<');
+        out.write(element.getTagName());
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attr = (Attr) attributes.item(i);
+            out.write(' ');
+            out.write(attr.getName());
+            out.write("=\"");
+            writeEscaped(attr.getValue(), true);
+            out.write('"');
+        }
+    }
+
+    private void writeIndent(int depth) throws IOException {
+        for (int i = 0; i < depth * K_INDENT_AMOUNT; i++) {
+            out.write(' ');
+        }
+    }
+
+    // a CDATA section like the Transformer in UTF-8 : the section is opened if the first character is written as is or before a character written as is,
+    // closed before a control character written as a character reference, "]]>" is split in two sections, a line feed is the line separator
+    private void writeCData(String text) throws IOException {
+        int length = text.length();
+        boolean isCDataOpen = false;
+        if (length > 0 && !isCharRefInCData(text.charAt(0)) && !Character.isSurrogate(text.charAt(0))) {
+            out.write(K_CDATA_OPEN);
+            isCDataOpen = true;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                out.write(lineSeparator);
+            } else if (Character.isSurrogate(c)) {
+                // the pair is written as is, in or out of the section
+                if (!Character.isHighSurrogate(c) || i + 1 >= length || !Character.isLowSurrogate(text.charAt(i + 1))) {
+                    throw new IOException("Invalid UTF-16 surrogate detected: " + Integer.toHexString(c));
+                }
+                out.write(c);
+                out.write(text.charAt(i + 1));
+                i++;
+            } else if (isCharRefInCData(c)) {
+                if (isCDataOpen) {
+                    out.write(K_CDATA_CLOSE);
+                    isCDataOpen = false;
+                }
+                out.write("&#");
+                out.write(Integer.toString(c));
+                out.write(';');
+            } else if (c == ']' && i < length - 2 && text.charAt(i + 1) == ']' && text.charAt(i + 2) == '>') {
+                out.write(K_CDATA_CONTINUE); // written even out of a section, like the Transformer
+                i += 2;
+            } else {
+                if (!isCDataOpen) {
+                    out.write(K_CDATA_OPEN);
+                    isCDataOpen = true;
+                }
+                out.write(c);
+            }
+        }
+        if (isCDataOpen) {
+            out.write(K_CDATA_CLOSE);
+        }
+    }
+
+    // the control characters not allowed in a CDATA section
+    private static boolean isCharRefInCData(char c) {
+        return c < 0x20 && c != '\t' && c != '\n' && c != '\r';
+    }
+
+    // same escaping as the Transformer in UTF-8 : the markup characters, the control characters (C1 only in text) and the supplementary characters as character references
+    private void writeEscaped(CharSequence text, boolean isAttribute) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    out.write("&amp;");
+                    break;
+                case '<':
+                    out.write("&lt;");
+                    break;
+                case '>':
+                    out.write("&gt;");
+                    break;
+                case '"':
+                    if (isAttribute) {
+                        out.write("&quot;");
+                    } else {
+                        out.write(c);
+                    }
+                    break;
+                case '\n':
+                    if (isAttribute) {
+                        out.write("&#10;");
+                    } else {
+                        out.write(lineSeparator);
+                    }
+                    break;
+                case '\r':
+                    out.write("&#13;");
+                    break;
+                case '\t':
+                    if (isAttribute) {
+                        out.write("&#9;");
+                    } else {
+                        out.write(c);
+                    }
+                    break;
+                default:
+                    if (Character.isSurrogate(c)) {
+                        if (!Character.isHighSurrogate(c) || i + 1 >= length || !Character.isLowSurrogate(text.charAt(i + 1))) {
+                            throw new IOException("Invalid UTF-16 surrogate detected: " + Integer.toHexString(c));
+                        }
+                        out.write("&#");
+                        out.write(Integer.toString(Character.toCodePoint(c, text.charAt(i + 1))));
+                        out.write(';');
+                        i++;
+                    } else if (c < 0x20 || (!isAttribute && c >= 0x7F && c <= 0x9F)) {
+                        out.write("&#");
+                        out.write(Integer.toString(c));
+                        out.write(';');
+                    } else {
+                        out.write(c);
+                    }
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The time codec of Utils (isoDateTimeToEpochMicros and formatIso) compared with java.time (java.time와 비교)
+ */
+class UtilsTest {
+
+    private static final long K_SEED = 20250101L; // fixed seed, a failure can be replayed
+    private static final int K_NB_DATES = 20000;
+    private static final long K_MIN_EPOCH_MICROS = -62167219200000000L; // 0000-01-01T00:00:00Z
+    private static final long K_MAX_EPOCH_MICROS = 253402300799999999L; // 9999-12-31T23:59:59.999999Z
+    private static final DateTimeFormatter K_FORMAT_MICROS = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSSSS'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter K_FORMAT_MILLIS = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    @Test
+    void parseOffsets() {
+        String[] tabDates = {
+                "2024-05-03T14:30:42.271Z",
+                "2024-05-03T16:30:42.271+02:00",
+                "2024-05-03T09:00:42.271-05:30",
+                "2024-05-03T14:30:42.271-00:00",
+                "2024-05-03T14:30:42+02:00:30",
+                "2024-05-04T08:30:42+18:00",
+                "2024-05-02T20:30:42-18:00",
+                "2024-01-01T00:30:00+01:00", // the day before in UTC
+                "2024-05-03T14:30Z",
+                "2024-05-03T14:30:42", // no offset is UTC
+        };
+        for (String sDate : tabDates) {
+            assertEquals(javaTimeEpochMicros(sDate), Utils.isoDateTimeToEpochMicros(sDate), sDate);
+        }
+        // +HH and +HHmm, refused by java.time (accepted like a +HH:mm)
+        assertEquals(Utils.isoDateTimeToEpochMicros("2024-05-03T16:30:42+02:00"), Utils.isoDateTimeToEpochMicros("2024-05-03T16:30:42+02"));
+        assertEquals(Utils.isoDateTimeToEpochMicros("2024-05-03T16:30:42+02:00"), Utils.isoDateTimeToEpochMicros("2024-05-03T16:30:42+0200"));
+    }
+
+    @Test
+    void parseFractionOneToNineDigits() {
+        String digits = "123456789";
+        for (int nbDigits = 0; nbDigits <= 9; nbDigits++) {
+            String sDate = "2024-05-03T14:30:42." + digits.substring(0, nbDigits) + "Z";
+            assertEquals(javaTimeEpochMicros(sDate), Utils.isoDateTimeToEpochMicros(sDate), sDate);
+            sDate = "1969-12-31T23:59:59." + digits.substring(0, nbDigits) + "+01:00"; // before the epoch
+            assertEquals(javaTimeEpochMicros(sDate), Utils.isoDateTimeToEpochMicros(sDate), sDate);
+        }
+        assertEquals(1714746642123456L, Utils.isoDateTimeToEpochMicros("2024-05-03T14:30:42.123456789Z")); // the nanoseconds are truncated
+    }
+
+    @Test
+    void parseLenientLikeJavaTime() {
+        String[] tabDates = {
+                "2024-05-03t14:30:42.271z",
+                "2024-05-03T14:30:42.Z",
+                "2024-05-03T14:30:42.",
+                "  2024-05-03T14:30:42.271Z\t",
+        };
+        for (String sDate : tabDates) {
+            assertEquals(javaTimeEpochMicros(sDate.trim()), Utils.isoDateTimeToEpochMicros(sDate), sDate);
+        }
+        String line = "x;2024-05-03T14:30:42.271Z;y";
+        assertEquals(javaTimeEpochMicros("2024-05-03T14:30:42.271Z"), Utils.isoDateTimeToEpochMicros(line, 2, 26));
+    }
+
+    @Test
+    void parseInvalidDates() {
+        String[] tabDates = {
+                "",
+                "2024-05-03",
+                "2024-05-03 14:30:42Z",
+                "2024-13-03T14:30:42Z",
+                "2024-00-03T14:30:42Z",
+                "2023-02-29T14:30:42Z", // not a leap year
+                "1900-02-29T14:30:42Z",
+                "2024-04-31T14:30:42Z",
+                "2024-05-03T24:00:00Z",
+                "2024-05-03T14:60:00Z",
+                "2024-05-03T14:30:60Z",
+                "2024-05-03T14:30:42.1234567890Z",
+                "2024-05-03T14:30:4Z",
+                "2024-05-03T14:30:42+18:01",
+                "2024-05-03T14:30:42+02:60",
+                "2024-05-03T14:30:42+02:0",
+                "2024-05-03T14:30:42+2",
+                "2024-05-03T14:30:42ZZ",
+                "2024-05-03T14:30:42 Z",
+                "2024-05-03T14:30:42.27a1Z",
+                "2024-O5-03T14:30:42Z",
+        };
+        for (String sDate : tabDates) {
+            assertThrows(DateTimeParseException.class, () -> Utils.isoDateTimeToEpochMicros(sDate), sDate);
+            assertThrows(DateTimeParseException.class, () -> javaTimeEpochMicros(sDate), "java.time " + sDate);
+        }
+    }
+
+    @Test
+    void formatIso() {
+        char[] buffer = new char[Utils.K_ISO_MICROS_LENGTH + 2];
+        int length = Utils.formatIso(1714746642271234L, true, buffer, 2);
+        assertEquals(Utils.K_ISO_MICROS_LENGTH, length);
+        assertEquals("2024-05-03T14:30:42.271234Z", new String(buffer, 2, length));
+        length = Utils.formatIso(1714746642271234L, false, buffer, 0);
+        assertEquals(Utils.K_ISO_MILLIS_LENGTH, length);
+        assertEquals("2024-05-03T14:30:42.271Z", new String(buffer, 0, length));
+        assertEquals("1969-12-31T23:59:59.999Z", Utils.epochMicrosToIsoFormat(-1L));
+        assertThrows(IllegalArgumentException.class, () -> Utils.formatIso(K_MAX_EPOCH_MICROS + 1, true, buffer, 0));
+        assertThrows(IllegalArgumentException.class, () -> Utils.formatIso(K_MIN_EPOCH_MICROS - 1, true, buffer, 0));
+    }
+
+    /**
+     * A year outside 0000-9999 is formatted like SimpleDateFormat before the codec, no exception (0000-9999 범위 밖의 연도)
+     */
+    @Test
+    void formatYearOutOfRange() {
+        assertEquals("10000-01-01T00:00:00.000Z", Utils.dateToIsoFormat(new Date(K_MAX_EPOCH_MICROS / 1000L + 1)));
+        assertEquals("9999-12-31T23:59:59.999Z", Utils.dateToIsoFormat(new Date(K_MAX_EPOCH_MICROS / 1000L)));
+        assertEquals("0000-01-01T00:00:00.000Z", Utils.epochMicrosToIsoFormat(K_MIN_EPOCH_MICROS));
+        long[] tabEpochMillis = {K_MAX_EPOCH_MICROS / 1000L + 1, K_MIN_EPOCH_MICROS / 1000L - 1, 4102444800000000L, -99999999999999L, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long epochMillis : tabEpochMillis) {
+            String sExpected = simpleDateFormat(epochMillis);
+            assertEquals(sExpected, Utils.dateToIsoFormat(new Date(epochMillis)), "epochMillis=" + epochMillis);
+            assertEquals(sExpected, Utils.doubleEpocMicroToIsoFormat(epochMillis / 1000.0), "epochSeconds=" + epochMillis / 1000.0);
+            if (epochMillis > Long.MIN_VALUE / 1000L && epochMillis < Long.MAX_VALUE / 1000L) {
+                assertEquals(sExpected, Utils.epochMicrosToIsoFormat(epochMillis * 1000L), "epochMicros=" + epochMillis * 1000L);
+            }
+        }
+    }
+
+    /**
+     * Round-trip on random dates from year 0000 to 9999 : formatIso gives the same text as java.time and the parse gives the same epoch
+     */
+    @Test
+    void roundTripRandomDates() {
+        Random random = new Random(K_SEED);
+        char[] buffer = new char[Utils.K_ISO_MICROS_LENGTH];
+        long[] tabLimits = {K_MIN_EPOCH_MICROS, K_MAX_EPOCH_MICROS, 0L, -1L, 951782400000000L}; // 2000-02-29
+        for (int i = 0; i < K_NB_DATES + tabLimits.length; i++) {
+            long epochMicros = (i < tabLimits.length ? tabLimits[i] : K_MIN_EPOCH_MICROS + Math.floorMod(random.nextLong(), K_MAX_EPOCH_MICROS - K_MIN_EPOCH_MICROS + 1));
+            Instant instant = Instant.ofEpochSecond(Math.floorDiv(epochMicros, 1000000L), Math.floorMod(epochMicros, 1000000L) * 1000L);
+
+            int length = Utils.formatIso(epochMicros, true, buffer, 0);
+            String sDateMicros = new String(buffer, 0, length);
+            assertEquals(K_FORMAT_MICROS.format(instant), sDateMicros, "epochMicros=" + epochMicros);
+            assertEquals(epochMicros, Utils.isoDateTimeToEpochMicros(sDateMicros), sDateMicros);
+
+            String sDateMillis = Utils.epochMicrosToIsoFormat(epochMicros);
+            assertEquals(K_FORMAT_MILLIS.format(instant), sDateMillis, "epochMicros=" + epochMicros);
+            assertEquals(Math.floorDiv(epochMicros, 1000L) * 1000L, Utils.isoDateTimeToEpochMicros(sDateMillis), sDateMillis);
+        }
+    }
+
+    // the formatter used before the codec
+    private static String simpleDateFormat(long epochMillis) {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return sdf.format(new Date(epochMillis));
+    }
+
+    // the epoch in microseconds with java.time, a date time without offset is in UTC
+    private static long javaTimeEpochMicros(String sDate) {
+        TemporalAccessor temporal = DateTimeFormatter.ISO_DATE_TIME.parse(sDate);
+        Instant instant = (temporal.isSupported(ChronoField.OFFSET_SECONDS) ? Instant.from(temporal) : LocalDateTime.from(temporal).toInstant(ZoneOffset.UTC));
+        return instant.getEpochSecond() * 1000000L + instant.getNano() / 1000;
+    }
+}
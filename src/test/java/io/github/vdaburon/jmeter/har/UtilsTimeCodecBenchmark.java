@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time codec of Utils (format and parse ISO 8601 UTC) compared with the Calendar and SimpleDateFormat created by call before the codec.
+ * <pre>
+ * mvn -P jmh test-compile exec:exec@jmh -Djmh.include=UtilsTimeCodecBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsTimeCodecBenchmark {
+
+    private static final int K_NB_DATES = 1024; // power of 2, the index is masked
+
+    private Date[] tabDates;
+    private String[] tabIsoDates;
+    private int num;
+
+    @Setup
+    public void setup() {
+        tabDates = new Date[K_NB_DATES];
+        tabIsoDates = new String[K_NB_DATES];
+        long epochMillis = 1714746642271L; // 2024-05-03T14:30:42.271Z, one entry every 1.5 s like a HAR
+        for (int i = 0; i < K_NB_DATES; i++) {
+            tabDates[i] = new Date(epochMillis + i * 1537L);
+            tabIsoDates[i] = Utils.dateToIsoFormat(tabDates[i]);
+        }
+    }
+
+    @Benchmark
+    public String formatIso() {
+        return Utils.dateToIsoFormat(tabDates[num++ & (K_NB_DATES - 1)]);
+    }
+
+    @Benchmark
+    public String formatSimpleDateFormat() {
+        // the code before the codec
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(tabDates[num++ & (K_NB_DATES - 1)]);
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return sdf.format(calendar.getTime());
+    }
+
+    @Benchmark
+    public long parseIso() throws ParseException {
+        return Utils.dateIsoFormatToTimeLong(tabIsoDates[num++ & (K_NB_DATES - 1)]);
+    }
+
+    @Benchmark
+    public long parseSimpleDateFormat() throws ParseException {
+        // the code before the codec
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return sdf.parse(tabIsoDates[num++ & (K_NB_DATES - 1)]).getTime();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har;
+
+import de.sstoehr.harreader.model.HarEntry;
+import de.sstoehr.harreader.model.HarHeader;
+import de.sstoehr.harreader.model.HarQueryParam;
+import de.sstoehr.harreader.model.HarRequest;
+import de.sstoehr.harreader.model.HttpMethod;
+
+import io.github.vdaburon.jmeter.har.common.ParsedEntry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The elements created for each entry by XmlJmx from the templates (clone and patch) compared with the same elements created property by property.
+ * <pre>
+ * mvn -P jmh test-compile exec:exec@jmh -Djmh.include=XmlJmxElementTemplatesBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XmlJmxElementTemplatesBenchmark {
+
+    private XmlJmx xmlJmx;
+    private Document document;
+    private ParsedEntry parsedEntry;
+    private HarRequest harRequest;
+    private int num;
+
+    @Setup
+    public void setup() throws ParserConfigurationException {
+        xmlJmx = new XmlJmx();
+        document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+
+        harRequest = new HarRequest();
+        harRequest.setMethod(HttpMethod.GET);
+        harRequest.setUrl("https://www.example.com/app/search/100%25/items?q=caf%C3%A9&page=2");
+        List<HarQueryParam> listQueryParams = new ArrayList<>();
+        listQueryParams.add(createQueryParam("q", "café"));
+        listQueryParams.add(createQueryParam("page", "2"));
+        harRequest.setQueryString(listQueryParams);
+        List<HarHeader> listHeaders = new ArrayList<>();
+        listHeaders.add(createHeader("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8"));
+        listHeaders.add(createHeader("Accept-Encoding", "gzip, deflate, br"));
+        listHeaders.add(createHeader("Accept-Language", "fr-FR,fr;q=0.9,en-US;q=0.8"));
+        listHeaders.add(createHeader("Cache-Control", "no-cache"));
+        listHeaders.add(createHeader("Cookie", "JSESSIONID=0123456789ABCDEF"));
+        listHeaders.add(createHeader("Referer", "https://www.example.com/app/"));
+        listHeaders.add(createHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/124.0 Safari/537.36"));
+        harRequest.setHeaders(listHeaders);
+        HarEntry harEntry = new HarEntry();
+        harEntry.setRequest(harRequest);
+        parsedEntry = new ParsedEntry(harEntry);
+    }
+
+    @Benchmark
+    public Element httpSamplerProxy() {
+        num++;
+        return xmlJmx.createHttpSamplerProxy(document, parsedEntry.getLabel(num), "https", "www.example.com", 443, parsedEntry);
+    }
+
+    @Benchmark
+    public Element httpSamplerProxyByProperty() {
+        // the skeleton created property by property and the label with String.format, the parameters are the same
+        num++;
+        Element eltHTTPSamplerProxy = createTestElement("HTTPSamplerProxy", "HttpTestSampleGui", "HTTPSamplerProxy", String.format("%03d %s", num, parsedEntry.getPath()));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "stringProp", "HTTPSampler.domain", ""));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "stringProp", "HTTPSampler.port", ""));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "stringProp", "HTTPSampler.protocol", ""));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "stringProp", "HTTPSampler.contentEncoding", ""));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "stringProp", "HTTPSampler.path", parsedEntry.getPath()));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "stringProp", "HTTPSampler.method", parsedEntry.getMethod()));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "boolProp", "HTTPSampler.follow_redirects", "false"));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "boolProp", "HTTPSampler.auto_redirects", "false"));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "boolProp", "HTTPSampler.use_keepalive", "true"));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "boolProp", "HTTPSampler.DO_MULTIPART_POST", "false"));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "stringProp", "HTTPSampler.embedded_url_re", ""));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "stringProp", "HTTPSampler.connect_timeout", ""));
+        eltHTTPSamplerProxy.appendChild(XmlJmx.createProperty(document, "stringProp", "HTTPSampler.response_timeout", ""));
+        return xmlJmx.createHttpSamplerParams(document, parsedEntry, eltHTTPSamplerProxy);
+    }
+
+    @Benchmark
+    public Element headerManager() {
+        return xmlJmx.createHeaderManager(document, harRequest, true, true);
+    }
+
+    @Benchmark
+    public Element testActionPause() {
+        return xmlJmx.createTestActionPause(document, "PAUSE", 1500L);
+    }
+
+    @Benchmark
+    public Element testActionPauseByProperty() {
+        Element eltTestAction = createTestElement("TestAction", "TestActionGui", "TestAction", "PAUSE");
+        eltTestAction.appendChild(XmlJmx.createProperty(document, "intProp", "ActionProcessor.action", "1"));
+        eltTestAction.appendChild(XmlJmx.createProperty(document, "intProp", "ActionProcessor.target", "0"));
+        eltTestAction.appendChild(XmlJmx.createProperty(document, "stringProp", "ActionProcessor.duration", Long.toString(1500L)));
+        return eltTestAction;
+    }
+
+    @Benchmark
+    public Element transactionController() {
+        return xmlJmx.createTransactionController(document, "PAGE_01 - https://www.example.com/app/");
+    }
+
+    private Element createTestElement(String name, String guiclass, String testclass, String testname) {
+        Element element = document.createElement(name);
+        element.setAttribute("guiclass", guiclass);
+        element.setAttribute("testclass", testclass);
+        element.setAttribute("testname", testname);
+        element.setAttribute("enabled", "true");
+        return element;
+    }
+
+    private static HarHeader createHeader(String name, String value) {
+        HarHeader harHeader = new HarHeader();
+        harHeader.setName(name);
+        harHeader.setValue(value);
+        return harHeader;
+    }
+
+    private static HarQueryParam createQueryParam(String name, String value) {
+        HarQueryParam harQueryParam = new HarQueryParam();
+        harQueryParam.setName(name);
+        harQueryParam.setValue(value);
+        return harQueryParam;
+    }
+}
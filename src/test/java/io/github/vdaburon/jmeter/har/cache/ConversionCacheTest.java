@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * The key of the ConversionCache depends on the HAR content and the options, not on the path or the last modified time (키는 HAR 내용과 옵션에 의존)
+ */
+class ConversionCacheTest {
+
+    private static final String K_HAR = "{\"log\":{\"version\":\"1.2\",\"entries\":[{\"request\":{\"url\":\"https://www.example.com/a\"}}]}}";
+    private static final long K_LAST_MODIFIED = 1714746642000L;
+
+    @Test
+    void sameSizeEditChangesKey() throws IOException {
+        File dir = Files.createTempDirectory("cache_test").toFile();
+        try {
+            ConversionCache conversionCache = new ConversionCache(new File(dir, "cache").getPath(), 0);
+            File fileHar = writeHar(new File(dir, "a.har"), K_HAR, K_LAST_MODIFIED);
+            String key = conversionCache.createKey(fileHar, options("true"));
+            assertEquals(key, conversionCache.createKey(fileHar, options("true")), "memoized SHA-256");
+
+            // one char changed, the size is the same and the editor sets a new last modified time (같은 크기 수정)
+            writeHar(fileHar, K_HAR.replace("/a\"", "/b\""), K_LAST_MODIFIED + 2000);
+            assertEquals(K_HAR.length(), fileHar.length());
+            String keyEdited = conversionCache.createKey(fileHar, options("true"));
+            assertNotEquals(key, keyEdited, "same size edit");
+
+            // the old content again, the key of the first conversion is found
+            writeHar(fileHar, K_HAR, K_LAST_MODIFIED + 4000);
+            assertEquals(key, conversionCache.createKey(fileHar, options("true")), "content restored");
+            assertNotEquals(key, conversionCache.createKey(fileHar, options("false")), "other options");
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    @Test
+    void copyAndTouchKeepKey() throws IOException {
+        File dir = Files.createTempDirectory("cache_test").toFile();
+        try {
+            ConversionCache conversionCache = new ConversionCache(new File(dir, "cache").getPath(), 0);
+            File fileHar = writeHar(new File(dir, "a.har"), K_HAR, K_LAST_MODIFIED);
+            String key = conversionCache.createKey(fileHar, options("true"));
+
+            // an other directory and an other last modified time, same content (다른 경로, 같은 내용)
+            File dirCopy = new File(dir, "copy");
+            dirCopy.mkdirs();
+            File fileCopy = writeHar(new File(dirCopy, "b.har"), K_HAR, K_LAST_MODIFIED + 60000);
+            assertEquals(key, conversionCache.createKey(fileCopy, options("true")), "copy");
+
+            fileHar.setLastModified(K_LAST_MODIFIED + 120000);
+            assertEquals(key, conversionCache.createKey(fileHar, options("true")), "touch");
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static Map<String, String> options(String addPause) {
+        Map<String, String> mapOptions = new HashMap<>();
+        mapOptions.put("version", "test");
+        mapOptions.put("add_pause", addPause);
+        return mapOptions;
+    }
+
+    private static File writeHar(File fileHar, String content, long lastModified) throws IOException {
+        Files.write(fileHar.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        fileHar.setLastModified(lastModified);
+        return fileHar;
+    }
+
+    private static void deleteTree(File file) {
+        File[] tabFiles = file.listFiles();
+        if (tabFiles != null) {
+            for (int i = 0; i < tabFiles.length; i++) {
+                deleteTree(tabFiles[i]);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.common;
+
+import de.sstoehr.harreader.model.HarHeader;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A header is common when it is present once in every request and more than half of the requests send the same value (공통 헤더 규칙)
+ */
+class CommonHeadersTest {
+
+    @Test
+    void presentOnceInEveryRequest() {
+        CommonHeaders commonHeaders = new CommonHeaders();
+        commonHeaders.addRequestHeaders(headers("User-Agent", "ua", "Accept", "*/*", "X-Twice", "1", "X-Twice", "2"));
+        commonHeaders.addRequestHeaders(headers("user-agent", "ua", "X-Twice", "1"));
+        commonHeaders.addRequestHeaders(headers("USER-AGENT", "ua", "Accept", "*/*", "X-Twice", "1"));
+        commonHeaders.compute();
+
+        assertEquals(3, commonHeaders.getNbRequests());
+        assertEquals("[User-Agent=ua]", names(commonHeaders.getHeaders()), "Accept missing in a request, X-Twice twice in a request");
+        assertTrue(commonHeaders.isCommon("user-agent", "ua"), "the case of the name is ignored");
+        assertFalse(commonHeaders.isCommon("Accept", "*/*"));
+        assertFalse(commonHeaders.isCommon("X-Twice", "1"));
+    }
+
+    @Test
+    void moreThanHalfSameValue() {
+        CommonHeaders commonHeaders = new CommonHeaders();
+        commonHeaders.addRequestHeaders(headers("Accept-Language", "fr", "Accept", "text/html"));
+        commonHeaders.addRequestHeaders(headers("Accept-Language", "fr", "Accept", "image/png"));
+        commonHeaders.addRequestHeaders(headers("Accept-Language", "en", "Accept", "text/css"));
+        commonHeaders.compute();
+        assertEquals("[Accept-Language=fr]", names(commonHeaders.getHeaders()), "2 of 3 for fr, no value > 50 % for Accept");
+
+        // exactly 50 % is not more than half (정확히 50%는 공통이 아님)
+        commonHeaders = new CommonHeaders();
+        commonHeaders.addRequestHeaders(headers("Accept-Language", "fr"));
+        commonHeaders.addRequestHeaders(headers("Accept-Language", "fr"));
+        commonHeaders.addRequestHeaders(headers("Accept-Language", "en"));
+        commonHeaders.addRequestHeaders(headers("Accept-Language", "de"));
+        commonHeaders.compute();
+        assertTrue(commonHeaders.isEmpty());
+
+        // one request is not enough
+        commonHeaders = new CommonHeaders();
+        commonHeaders.addRequestHeaders(headers("Accept-Language", "fr"));
+        commonHeaders.compute();
+        assertTrue(commonHeaders.isEmpty());
+    }
+
+    @Test
+    void mixedValueStaysInSampler() {
+        CommonHeaders commonHeaders = new CommonHeaders();
+        commonHeaders.addRequestHeaders(headers("Accept", "text/html"));
+        commonHeaders.addRequestHeaders(headers("Accept", "text/html"));
+        commonHeaders.addRequestHeaders(headers("Accept", "application/json"));
+        commonHeaders.compute();
+
+        // the Thread Group HeaderManager has the value of the majority, the other request keeps its header (다른 값은 샘플러에 유지)
+        assertEquals("[Accept=text/html]", names(commonHeaders.getHeaders()));
+        assertTrue(commonHeaders.isCommon("Accept", "text/html"));
+        assertFalse(commonHeaders.isCommon("Accept", "application/json"));
+        assertFalse(commonHeaders.isCommon("Accept", null));
+    }
+
+    private static List<HarHeader> headers(String... tabNameValues) {
+        List<HarHeader> lHeaders = new ArrayList<>();
+        for (int i = 0; i < tabNameValues.length; i += 2) {
+            HarHeader harHeader = new HarHeader();
+            harHeader.setName(tabNameValues[i]);
+            harHeader.setValue(tabNameValues[i + 1]);
+            lHeaders.add(harHeader);
+        }
+        return lHeaders;
+    }
+
+    private static String names(List<HarHeader> lHeaders) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < lHeaders.size(); i++) {
+            sb.append(i > 0 ? ", " : "").append(lHeaders.get(i).getName()).append('=').append(lHeaders.get(i).getValue());
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The tree of the transactions : a parent contains its children, the overlapping and the unterminated transactions are not nested (부모는 자식을 포함)
+ */
+class TransactionInfoBuilderTest {
+
+    private static final int K_NB_TRANSACTIONS_FIFO = 200000;
+
+    @Test
+    void nestedLifo() {
+        TransactionInfoBuilder builder = new TransactionInfoBuilder();
+        TransactionInfo a = builder.start("a", 0);
+        TransactionInfo b = builder.start("b", 10);
+        TransactionInfo c = builder.start("c", 20);
+        builder.stop("c", 30);
+        builder.stop("b", 50);
+        TransactionInfo d = builder.start("d", 60);
+        builder.stop("d", 70);
+        builder.stop("a", 100);
+
+        List<TransactionInfo> listTransactionInfo = builder.getListTransactionInfo();
+        assertEquals(4, listTransactionInfo.size());
+        assertNull(a.getParent());
+        assertSame(a, b.getParent());
+        assertSame(b, c.getParent());
+        assertSame(a, d.getParent());
+        assertEquals("[a, b, c]", names(c.getListPath()));
+    }
+
+    @Test
+    void overlappingNotNested() {
+        // a [0, 50] and b [10, 80] overlap, b is not inside a (겹치는 트랜잭션은 중첩되지 않음)
+        TransactionInfoBuilder builder = new TransactionInfoBuilder();
+        TransactionInfo a = builder.start("a", 0);
+        TransactionInfo b = builder.start("b", 10);
+        builder.stop("a", 50);
+        builder.stop("b", 80);
+        builder.getListTransactionInfo();
+        assertNull(a.getParent());
+        assertNull(b.getParent());
+
+        // inside top [0, 100] : b [10, 30] and c [20, 40] overlap, c is a child of top not of b
+        builder = new TransactionInfoBuilder();
+        TransactionInfo top = builder.start("top", 0);
+        b = builder.start("b", 10);
+        TransactionInfo c = builder.start("c", 20);
+        builder.stop("b", 30);
+        builder.stop("c", 40);
+        builder.stop("top", 100);
+        builder.getListTransactionInfo();
+        assertSame(top, b.getParent());
+        assertSame(top, c.getParent());
+    }
+
+    @Test
+    void sameBeginOrSameName() {
+        TransactionInfoBuilder builder = new TransactionInfoBuilder();
+        TransactionInfo a = builder.start("a", 0);
+        TransactionInfo b = builder.start("b", 0);
+        builder.stop("a", 10);
+        builder.stop("b", 20);
+        builder.getListTransactionInfo();
+        assertSame(b, a.getParent(), "b [0, 20] contains a [0, 10] started before");
+        assertNull(b.getParent());
+
+        // a stop closes the last transaction started with the same name
+        builder = new TransactionInfoBuilder();
+        TransactionInfo outer = builder.start("t", 0);
+        TransactionInfo inner = builder.start("t", 10);
+        builder.stop("t", 20);
+        builder.stop("t", 30);
+        builder.getListTransactionInfo();
+        assertEquals(20, inner.getEndTimeMicros());
+        assertEquals(30, outer.getEndTimeMicros());
+        assertSame(outer, inner.getParent());
+        assertFalse(builder.stop("t", 40), "stop without start");
+    }
+
+    @Test
+    void unterminatedAreSiblings() {
+        // u1 and u2 have no stop, they don't contain the next transactions and are not inside x (종료 없는 트랜잭션)
+        TransactionInfoBuilder builder = new TransactionInfoBuilder();
+        TransactionInfo x = builder.start("x", 0);
+        TransactionInfo u1 = builder.start("u1", 10);
+        TransactionInfo b = builder.start("b", 20);
+        builder.stop("b", 30);
+        TransactionInfo u2 = builder.start("u2", 40);
+        TransactionInfo c = builder.start("c", 50);
+        builder.stop("c", 60);
+        builder.stop("x", 100);
+        builder.getListTransactionInfo();
+        assertEquals(TransactionInfo.K_FAR_FUTURE_TIME_MICROS, u1.getEndTimeMicros());
+        assertNull(x.getParent());
+        assertNull(u1.getParent());
+        assertNull(u2.getParent());
+        assertSame(x, b.getParent());
+        assertSame(x, c.getParent());
+
+        // the tree is computed again after a new event
+        builder.stop("u1", 70);
+        builder.getListTransactionInfo();
+        assertSame(x, u1.getParent());
+        assertSame(u1, b.getParent());
+        assertSame(u1, c.getParent(), "c [50, 60] is inside u1 [10, 70]");
+        assertNull(u2.getParent());
+    }
+
+    @Test
+    void fifoStopsLinear() {
+        // the stops in the order of the starts, the worst case of a scan of the open transactions at each stop
+        TransactionInfoBuilder builder = new TransactionInfoBuilder();
+        for (int i = 0; i < K_NB_TRANSACTIONS_FIFO; i++) {
+            builder.start("t" + i, i);
+        }
+        for (int i = 0; i < K_NB_TRANSACTIONS_FIFO; i++) {
+            assertTrue(builder.stop("t" + i, K_NB_TRANSACTIONS_FIFO + i));
+        }
+        List<TransactionInfo> listTransactionInfo = builder.getListTransactionInfo();
+        for (int i = 0; i < K_NB_TRANSACTIONS_FIFO; i++) {
+            assertNull(listTransactionInfo.get(i).getParent(), "t" + i); // [i, N + i] overlap without containment
+        }
+    }
+
+    private static String names(List<TransactionInfo> listTransactionInfo) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < listTransactionInfo.size(); i++) {
+            sb.append(i > 0 ? ", " : "").append(listTransactionInfo.get(i).getName());
+        }
+        return sb.append(']').toString();
+    }
+}
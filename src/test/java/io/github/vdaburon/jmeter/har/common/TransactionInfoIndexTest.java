@@ -0,0 +1,110 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.common;
+
+import io.github.vdaburon.jmeter.har.Utils;
+import io.github.vdaburon.jmeter.har.lrwr.ManageLrwr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * TransactionInfoIndex must find the same transaction as the linear scan of ManageLrwr.getTransactionInfoAroundDateTime (선형 탐색과 같은 결과)
+ */
+class TransactionInfoIndexTest {
+
+    private static final long K_SEED = 20250101L; // fixed seed, a failure can be replayed
+    private static final int K_NB_LISTS = 500;
+    private static final int K_MAX_TRANSACTIONS = 30;
+    private static final long K_TIME_ORIGIN_MICROS = 1714746642000000L; // 2024-05-03T14:30:42Z
+    private static final int K_NB_MILLIS = 100; // the transactions are in [0, 100] ms, a lot of overlaps and same times
+
+    @Test
+    void boundariesAndOverlaps() {
+        List<TransactionInfo> listTransactionInfo = new ArrayList<>();
+        TransactionInfo a = add(listTransactionInfo, "a", 10, 20);
+        TransactionInfo b = add(listTransactionInfo, "b", 20, 30);
+        TransactionInfoIndex transactionInfoIndex = new TransactionInfoIndex(listTransactionInfo);
+        assertNull(transactionInfoIndex.getTransactionInfoAroundTime(millis(9)));
+        assertSame(a, transactionInfoIndex.getTransactionInfoAroundTime(millis(10)), "begin included");
+        assertSame(b, transactionInfoIndex.getTransactionInfoAroundTime(millis(20)), "end of a and begin of b, the last of the list");
+        assertSame(b, transactionInfoIndex.getTransactionInfoAroundTime(millis(30)), "end included");
+        assertNull(transactionInfoIndex.getTransactionInfoAroundTime(millis(30) + 1));
+
+        // the last of the list wins, not the innermost (목록의 마지막이 우선)
+        listTransactionInfo = new ArrayList<>();
+        TransactionInfo inner = add(listTransactionInfo, "inner", 10, 20);
+        TransactionInfo outer = add(listTransactionInfo, "outer", 0, 100);
+        transactionInfoIndex = new TransactionInfoIndex(listTransactionInfo);
+        assertSame(outer, transactionInfoIndex.getTransactionInfoAroundTime(millis(15)));
+        listTransactionInfo.clear();
+        listTransactionInfo.add(outer);
+        listTransactionInfo.add(inner);
+        transactionInfoIndex = new TransactionInfoIndex(listTransactionInfo);
+        assertSame(inner, transactionInfoIndex.getTransactionInfoAroundTime(millis(15)));
+        assertSame(outer, transactionInfoIndex.getTransactionInfoAroundTime(millis(21)));
+        assertNull(new TransactionInfoIndex(new ArrayList<>()).getTransactionInfoAroundTime(millis(15)));
+    }
+
+    /**
+     * Random lists with overlapping, nested and unterminated transactions, each millisecond is searched with the index and with the linear scan
+     */
+    @Test
+    void sameAsLinearScan() {
+        Random random = new Random(K_SEED);
+        for (int l = 0; l < K_NB_LISTS; l++) {
+            List<TransactionInfo> listTransactionInfo = new ArrayList<>();
+            int nbTransactions = random.nextInt(K_MAX_TRANSACTIONS + 1);
+            for (int i = 0; i < nbTransactions; i++) {
+                int begin = random.nextInt(K_NB_MILLIS + 1);
+                TransactionInfo transactionInfo = add(listTransactionInfo, "t" + i, begin, begin + random.nextInt(K_NB_MILLIS + 1 - begin));
+                if (random.nextInt(10) == 0) {
+                    transactionInfo.setEndTimeMicros(TransactionInfo.K_FAR_FUTURE_TIME_MICROS); // no stop
+                }
+            }
+            TransactionInfoIndex transactionInfoIndex = new TransactionInfoIndex(listTransactionInfo);
+            for (int t = -1; t <= K_NB_MILLIS + 1; t++) {
+                long timeMicros = millis(t);
+                assertSame(linearScan(timeMicros, listTransactionInfo), transactionInfoIndex.getTransactionInfoAroundTime(timeMicros), "list " + l + ", time " + t + " ms");
+            }
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static TransactionInfo linearScan(long timeMicros, List<TransactionInfo> listTransactionInfo) {
+        return ManageLrwr.getTransactionInfoAroundDateTime(Utils.epochMicrosToIsoFormat(timeMicros), listTransactionInfo);
+    }
+
+    private static TransactionInfo add(List<TransactionInfo> listTransactionInfo, String name, long beginMillis, long endMillis) {
+        TransactionInfo transactionInfo = new TransactionInfo();
+        transactionInfo.setName(name);
+        transactionInfo.setBeginTimeMicros(millis(beginMillis));
+        transactionInfo.setEndTimeMicros(millis(endMillis));
+        listTransactionInfo.add(transactionInfo);
+        return transactionInfo;
+    }
+
+    private static long millis(long millis) {
+        return K_TIME_ORIGIN_MICROS + millis * 1000L;
+    }
+}
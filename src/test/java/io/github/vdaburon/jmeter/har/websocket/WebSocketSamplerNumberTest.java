@@ -0,0 +1,141 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.websocket;
+
+import io.github.vdaburon.jmeter.har.HarForJMeter;
+import io.github.vdaburon.jmeter.har.HarForJMeterOptions;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The samplers of 2 ws connections with their messages have the same numbers in the JMX and in the Record.xml (JMX와 Record.xml의 같은 번호)
+ */
+class WebSocketSamplerNumberTest {
+
+    // GET, ws a (send, receive, send), GET, ws b (receive, send, receive), GET
+    private static final String K_HAR = "{\"log\":{\"version\":\"1.2\",\"creator\":{\"name\":\"test\",\"version\":\"1\"},\"pages\":[],\"entries\":["
+            + entry("2024-05-03T14:30:42.000Z", "https://www.example.com/index.html", 200, "") + ","
+            + entry("2024-05-03T14:30:43.000Z", "wss://ws.example.com/socket/a", 101, ",\"_resourceType\":\"websocket\",\"_webSocketMessages\":["
+                    + message("send", "1714746643.1", "a-0") + "," + message("receive", "1714746643.2", "a-1") + "," + message("send", "1714746643.3", "a-2") + "]") + ","
+            + entry("2024-05-03T14:30:44.000Z", "https://www.example.com/api", 200, "") + ","
+            + entry("2024-05-03T14:30:45.000Z", "wss://ws.example.com/socket/b", 101, ",\"_resourceType\":\"websocket\",\"_webSocketMessages\":["
+                    + message("receive", "1714746645.1", "b-0") + "," + message("send", "1714746645.2", "b-1") + "," + message("receive", "1714746645.3", "b-2") + "]") + ","
+            + entry("2024-05-03T14:30:46.000Z", "https://www.example.com/end", 200, "")
+            + "]}}";
+
+    private static final List<String> K_JMX_SAMPLERS = Arrays.asList(
+            "001 /index.html",
+            "002 - WebSocket Open Connection /socket/a",
+            "003 - WebSocket request-response Sampler",
+            "004 - WebSocket Single Write Sampler",
+            "005 - WebSocket Close",
+            "006 /api",
+            "007 - WebSocket Open Connection /socket/b",
+            "008 - WebSocket Single Read Sampler",
+            "009 - WebSocket request-response Sampler",
+            "010 - WebSocket Close",
+            "011 /end");
+
+    // no sample for the Close samplers 005 and 010 (닫기 샘플러는 샘플 없음)
+    private static final List<String> K_RECORD_SAMPLES = Arrays.asList(
+            "001 /index.html",
+            "002 - wss://ws.example.com/socket/a",
+            "003 - WebSocket request-response Sampler",
+            "004 - WebSocket Single Write Sampler",
+            "006 /api",
+            "007 - wss://ws.example.com/socket/b",
+            "008 - WebSocket Single Read Sampler",
+            "009 - WebSocket request-response Sampler",
+            "011 /end");
+
+    @Test
+    void twoConnectionsWithMessages() throws Exception {
+        File dir = Files.createTempDirectory("ws_test").toFile();
+        try {
+            File fileHar = new File(dir, "ws.har");
+            Files.write(fileHar.toPath(), K_HAR.getBytes(StandardCharsets.UTF_8));
+
+            // sequential and parallel pages, the parallel creation numbers the pages with the count pass (번호 계산 패스)
+            for (boolean isParallelPages : new boolean[] {false, true}) {
+                File fileJmx = new File(dir, "ws_" + isParallelPages + ".jmx");
+                File fileRecord = new File(dir, "ws_" + isParallelPages + "_record.xml");
+                HarForJMeter.generateJmxAndRecord(new HarForJMeterOptions(fileHar.getPath(), fileJmx.getPath()).setRecordXmlOut(fileRecord.getPath())
+                        .setWebSocketPDoornbosch(true).setParallelPages(isParallelPages));
+
+                assertEquals(K_JMX_SAMPLERS, jmxSamplers(fileJmx), "jmx, parallel pages " + isParallelPages);
+                assertEquals(K_RECORD_SAMPLES, recordSamples(fileRecord), "record, parallel pages " + isParallelPages);
+            }
+        } finally {
+            File[] tabFiles = dir.listFiles();
+            for (int i = 0; tabFiles != null && i < tabFiles.length; i++) {
+                tabFiles[i].delete();
+            }
+            dir.delete();
+        }
+    }
+
+    // the testname of the samplers, the labels starting with the number of the sampler
+    private static List<String> jmxSamplers(File fileJmx) throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(fileJmx);
+        NodeList nodeList = document.getElementsByTagName("*");
+        List<String> listTestnames = new ArrayList<>();
+        for (int i = 0; i < nodeList.getLength(); i++) {
+            String testname = ((Element) nodeList.item(i)).getAttribute("testname");
+            if (testname.matches("\\d{3} .*")) {
+                listTestnames.add(testname);
+            }
+        }
+        return listTestnames;
+    }
+
+    private static List<String> recordSamples(File fileRecord) throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(fileRecord);
+        List<String> listLabels = new ArrayList<>();
+        for (Node node = document.getDocumentElement().getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element) {
+                listLabels.add(((Element) node).getAttribute("lb"));
+            }
+        }
+        return listLabels;
+    }
+
+    private static String entry(String startedDateTime, String url, int status, String wsFields) {
+        return "{\"startedDateTime\":\"" + startedDateTime + "\",\"time\":10,"
+                + "\"request\":{\"method\":\"GET\",\"url\":\"" + url + "\",\"httpVersion\":\"HTTP/1.1\",\"cookies\":[],\"headers\":[],\"queryString\":[],\"headersSize\":-1,\"bodySize\":0},"
+                + "\"response\":{\"status\":" + status + ",\"statusText\":\"\",\"httpVersion\":\"HTTP/1.1\",\"cookies\":[],\"headers\":[],\"content\":{\"size\":0,\"mimeType\":\"text/html\"},\"redirectURL\":\"\",\"headersSize\":-1,\"bodySize\":0},"
+                + "\"cache\":{},\"timings\":{\"send\":1,\"wait\":8,\"receive\":1}" + wsFields + "}";
+    }
+
+    private static String message(String type, String time, String data) {
+        return "{\"type\":\"" + type + "\",\"time\":" + time + ",\"opcode\":1,\"data\":\"" + data + "\"}";
+    }
+}
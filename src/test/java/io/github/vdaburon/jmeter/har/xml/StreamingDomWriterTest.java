@@ -0,0 +1,261 @@
+/*
+ * Copyright 2025 Vincent DABURON
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.github.vdaburon.jmeter.har.xml;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The StreamingDomWriter must write the same bytes as the Transformer used before (UTF-8, indent 2) (Transformer와 같은 바이트)
+ */
+class StreamingDomWriterTest {
+
+    private static final long K_SEED = 20250101L; // fixed seed, a failure can be replayed
+    private static final int K_NB_DOCUMENTS = 2000;
+    private static final String K_SPECIAL_CHARS = "<&>\"'\t\n\r";
+    private static final String K_CONTROL_CHARS = "\u0001\u0008\u000B\u001F\u007F\u0085\u009F";
+    private static final String K_NON_BMP = "😀𐀀􏿿"; // 😀, U+10000, U+10FFFF
+    private static final String[] K_TEXT_PARTS = {"a", " ", "<", ">", "&", "\"", "'", "]", "]]>", "\n", "\r", "\t", "\u0001", "\u001F", "\u007F", "\u0085", "😀", "é"};
+
+    @Test
+    void escapingTextAndAttributes() throws Exception {
+        Document document = newDocument();
+        Element root = document.createElement("root");
+        document.appendChild(root);
+        Element element = document.createElement("stringProp");
+        element.setAttribute("name", K_SPECIAL_CHARS + " a=b");
+        element.setAttribute("value", "");
+        element.appendChild(document.createTextNode("x " + K_SPECIAL_CHARS + " y"));
+        root.appendChild(element);
+        root.appendChild(document.createElement("empty"));
+        Element parent = document.createElement("parent");
+        parent.appendChild(document.createElement("child")).appendChild(document.createTextNode("&lt;"));
+        root.appendChild(parent);
+        assertSameAsTransformer(document);
+    }
+
+    @Test
+    void controlCharacters() throws Exception {
+        Document document = newDocument();
+        Element root = document.createElement("root");
+        document.appendChild(root);
+        Element element = document.createElement("e");
+        element.setAttribute("a", K_CONTROL_CHARS);
+        element.appendChild(document.createTextNode(K_CONTROL_CHARS + " é€"));
+        root.appendChild(element);
+        assertSameAsTransformer(document);
+    }
+
+    @Test
+    void nonBmpInTextAndAttributes() throws Exception {
+        Document document = newDocument();
+        Element root = document.createElement("root");
+        document.appendChild(root);
+        Element element = document.createElement("e");
+        element.setAttribute("a", K_NON_BMP);
+        element.appendChild(document.createTextNode("x" + K_NON_BMP + "y"));
+        root.appendChild(element);
+        assertSameAsTransformer(document);
+    }
+
+    /**
+     * The text of a StreamedText is read by chunks, a surrogate pair cut between 2 chunks is written as one character reference (청크 사이의 서로게이트 쌍)
+     */
+    @Test
+    void nonBmpSplitAcrossStreamedTextChunks() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 8191; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        sb.append("😀"); // the high surrogate is the last char of the 8192 chars buffer of the writer
+        for (int i = 0; i < 100; i++) {
+            sb.append(K_NON_BMP).append(K_SPECIAL_CHARS).append(K_CONTROL_CHARS);
+        }
+        String text = sb.toString();
+
+        for (int maxChunk = 1; maxChunk <= 7; maxChunk++) {
+            assertStreamedTextSameAsTransformer(text, maxChunk);
+        }
+        assertStreamedTextSameAsTransformer(text, 8192);
+        assertStreamedTextSameAsTransformer("", 3);
+
+        // a high surrogate without low surrogate, the Transformer throws too
+        assertThrows(IOException.class, () -> writeStreamedText("abc\uD83D", 2));
+    }
+
+    @Test
+    void cdataSections() throws Exception {
+        String[] tabTexts = {"", "]]>", "a]]>b]]>", "\t\n\r", "\u007F\u0085\u009F", "\u0001\u0002x\u001F", "]]", "]", "a]", "😀", "😀a",
+                "￾", "x]]\u0001>", "\u0001]]>", "<&>\"'", "\n]]>"};
+        for (String text : tabTexts) {
+            Document document = newDocument();
+            Element root = document.createElement("root");
+            document.appendChild(root);
+            root.appendChild(document.createElement("cdata")).appendChild(document.createCDATASection(text));
+            Element element = document.createElement("mixed");
+            element.appendChild(document.createTextNode("t<"));
+            element.appendChild(document.createCDATASection(text));
+            element.appendChild(document.createCDATASection(text));
+            element.appendChild(document.createTextNode("&"));
+            root.appendChild(element);
+            assertSameAsTransformer(document);
+        }
+
+        // a CDATA section with child elements is not supported
+        Document document = newDocument();
+        Element root = document.createElement("root");
+        document.appendChild(root);
+        root.appendChild(document.createCDATASection("a"));
+        root.appendChild(document.createElement("child"));
+        assertThrows(IllegalStateException.class, () -> new StreamingDomWriter(new OutputStreamWriter(new ByteArrayOutputStream(), StandardCharsets.UTF_8)).writeDocument(document));
+    }
+
+    /**
+     * Random sequences of text nodes and CDATA sections with the markup, control and non BMP characters
+     */
+    @Test
+    void randomTextAndCData() throws Exception {
+        Random random = new Random(K_SEED);
+        for (int d = 0; d < K_NB_DOCUMENTS; d++) {
+            Document document = newDocument();
+            Element root = document.createElement("root");
+            document.appendChild(root);
+            Element element = document.createElement("e");
+            element.setAttribute("a", randomText(random));
+            int nbNodes = 1 + random.nextInt(3);
+            for (int i = 0; i < nbNodes; i++) {
+                String text = randomText(random);
+                element.appendChild(random.nextBoolean() ? document.createCDATASection(text) : document.createTextNode(text));
+            }
+            root.appendChild(element);
+            root.appendChild(document.createElement("after"));
+            assertSameAsTransformer(document);
+        }
+    }
+
+    @Test
+    void flushWhileCreating() throws Exception {
+        // the same elements written by flush() while created and by the Transformer at the end
+        Document document = newDocument();
+        Element root = document.createElement("root");
+        document.appendChild(root);
+        Document documentStreamed = newDocument();
+        Element rootStreamed = documentStreamed.createElement("root");
+        documentStreamed.appendChild(rootStreamed);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer out = new OutputStreamWriter(baos, StandardCharsets.UTF_8);
+        StreamingDomWriter streamingDomWriter = new StreamingDomWriter(out);
+        for (int i = 0; i < 5; i++) {
+            for (Document doc : new Document[] {document, documentStreamed}) {
+                Element sampler = doc.createElement("sampler");
+                sampler.setAttribute("testname", i + " " + K_SPECIAL_CHARS);
+                sampler.appendChild(doc.createTextNode(K_NON_BMP + K_CONTROL_CHARS));
+                doc.getDocumentElement().appendChild(sampler);
+                doc.getDocumentElement().appendChild(doc.createElement("hashTree"));
+            }
+            streamingDomWriter.flush(rootStreamed);
+        }
+        streamingDomWriter.finish();
+        assertArrayEquals(transform(document), baos.toByteArray());
+    }
+
+    private static void assertStreamedTextSameAsTransformer(String text, int maxChunk) throws Exception {
+        Document document = newDocument();
+        Element root = document.createElement("root");
+        document.appendChild(root);
+        root.appendChild(document.createElement("responseData")).appendChild(document.createTextNode(text));
+        assertArrayEquals(transform(document), writeStreamedText(text, maxChunk), "chunks of " + maxChunk + " chars");
+    }
+
+    // the document with an element without child and its text given by a StreamedText, the reader returns at most maxChunk chars by read
+    private static byte[] writeStreamedText(String text, int maxChunk) throws Exception {
+        Document document = newDocument();
+        Element root = document.createElement("root");
+        document.appendChild(root);
+        Element element = document.createElement("responseData");
+        root.appendChild(element);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer out = new OutputStreamWriter(baos, StandardCharsets.UTF_8);
+        StreamingDomWriter streamingDomWriter = new StreamingDomWriter(out);
+        streamingDomWriter.setStreamedText(element, () -> new StringReader(text) {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return super.read(cbuf, off, Math.min(len, maxChunk));
+            }
+        });
+        streamingDomWriter.writeDocument(document);
+        out.flush();
+        return baos.toByteArray();
+    }
+
+    private static void assertSameAsTransformer(Document document) throws Exception {
+        byte[] tabExpected = transform(document); // before the StreamingDomWriter, the Document is not changed by writeDocument
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer out = new OutputStreamWriter(baos, StandardCharsets.UTF_8);
+        new StreamingDomWriter(out).writeDocument(document);
+        out.flush();
+        assertArrayEquals(tabExpected, baos.toByteArray(), new String(tabExpected, StandardCharsets.UTF_8));
+    }
+
+    // the Transformer of XmlJmx.saveXmFile before the StreamingDomWriter
+    private static byte[] transform(Document document) throws TransformerException, IOException {
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer out = new OutputStreamWriter(baos, StandardCharsets.UTF_8);
+        transformer.transform(new DOMSource(document), new StreamResult(out));
+        out.flush();
+        return baos.toByteArray();
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int nbParts = random.nextInt(6);
+        for (int i = 0; i < nbParts; i++) {
+            sb.append(K_TEXT_PARTS[random.nextInt(K_TEXT_PARTS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static Document newDocument() throws ParserConfigurationException {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+    }
+}